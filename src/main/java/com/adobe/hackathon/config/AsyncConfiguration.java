@@ -1,16 +1,30 @@
 package com.adobe.hackathon.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Configuration
 @EnableAsync
 public class AsyncConfiguration {
 
+    private static final Logger logger = LoggerFactory.getLogger(AsyncConfiguration.class);
+
     @Bean(name = "taskExecutor")
     public Executor taskExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
@@ -21,4 +35,87 @@ public class AsyncConfiguration {
         executor.initialize();
         return executor;
     }
-}
\ No newline at end of file
+
+    /**
+     * Low-priority lane for speculative work such as precomputing insights after a job
+     * completes. Tasks beyond the queue are dropped; the interactive path computes on demand.
+     */
+    @Bean(name = "precomputeExecutor")
+    public Executor precomputeExecutor(
+            @Value("${app.precompute.threads:1}") int threads,
+            @Value("${app.precompute.queue-capacity:50}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadPriority(Thread.MIN_PRIORITY);
+        executor.setThreadNamePrefix("precompute-");
+        executor.setRejectedExecutionHandler((task, pool) ->
+                logger.info("Precompute queue full, skipping speculative task"));
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Work-stealing pool for the CPU-bound PDF pipeline, kept separate from the common pool.
+     */
+    @Bean(name = "analysisForkJoinPool", destroyMethod = "shutdown")
+    public ForkJoinPool analysisForkJoinPool(
+            @Value("${app.analysis.fork-join.parallelism:0}") int parallelism) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("analysis-fj-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Drivers for server-sent event streams. They wait on LLM and TTS work running on the
+     * ioExecutor, so they must not take threads from it or a burst of streams starves the
+     * calls they are waiting for.
+     */
+    @Bean(name = "streamExecutor", destroyMethod = "shutdown")
+    public ExecutorService streamExecutor(@Value("${app.streaming.threads:32}") int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "stream-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Executor for blocking outbound calls (LLM, TTS). Uses virtual threads when the runtime
+     * provides them, otherwise a pool of daemon platform threads that idle out. Per-provider
+     * concurrency is bounded separately by OutboundCallLimiter.
+     */
+    @Bean(name = "ioExecutor", destroyMethod = "shutdown")
+    public ExecutorService ioExecutor(
+            @Value("${app.io.virtual-threads:true}") boolean virtualThreads,
+            @Value("${app.io.platform-threads:64}") int platformThreads) {
+        if (virtualThreads) {
+            try {
+                ExecutorService executor = (ExecutorService) Executors.class
+                        .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                logger.info("Using virtual threads for outbound I/O");
+                return executor;
+            } catch (ReflectiveOperationException e) {
+                logger.info("Virtual threads not available, using {} platform threads for outbound I/O", platformThreads);
+            }
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(platformThreads, platformThreads,
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "io-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
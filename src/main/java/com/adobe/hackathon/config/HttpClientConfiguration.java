@@ -0,0 +1,125 @@
+package com.adobe.hackathon.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Pooled, keep-alive HTTP client for outbound LLM and TTS calls, with connect and read
+ * timeouts taken from configuration instead of the unbounded defaults.
+ */
+@Configuration
+public class HttpClientConfiguration {
+
+    private static final ThreadLocal<Long> RESPONSE_TIMEOUT_MS = new ThreadLocal<>();
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager outboundConnectionManager(
+            @Value("${app.http.max-connections:100}") int maxConnections,
+            @Value("${app.http.max-connections-per-route:20}") int maxPerRoute,
+            @Value("${app.http.connect-timeout-ms:5000}") long connectTimeoutMs,
+            @Value("${llm.api.timeout:30000}") long readTimeoutMs) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient outboundHttpClient(
+            PoolingHttpClientConnectionManager outboundConnectionManager,
+            @Value("${app.http.connection-request-timeout-ms:5000}") long connectionRequestTimeoutMs,
+            @Value("${llm.api.timeout:30000}") long readTimeoutMs) {
+        return HttpClients.custom()
+                .setConnectionManager(outboundConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectionRequestTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .build())
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                .evictExpiredConnections()
+                // Retries are done by the callers, which know which failures are safe to repeat
+                .disableAutomaticRetries()
+                .build();
+    }
+
+    @Bean
+    public RestTemplate outboundRestTemplate(
+            CloseableHttpClient outboundHttpClient,
+            @Value("${app.http.connection-request-timeout-ms:5000}") long connectionRequestTimeoutMs) {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(outboundHttpClient);
+        // Requests made inside withResponseTimeout use that timeout instead of the client default
+        requestFactory.setHttpContextFactory((method, uri) -> {
+            Long responseTimeoutMs = RESPONSE_TIMEOUT_MS.get();
+            if (responseTimeoutMs == null) {
+                return null;
+            }
+            HttpClientContext context = HttpClientContext.create();
+            context.setRequestConfig(RequestConfig.custom()
+                    .setConnectionRequestTimeout(Timeout.ofMilliseconds(Math.min(connectionRequestTimeoutMs, responseTimeoutMs)))
+                    .setResponseTimeout(Timeout.ofMilliseconds(responseTimeoutMs))
+                    .build());
+            return context;
+        });
+        return new RestTemplate(requestFactory);
+    }
+
+    /**
+     * Runs the call with a shorter response timeout for outbound requests it makes on this
+     * thread, so a caller with a deadline can bound each attempt by the time it has left.
+     */
+    public static <T> T withResponseTimeout(long timeoutMs, Callable<T> call) throws Exception {
+        Long previous = RESPONSE_TIMEOUT_MS.get();
+        RESPONSE_TIMEOUT_MS.set(Math.max(1, timeoutMs));
+        try {
+            return call.call();
+        } finally {
+            if (previous == null) {
+                RESPONSE_TIMEOUT_MS.remove();
+            } else {
+                RESPONSE_TIMEOUT_MS.set(previous);
+            }
+        }
+    }
+
+    @Bean
+    public MeterBinder outboundConnectionPoolMetrics(PoolingHttpClientConnectionManager outboundConnectionManager) {
+        return registry -> {
+            Gauge.builder("http.client.pool.leased", outboundConnectionManager,
+                            manager -> manager.getTotalStats().getLeased())
+                    .description("Outbound connections in use")
+                    .register(registry);
+            Gauge.builder("http.client.pool.available", outboundConnectionManager,
+                            manager -> manager.getTotalStats().getAvailable())
+                    .description("Idle outbound connections kept alive")
+                    .register(registry);
+            Gauge.builder("http.client.pool.pending", outboundConnectionManager,
+                            manager -> manager.getTotalStats().getPending())
+                    .description("Requests waiting for an outbound connection")
+                    .register(registry);
+            Gauge.builder("http.client.pool.max", outboundConnectionManager,
+                            manager -> manager.getTotalStats().getMax())
+                    .register(registry);
+        };
+    }
+}
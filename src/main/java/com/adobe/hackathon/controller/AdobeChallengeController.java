@@ -6,11 +6,24 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 @RestController
@@ -29,9 +42,19 @@ public class AdobeChallengeController {
     @Autowired
     private PodcastGenerationService podcastService;
 
+    @Autowired
+    private TextToSpeechService textToSpeechService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    @Qualifier("streamExecutor")
+    private ExecutorService streamExecutor;
+
+    @Value("${app.streaming.timeout-ms:300000}")
+    private long streamTimeoutMs;
+
     /**
      * Core endpoint for Adobe Challenge - Upload PDFs and get analysis with related sections
      */
@@ -188,6 +211,97 @@ public class AdobeChallengeController {
         }
     }
 
+    /**
+     * Stream insights as server-sent events, one event per section as it completes
+     */
+    @GetMapping(value = "/insights/{jobId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamInsights(@PathVariable String jobId) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+
+        Future<?> generation = streamExecutor.submit(() -> {
+            try {
+                AdobeAnalysisResponse.InsightsBulb insights = insightsBulbService.streamInsights(jobId,
+                        (section, items) -> sendEvent(emitter, section, items));
+                sendEvent(emitter, "complete", insights);
+                emitter.complete();
+            } catch (Exception e) {
+                logger.error("Error streaming insights for job: {}", jobId, e);
+                sendError(emitter, "Failed to generate insights: " + e.getMessage());
+            }
+        });
+        stopOnTimeoutOrError(emitter, generation);
+
+        return emitter;
+    }
+
+    /**
+     * Stream the podcast script as it is generated; audio URLs follow per paragraph block when TTS is enabled
+     */
+    @GetMapping(value = "/podcast/{jobId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPodcast(
+            @PathVariable String jobId,
+            @RequestParam(value = "duration", defaultValue = "120") int durationSeconds) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+
+        Future<?> generation = streamExecutor.submit(() -> {
+            try {
+                AdobeAnalysisResponse.PodcastContent podcast = podcastService.streamPodcast(jobId, durationSeconds,
+                        text -> sendEvent(emitter, "script", text),
+                        audioUrl -> sendEvent(emitter, "audio", audioUrl));
+                sendEvent(emitter, "complete", podcast);
+                emitter.complete();
+            } catch (Exception e) {
+                logger.error("Error streaming podcast for job: {}", jobId, e);
+                sendError(emitter, "Failed to generate podcast: " + e.getMessage());
+            }
+        });
+        stopOnTimeoutOrError(emitter, generation);
+
+        return emitter;
+    }
+
+    // The emitter is already closed by then, so nothing more can be sent; interrupting frees the generator
+    private void stopOnTimeoutOrError(SseEmitter emitter, Future<?> generation) {
+        emitter.onTimeout(() -> generation.cancel(true));
+        emitter.onError(error -> generation.cancel(true));
+    }
+
+    // A failed send means the client disconnected or the stream timed out; the unchecked exception aborts generation
+    private void sendEvent(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (IllegalStateException e) {
+            throw new UncheckedIOException(new IOException("Stream already completed", e));
+        }
+    }
+
+    private void sendError(SseEmitter emitter, String message) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("success", false);
+        error.put("error", message);
+        try {
+            emitter.send(SseEmitter.event().name("error").data(error));
+            emitter.complete();
+        } catch (Exception e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    /**
+     * Serve synthesised podcast audio from disk; Range requests are answered with 206 for seeking
+     */
+    @GetMapping(value = "/podcast/audio/{audioId}.mp3", produces = "audio/mpeg")
+    public ResponseEntity<Resource> getPodcastAudio(@PathVariable String audioId) {
+        return textToSpeechService.findAudio(audioId)
+                .<ResponseEntity<Resource>>map(path -> ResponseEntity.ok()
+                        .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                        .cacheControl(CacheControl.maxAge(Duration.ofDays(1)))
+                        .body(new FileSystemResource(path)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     /**
      * Get document outline with navigation structure
      */
@@ -362,8 +476,7 @@ public class AdobeChallengeController {
             JobStatusResponse status = adobeAnalysisService.getJobStatus(jobId);
 
             if ("COMPLETED".equals(status.getStatus())) {
-                // Parse the result into AdobeAnalysisResponse
-                return objectMapper.readValue(status.getResult(), AdobeAnalysisResponse.class);
+                return adobeAnalysisService.getAnalysis(jobId);
             } else if ("FAILED".equals(status.getStatus())) {
                 throw new RuntimeException("Analysis failed: " + status.getErrorMessage());
             }
@@ -5,21 +5,30 @@ import com.adobe.hackathon.model.dto.JobStatusResponse;
 import com.adobe.hackathon.service.ApplicationMetrics;
 import com.adobe.hackathon.service.DocumentAnalysisService;
 import com.adobe.hackathon.service.EnhancedDocumentAnalysisService;
+import com.adobe.hackathon.service.JobRecoveryService;
+import com.adobe.hackathon.service.JobResultStore;
 import com.adobe.hackathon.util.ValidationUtil;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import com.adobe.hackathon.model.dto.EnhancedDetailedAnalysisResponse;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/analysis")
@@ -28,14 +37,22 @@ public class DocumentAnalysisController {
 
     private static final Logger logger = LoggerFactory.getLogger(DocumentAnalysisController.class);
 
+    private static final int MAX_JOBS_PAGE_SIZE = 100;
+
     @Autowired
     private DocumentAnalysisService analysisService;
 
     @Autowired
     private ApplicationMetrics applicationMetrics;
 
+    @Autowired
+    private JobRecoveryService jobRecoveryService;
+
+    @Autowired
+    private JobResultStore resultStore;
+
     @GetMapping("/results/{jobId}")
-    public ResponseEntity<Map<String, Object>> getJobResults(@PathVariable String jobId) {
+    public ResponseEntity<Map<String, Object>> getJobResults(@PathVariable String jobId, HttpServletResponse servletResponse) {
         try {
             JobStatusResponse status = analysisService.getJobStatus(jobId);
 
@@ -49,13 +66,10 @@ public class DocumentAnalysisController {
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
 
-            if (status.getResult() != null) {
-                Map<String, Object> results = objectMapper.readValue(status.getResult(), Map.class);
-                response.put("data", results);
-            }
-
-            return ResponseEntity.ok(response);
+            return writeRawResult(jobId, response, servletResponse);
 
+        } catch (ResultStreamException e) {
+            throw e;
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -111,6 +125,48 @@ public class DocumentAnalysisController {
         }
     }
 
+    /**
+     * Job history, newest first, in keyset pages. Follow nextCursor until hasMore is false.
+     */
+    @GetMapping("/jobs")
+    public ResponseEntity<Map<String, Object>> listJobs(
+            @RequestParam(value = "status", required = false) List<String> statuses,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+
+        Map<String, Object> response = new HashMap<>();
+
+        if (limit < 1 || limit > MAX_JOBS_PAGE_SIZE) {
+            response.put("success", false);
+            response.put("error", "limit must be between 1 and " + MAX_JOBS_PAGE_SIZE);
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        try {
+            List<String> statusFilter = statuses == null ? List.of()
+                    : statuses.stream().map(status -> status.trim().toUpperCase()).toList();
+            Slice<JobStatusResponse> page = analysisService.listJobs(statusFilter, cursor, limit);
+
+            response.put("success", true);
+            response.put("data", page.getContent());
+            response.put("hasMore", page.hasNext());
+            response.put("nextCursor", page.hasNext()
+                    ? DocumentAnalysisService.encodeCursor(page.getContent().get(page.getNumberOfElements() - 1))
+                    : null);
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            logger.error("Error listing jobs", e);
+            response.put("success", false);
+            response.put("error", "Failed to list jobs: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+
     @GetMapping("/status/{jobId}")
     public ResponseEntity<Map<String, Object>> getJobStatus(@PathVariable String jobId) {
         Map<String, Object> response = new HashMap<>();
@@ -163,6 +219,30 @@ public class DocumentAnalysisController {
         }
     }
 
+    /**
+     * Re-runs a failed job from the last stage it checkpointed.
+     */
+    @PostMapping("/retry/{jobId}")
+    public ResponseEntity<Map<String, Object>> retryJob(@PathVariable String jobId) {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            jobRecoveryService.retryJob(jobId);
+
+            response.put("success", true);
+            response.put("jobId", jobId);
+            response.put("message", "Job re-enqueued from its last checkpoint");
+
+            return ResponseEntity.ok(response);
+
+        } catch (RuntimeException e) {
+            logger.error("Error retrying job: {}", jobId, e);
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
     @GetMapping("/metrics")
     public ResponseEntity<Map<String, Object>> getSystemMetrics() {
         try {
@@ -247,7 +327,7 @@ public class DocumentAnalysisController {
     }
 
     @GetMapping("/results-enhanced/{jobId}")
-    public ResponseEntity<Map<String, Object>> getEnhancedJobResults(@PathVariable String jobId) {
+    public ResponseEntity<Map<String, Object>> getEnhancedJobResults(@PathVariable String jobId, HttpServletResponse servletResponse) {
         try {
             JobStatusResponse status = enhancedAnalysisService.getJobStatus(jobId);
 
@@ -263,23 +343,10 @@ public class DocumentAnalysisController {
             response.put("success", true);
             response.put("analysisType", "enhanced");
 
-            if (status.getResult() != null) {
-                try {
-                    // Parse the result JSON into the enhanced response
-                    EnhancedDetailedAnalysisResponse enhancedResponse = objectMapper.readValue(
-                        status.getResult(), EnhancedDetailedAnalysisResponse.class);
-                    
-                    response.put("data", enhancedResponse);
-                } catch (Exception parseError) {
-                    logger.warn("Could not parse enhanced response, returning raw result: {}", parseError.getMessage());
-                    // Fallback to raw result if parsing fails
-                    Map<String, Object> results = objectMapper.readValue(status.getResult(), Map.class);
-                    response.put("data", results);
-                }
-            }
-
-            return ResponseEntity.ok(response);
+            return writeRawResult(jobId, response, servletResponse);
 
+        } catch (ResultStreamException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error getting enhanced job results for jobId: {}", jobId, e);
             Map<String, Object> response = new HashMap<>();
@@ -290,7 +357,7 @@ public class DocumentAnalysisController {
     }
 
     @GetMapping("/enhanced-direct/{jobId}")
-    public ResponseEntity<Map<String, Object>> getEnhancedResultsDirect(@PathVariable String jobId) {
+    public ResponseEntity<Map<String, Object>> getEnhancedResultsDirect(@PathVariable String jobId, HttpServletResponse servletResponse) {
         try {
             // Get the enhanced response directly from the service
             JobStatusResponse status = enhancedAnalysisService.getJobStatus(jobId);
@@ -310,16 +377,10 @@ public class DocumentAnalysisController {
             response.put("persona", status.getPersona());
             response.put("jobToBeDone", status.getJobToBeDone());
 
-            if (status.getResult() != null) {
-                // The result is now directly the EnhancedDetailedAnalysisResponse
-                EnhancedDetailedAnalysisResponse enhancedResponse = objectMapper.readValue(
-                    status.getResult(), EnhancedDetailedAnalysisResponse.class);
-                
-                response.put("data", enhancedResponse);
-            }
-
-            return ResponseEntity.ok(response);
+            return writeRawResult(jobId, response, servletResponse);
 
+        } catch (ResultStreamException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error getting enhanced results directly for jobId: {}", jobId, e);
             Map<String, Object> response = new HashMap<>();
@@ -432,10 +493,15 @@ public class DocumentAnalysisController {
             int completedCount = 0;
             int failedCount = 0;
             int processingCount = 0;
+
+            Map<String, JobStatusResponse> statuses = enhancedAnalysisService.getJobStatuses(Arrays.asList(jobIds));
             
             for (String jobId : jobIds) {
                 try {
-                    JobStatusResponse status = enhancedAnalysisService.getJobStatus(jobId);
+                    JobStatusResponse status = statuses.get(jobId);
+                    if (status == null) {
+                        throw new RuntimeException("Job not found: " + jobId);
+                    }
                     Map<String, Object> jobInfo = new HashMap<>();
                     jobInfo.put("status", status.getStatus());
                     jobInfo.put("progress", status.getProgress());
@@ -609,6 +675,18 @@ public class DocumentAnalysisController {
             "response", "Cancellation confirmation"
         ));
         
+        utilityEndpoints.put("jobs", Map.of(
+            "method", "GET",
+            "path", "/jobs",
+            "description", "List jobs newest first, one keyset page at a time",
+            "parameters", Map.of(
+                "status", "String - Optional comma-separated statuses to include",
+                "cursor", "String - nextCursor from the previous page",
+                "limit", "Integer - Page size, 1 to 100 (default 20)"
+            ),
+            "response", "Job statuses with hasMore and nextCursor"
+        ));
+        
         utilityEndpoints.put("metrics", Map.of(
             "method", "GET",
             "path", "/metrics",
@@ -639,4 +717,48 @@ public class DocumentAnalysisController {
         
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    /**
+     * Writes the envelope straight to the response with the stored result JSON spliced in as
+     * "data", without parsing it. Returns null once the response has been written.
+     * Everything that can fail runs before the first byte is written, so callers can still
+     * answer with an error; a failure while writing is thrown as ResultStreamException.
+     */
+    private ResponseEntity<Map<String, Object>> writeRawResult(String jobId, Map<String, Object> envelope,
+                                                               HttpServletResponse servletResponse) throws IOException {
+        Optional<JobResultStore.ResultBody> result = resultStore.openResult(jobId);
+        if (result.isEmpty()) {
+            return ResponseEntity.ok(envelope);
+        }
+
+        String head = objectMapper.writeValueAsString(envelope);
+        byte[] prefix = (head.substring(0, head.length() - 1) + ",\"data\":").getBytes(StandardCharsets.UTF_8);
+        byte[] suffix = "}".getBytes(StandardCharsets.UTF_8);
+        JobResultStore.ResultBody body = result.get();
+        long contentLength = prefix.length + body.getLength() + suffix.length;
+
+        servletResponse.setContentType("application/json");
+        servletResponse.setContentLengthLong(contentLength);
+        try {
+            ServletOutputStream out = servletResponse.getOutputStream();
+            out.write(prefix);
+            body.writeTo(out);
+            out.write(suffix);
+            out.flush();
+        } catch (IOException | RuntimeException e) {
+            throw new ResultStreamException(jobId, e);
+        }
+        return null;
+    }
+
+    /**
+     * Thrown once part of a result may already be on the wire, where an error body can no
+     * longer be sent. It is rethrown past the handlers' catch blocks so the container aborts
+     * the response instead of appending an error envelope to a partial one.
+     */
+    static final class ResultStreamException extends RuntimeException {
+        ResultStreamException(String jobId, Throwable cause) {
+            super("Failed while streaming result for job: " + jobId, cause);
+        }
+    }
+}
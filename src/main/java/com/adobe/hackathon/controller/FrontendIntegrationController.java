@@ -2,6 +2,7 @@ package com.adobe.hackathon.controller;
 
 import com.adobe.hackathon.model.dto.*;
 import com.adobe.hackathon.service.AdobeAnalysisService;
+import com.adobe.hackathon.service.SectionColumns;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -78,24 +79,16 @@ public class FrontendIntegrationController {
                 return ResponseEntity.badRequest().body(response);
             }
 
-            // Parse the analysis result to get highlighted sections
-            AdobeAnalysisResponse analysisResult = parseAnalysisResult(status.getResult());
-
-            // Filter sections with high relevance (>80% accuracy requirement)
-            List<PDFSectionInfo> highlightedSections = analysisResult.getHighlightedSections()
-                    .stream()
-                    .filter(section -> section.getRelevanceScore() > 0.8)
-                    .sorted((a, b) -> Double.compare(b.getRelevanceScore(), a.getRelevanceScore()))
-                    .collect(java.util.stream.Collectors.toList());
+            // Filter sections with high relevance (>80% accuracy requirement), best first
+            SectionColumns sections = adobeAnalysisService.getSectionColumns(jobId);
+            int[] rows = sections.highlightedAbove(0.8);
+            List<PDFSectionInfo> highlightedSections = sections.sections(rows);
 
             response.put("success", true);
             response.put("jobId", jobId);
             response.put("highlightedSections", highlightedSections);
             response.put("totalSections", highlightedSections.size());
-            response.put("averageAccuracy", highlightedSections.stream()
-                    .mapToDouble(PDFSectionInfo::getRelevanceScore)
-                    .average()
-                    .orElse(0.0));
+            response.put("averageAccuracy", sections.averageScore(rows));
 
             // Add section explanations (1-2 sentences as required)
             List<Map<String, Object>> sectionsWithExplanations = new ArrayList<>();
@@ -135,7 +128,7 @@ public class FrontendIntegrationController {
                 return ResponseEntity.badRequest().body(response);
             }
 
-            AdobeAnalysisResponse analysisResult = parseAnalysisResult(status.getResult());
+            AdobeAnalysisResponse analysisResult = adobeAnalysisService.getAnalysis(jobId);
             List<RelatedSection> relatedSections = analysisResult.getRelatedSections();
 
             // Format for frontend navigation - group by source section
@@ -410,11 +403,6 @@ public class FrontendIntegrationController {
 
     // Helper methods
 
-    private AdobeAnalysisResponse parseAnalysisResult(String resultJson) throws Exception {
-        com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-        return mapper.readValue(resultJson, AdobeAnalysisResponse.class);
-    }
-
     private String generateSectionExplanation(PDFSectionInfo section) {
         return String.format("This section '%s' is highly relevant based on content analysis. " +
                         "It contains key information related to your specific requirements.",
@@ -423,13 +411,9 @@ public class FrontendIntegrationController {
 
     private PDFSectionInfo findSectionById(String jobId, int sectionId) {
         try {
-            JobStatusResponse status = adobeAnalysisService.getJobStatus(jobId);
-            AdobeAnalysisResponse analysisResult = parseAnalysisResult(status.getResult());
-
-            return analysisResult.getHighlightedSections().stream()
-                    .filter(section -> section.getId() == sectionId)
-                    .findFirst()
-                    .orElse(null);
+            SectionColumns sections = adobeAnalysisService.getSectionColumns(jobId);
+            int row = sections.findHighlighted(sectionId);
+            return row < 0 ? null : sections.section(row);
         } catch (Exception e) {
             logger.error("Error finding section {} in job {}", sectionId, jobId, e);
             return null;
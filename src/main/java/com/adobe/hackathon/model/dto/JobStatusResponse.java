@@ -10,7 +10,6 @@ public class JobStatusResponse {
     private String persona;
     private String jobToBeDone;
     private String errorMessage;
-    private String result;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -23,6 +22,17 @@ public class JobStatusResponse {
         this.progress = progress;
     }
 
+    // Used by the status projection queries in AnalysisJobRepository
+    public JobStatusResponse(String jobId, String status, Double progress, String persona, String jobToBeDone,
+                             String errorMessage, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(jobId, status, progress);
+        this.persona = persona;
+        this.jobToBeDone = jobToBeDone;
+        this.errorMessage = errorMessage;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
     // Getters and Setters
     public String getJobId() { return jobId; }
     public void setJobId(String jobId) { this.jobId = jobId; }
@@ -42,9 +52,6 @@ public class JobStatusResponse {
     public String getErrorMessage() { return errorMessage; }
     public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
 
-    public String getResult() { return result; }
-    public void setResult(String result) { this.result = result; }
-
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
@@ -4,7 +4,11 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "analysis_jobs")
+@Table(name = "analysis_jobs", indexes = {
+        @Index(name = "idx_analysis_jobs_fingerprint", columnList = "fingerprint"),
+        @Index(name = "idx_analysis_jobs_status_created", columnList = "status, created_at"),
+        @Index(name = "idx_analysis_jobs_created", columnList = "created_at")
+})
 public class AnalysisJob {
 
     @Id
@@ -31,9 +35,6 @@ public class AnalysisJob {
     @Column(length = 2000)
     private String errorMessage;
 
-    @Column(columnDefinition = "TEXT")
-    private String result;
-
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     @Column(name = "analysis_type")
@@ -45,6 +46,29 @@ public class AnalysisJob {
     @Column(name = "confidence_score")
     private Double confidenceScore;
 
+    // SHA-256 over uploaded files, persona, job text and analysis type; used to coalesce duplicate submissions
+    @Column(length = 64)
+    private String fingerprint;
+
+    // Node currently processing the job in worker mode; the lease lapses if it stops heartbeating
+    @Column(name = "lease_owner", length = 100)
+    private String leaseOwner;
+
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    // Insights and podcast generated in the background after completion, as JSON
+    @Column(name = "precomputed_insights", columnDefinition = "TEXT")
+    private String precomputedInsights;
+
+    @Column(name = "precomputed_podcast", columnDefinition = "TEXT")
+    private String precomputedPodcast;
+
+    // Bumped by every save and state transition, so a save from a stale copy fails instead of overwriting it
+    @Version
+    @Column(name = "version", columnDefinition = "BIGINT DEFAULT 0 NOT NULL")
+    private long version;
+
     // Add getters and setters
     public String getAnalysisType() { return analysisType; }
     public void setAnalysisType(String analysisType) { this.analysisType = analysisType; }
@@ -55,6 +79,23 @@ public class AnalysisJob {
     public Double getConfidenceScore() { return confidenceScore; }
     public void setConfidenceScore(Double confidenceScore) { this.confidenceScore = confidenceScore; }
 
+    public String getFingerprint() { return fingerprint; }
+    public void setFingerprint(String fingerprint) { this.fingerprint = fingerprint; }
+
+    public String getLeaseOwner() { return leaseOwner; }
+    public void setLeaseOwner(String leaseOwner) { this.leaseOwner = leaseOwner; }
+
+    public LocalDateTime getLeaseExpiresAt() { return leaseExpiresAt; }
+    public void setLeaseExpiresAt(LocalDateTime leaseExpiresAt) { this.leaseExpiresAt = leaseExpiresAt; }
+
+    public String getPrecomputedInsights() { return precomputedInsights; }
+    public void setPrecomputedInsights(String precomputedInsights) { this.precomputedInsights = precomputedInsights; }
+
+    public String getPrecomputedPodcast() { return precomputedPodcast; }
+    public void setPrecomputedPodcast(String precomputedPodcast) { this.precomputedPodcast = precomputedPodcast; }
+
+    public long getVersion() { return version; }
+
     // Constructors
     public AnalysisJob() {
         this.createdAt = LocalDateTime.now();
@@ -99,9 +140,6 @@ public class AnalysisJob {
     public String getErrorMessage() { return errorMessage; }
     public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
 
-    public String getResult() { return result; }
-    public void setResult(String result) { this.result = result; }
-
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
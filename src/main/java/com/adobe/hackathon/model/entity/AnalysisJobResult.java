@@ -0,0 +1,76 @@
+package com.adobe.hackathon.model.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Encoded result of a completed job, kept off the analysis_jobs row so status reads and
+ * progress updates do not carry the result document.
+ */
+@Entity
+@Table(name = "analysis_job_results")
+public class AnalysisJobResult {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", unique = true, nullable = false)
+    private String jobId;
+
+    // ResultCodec used to encode the payload
+    @Column(nullable = false, length = 20)
+    private String codec;
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] payload;
+
+    // Size of the UTF-8 JSON before encoding
+    @Column(name = "original_size", nullable = false)
+    private long originalSize;
+
+    @Column(name = "stored_size", nullable = false)
+    private long storedSize;
+
+    // SHA-256 of the JSON before encoding, checked when decoding
+    @Column(nullable = false, length = 64)
+    private String checksum;
+
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public AnalysisJobResult() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public AnalysisJobResult(String jobId) {
+        this();
+        this.jobId = jobId;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+
+    public String getCodec() { return codec; }
+    public void setCodec(String codec) { this.codec = codec; }
+
+    public byte[] getPayload() { return payload; }
+    public void setPayload(byte[] payload) { this.payload = payload; }
+
+    public long getOriginalSize() { return originalSize; }
+    public void setOriginalSize(long originalSize) { this.originalSize = originalSize; }
+
+    public long getStoredSize() { return storedSize; }
+    public void setStoredSize(long storedSize) { this.storedSize = storedSize; }
+
+    public String getChecksum() { return checksum; }
+    public void setChecksum(String checksum) { this.checksum = checksum; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
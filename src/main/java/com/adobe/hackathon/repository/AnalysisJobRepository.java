@@ -1,27 +1,108 @@
 package com.adobe.hackathon.repository;
 
+import com.adobe.hackathon.model.dto.JobStatusResponse;
 import com.adobe.hackathon.model.entity.AnalysisJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AnalysisJobRepository extends JpaRepository<AnalysisJob, Long> {
 
+    String STATUS_PROJECTION = "SELECT new com.adobe.hackathon.model.dto.JobStatusResponse("
+            + "aj.jobId, aj.status, aj.progress, aj.persona, aj.jobToBeDone, aj.errorMessage, aj.createdAt, aj.updatedAt) "
+            + "FROM AnalysisJob aj ";
+
     Optional<AnalysisJob> findByJobId(String jobId);
 
+    // Status columns only, so polling never reads file paths or precomputed content
+    @Query(STATUS_PROJECTION + "WHERE aj.jobId = :jobId")
+    Optional<JobStatusResponse> findStatusByJobId(@Param("jobId") String jobId);
+
+    @Query(STATUS_PROJECTION + "WHERE aj.jobId IN :jobIds")
+    List<JobStatusResponse> findStatusByJobIdIn(@Param("jobIds") Collection<String> jobIds);
+
     List<AnalysisJob> findByStatus(String status);
 
     @Query("SELECT COUNT(aj) FROM AnalysisJob aj WHERE aj.status = :status")
     long countByStatus(@Param("status") String status);
 
+    @Query("SELECT aj.status, COUNT(aj) FROM AnalysisJob aj GROUP BY aj.status")
+    List<Object[]> countGroupedByStatus();
+
     @Query("SELECT aj FROM AnalysisJob aj WHERE aj.status IN :statuses ORDER BY aj.createdAt DESC")
     List<AnalysisJob> findByStatusIn(@Param("statuses") List<String> statuses);
 
-    @Query("SELECT aj FROM AnalysisJob aj ORDER BY aj.createdAt DESC")
-    List<AnalysisJob> findAllOrderByCreatedAtDesc();
+    Optional<AnalysisJob> findFirstByFingerprintAndStatusInAndCreatedAtAfterOrderByCreatedAtDesc(
+            String fingerprint, List<String> statuses, LocalDateTime createdAfter);
+
+    // Keyset pages, newest first; the cursor is the (createdAt, jobId) of the last row already returned
+    String NEWER_FIRST = " ORDER BY aj.createdAt DESC, aj.jobId DESC";
+    String BEFORE_CURSOR = "(aj.createdAt < :createdAt OR (aj.createdAt = :createdAt AND aj.jobId < :jobId))";
+
+    @Query(STATUS_PROJECTION + NEWER_FIRST)
+    Slice<JobStatusResponse> findStatusPage(Pageable pageable);
+
+    @Query(STATUS_PROJECTION + "WHERE " + BEFORE_CURSOR + NEWER_FIRST)
+    Slice<JobStatusResponse> findStatusPageBefore(@Param("createdAt") LocalDateTime createdAt,
+                                                  @Param("jobId") String jobId, Pageable pageable);
+
+    @Query(STATUS_PROJECTION + "WHERE aj.status IN :statuses" + NEWER_FIRST)
+    Slice<JobStatusResponse> findStatusPageByStatusIn(@Param("statuses") Collection<String> statuses,
+                                                      Pageable pageable);
+
+    @Query(STATUS_PROJECTION + "WHERE aj.status IN :statuses AND " + BEFORE_CURSOR + NEWER_FIRST)
+    Slice<JobStatusResponse> findStatusPageByStatusInBefore(@Param("statuses") Collection<String> statuses,
+                                                            @Param("createdAt") LocalDateTime createdAt,
+                                                            @Param("jobId") String jobId, Pageable pageable);
+
+    // Identity and file location of a job due for retention
+    interface ExpiredJob {
+        String getJobId();
+        String getFilePaths();
+    }
+
+    @Query("SELECT aj.jobId AS jobId, aj.filePaths AS filePaths FROM AnalysisJob aj "
+            + "WHERE aj.status = :status AND aj.createdAt < :before ORDER BY aj.createdAt")
+    List<ExpiredJob> findExpired(@Param("status") String status, @Param("before") LocalDateTime before,
+                                 Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AnalysisJob aj WHERE aj.jobId = :jobId")
+    int deleteByJobId(@Param("jobId") String jobId);
+
+    // Only while the job still has the status it expired in, so a requeued job is left alone
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AnalysisJob aj WHERE aj.jobId = :jobId AND aj.status = :status")
+    int deleteByJobIdAndStatus(@Param("jobId") String jobId, @Param("status") String status);
+
+    // Single column reads, so serving a precomputed result does not load the whole job
+    @Query("SELECT aj.precomputedInsights FROM AnalysisJob aj WHERE aj.jobId = :jobId")
+    Optional<String> findPrecomputedInsights(@Param("jobId") String jobId);
+
+    @Query("SELECT aj.precomputedPodcast FROM AnalysisJob aj WHERE aj.jobId = :jobId")
+    Optional<String> findPrecomputedPodcast(@Param("jobId") String jobId);
+
+    // Targeted updates, so background results never overwrite status or lease columns written concurrently
+    @Modifying
+    @Transactional
+    @Query("UPDATE AnalysisJob aj SET aj.precomputedInsights = :insights WHERE aj.jobId = :jobId")
+    int updatePrecomputedInsights(@Param("jobId") String jobId, @Param("insights") String insights);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE AnalysisJob aj SET aj.precomputedPodcast = :podcast WHERE aj.jobId = :jobId")
+    int updatePrecomputedPodcast(@Param("jobId") String jobId, @Param("podcast") String podcast);
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.adobe.hackathon.repository;
+
+import com.adobe.hackathon.model.entity.AnalysisJobResult;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AnalysisJobResultRepository extends JpaRepository<AnalysisJobResult, Long> {
+
+    Optional<AnalysisJobResult> findByJobId(String jobId);
+
+    // Size and checksum without the payload
+    interface ResultMetadata {
+        long getOriginalSize();
+        String getChecksum();
+    }
+
+    @Query("SELECT r.originalSize AS originalSize, r.checksum AS checksum FROM AnalysisJobResult r WHERE r.jobId = :jobId")
+    Optional<ResultMetadata> findMetadataByJobId(@Param("jobId") String jobId);
+
+    @Query("SELECT COALESCE(SUM(r.originalSize), 0) FROM AnalysisJobResult r")
+    long sumOriginalSize();
+
+    @Query("SELECT COALESCE(SUM(r.storedSize), 0) FROM AnalysisJobResult r")
+    long sumStoredSize();
+
+    @Query("SELECT r.jobId FROM AnalysisJobResult r WHERE r.codec = :codec AND r.createdAt < :before ORDER BY r.createdAt")
+    List<String> findJobIdsByCodecCreatedBefore(@Param("codec") String codec, @Param("before") LocalDateTime before,
+                                                Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AnalysisJobResult r WHERE r.jobId = :jobId")
+    int deleteByJobId(@Param("jobId") String jobId);
+}
@@ -0,0 +1,21 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.dto.AdobeAnalysisRequest;
+
+/**
+ * Published once an Adobe analysis job has completed and its sections are available.
+ */
+public class AdobeAnalysisCompletedEvent {
+
+    private final String jobId;
+    private final AdobeAnalysisRequest request;
+
+    public AdobeAnalysisCompletedEvent(String jobId, AdobeAnalysisRequest request) {
+        this.jobId = jobId;
+        this.request = request;
+    }
+
+    public String getJobId() { return jobId; }
+
+    public AdobeAnalysisRequest getRequest() { return request; }
+}
@@ -3,10 +3,13 @@ package com.adobe.hackathon.service;
 import com.adobe.hackathon.model.dto.*;
 import com.adobe.hackathon.model.entity.AnalysisJob;
 import com.adobe.hackathon.repository.AnalysisJobRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -20,6 +23,8 @@ public class AdobeAnalysisService {
 
     private static final Logger logger = LoggerFactory.getLogger(AdobeAnalysisService.class);
 
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
     @Autowired
     private AnalysisJobRepository jobRepository;
 
@@ -32,60 +37,123 @@ public class AdobeAnalysisService {
     @Autowired
     private ObjectMapper objectMapper;
 
-    // In-memory storage for quick access during demo
-    private final Map<String, AdobeAnalysisResponse> analysisResults = new HashMap<>();
-    private final Map<String, Map<String, Object>> documentAnalyses = new HashMap<>();
+    @Autowired
+    private JobProgressTracker progressTracker;
+
+    @Autowired
+    private JobMetrics jobMetrics;
+
+    @Autowired
+    private SubmissionDeduplicator deduplicator;
+
+    @Autowired
+    private JobCancellationRegistry cancellationRegistry;
+
+    @Autowired
+    private JobCheckpointStore checkpointStore;
+
+    @Autowired
+    private JobResultStore resultStore;
+
+    @Autowired
+    private JobArtifactCache artifactCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // In worker mode jobs are only persisted here and picked up by whichever node claims them
+    @Value("${app.worker.enabled:false}")
+    private boolean workerMode;
 
     public String submitAnalysis(AdobeAnalysisRequest request, MultipartFile[] files) throws Exception {
         String jobId = UUID.randomUUID().toString();
 
+        // Identical submissions within the dedup window attach to the existing job
+        String fingerprint = deduplicator.fingerprint(files, request.getPersona(), request.getJobToBeDone(),
+                dedupType(request));
+        Optional<String> existingJobId = deduplicator.reserve(fingerprint, jobId);
+        if (existingJobId.isPresent()) {
+            logger.info("Adobe analysis job coalesced into existing job: {}", existingJobId.get());
+            return existingJobId.get();
+        }
+
         // Create and save analysis job
         AnalysisJob job = new AnalysisJob(jobId, request.getPersona(), request.getJobToBeDone());
         job.setStatus("PENDING");
         job.setProgress(0.0);
+        job.setAnalysisType("adobe");
+        job.setFingerprint(fingerprint);
 
-        // Store files
-        String filePaths = fileStorageService.storeFiles(files, jobId);
-        job.setFilePaths(filePaths);
+        try {
+            // Store files
+            String filePaths = fileStorageService.storeFiles(files, jobId);
+            job.setFilePaths(filePaths);
 
-        // Save job to database
-        jobRepository.save(job);
+            // Keep the request options so recovery can resume the job with the same settings
+            checkpointStore.save(filePaths, "request", request);
+
+            // Save job to database
+            jobRepository.save(job);
+        } catch (Exception e) {
+            deduplicator.release(fingerprint, jobId);
+            throw e;
+        }
+        deduplicator.markCreated(fingerprint, jobId);
+        jobMetrics.recordSubmitted();
 
         // Start async processing
-        processAdobeAnalysisAsync(jobId, request);
+        if (!workerMode) {
+            processAdobeAnalysisAsync(jobId, request);
+        }
 
         logger.info("Adobe analysis job submitted with ID: {}", jobId);
         return jobId;
     }
 
+    // Every option that changes what the job produces, including the background insights and podcast
+    static String dedupType(AdobeAnalysisRequest request) {
+        return "adobe:" + request.getMaxRelatedSections() + ":" + request.getSimilarityThreshold()
+                + ":" + request.isEnableRelatedSections() + ":" + request.isGenerateInsights()
+                + ":" + request.isEnablePodcastMode();
+    }
+
     @Async
     public CompletableFuture<Void> processAdobeAnalysisAsync(String jobId, AdobeAnalysisRequest request) {
         long startTime = System.currentTimeMillis();
+        CancellationToken token = cancellationRegistry.begin(jobId);
 
         try {
             AnalysisJob job = jobRepository.findByJobId(jobId)
                     .orElseThrow(() -> new RuntimeException("Job not found: " + jobId));
+            if ("CANCELLED".equals(job.getStatus())) {
+                logger.info("Skipping cancelled job: {}", jobId);
+                return CompletableFuture.completedFuture(null);
+            }
 
             // Update status to processing
-            job.setStatus("PROCESSING");
-            job.setProgress(0.1);
-            jobRepository.save(job);
+            progressTracker.update(jobId, "PROCESSING", 0.1);
 
             // Step 1: Enhanced PDF Analysis with Adobe requirements
             logger.info("Starting Adobe PDF analysis for job: {}", jobId);
-            Map<String, Object> pdfAnalysis = enhancedPdfService.analyzePdfsForAdobe(job.getFilePaths());
-            job.setProgress(0.4);
-            jobRepository.save(job);
+            Map<String, Object> pdfAnalysis = restoreSectionTypes(checkpointStore.loadOrCompute(
+                    job.getFilePaths(), "pdf-analysis", MAP_TYPE,
+                    () -> enhancedPdfService.analyzePdfsForAdobe(job.getFilePaths(), token)));
+            token.throwIfCancelled();
+            progressTracker.update(jobId, "PROCESSING", 0.4);
 
             // Store for later access
-            documentAnalyses.put(jobId, pdfAnalysis);
+            artifactCache.put(jobId, new JobArtifactCache.Artifacts(null, pdfAnalysis));
 
             // Step 2: Extract sections and identify related sections
             logger.info("Extracting sections and finding relationships for job: {}", jobId);
-            List<PDFSectionInfo> highlightedSections = extractHighlightedSections(pdfAnalysis, request);
-            List<RelatedSection> relatedSections = findRelatedSections(highlightedSections, request);
-            job.setProgress(0.7);
-            jobRepository.save(job);
+            List<PDFSectionInfo> highlightedSections = checkpointStore.loadOrCompute(job.getFilePaths(), "highlighted-sections",
+                    new TypeReference<List<PDFSectionInfo>>() {},
+                    () -> extractHighlightedSections(pdfAnalysis, request));
+            List<RelatedSection> relatedSections = checkpointStore.loadOrCompute(job.getFilePaths(), "related-sections",
+                    new TypeReference<List<RelatedSection>>() {},
+                    () -> findRelatedSections(highlightedSections, request));
+            token.throwIfCancelled();
+            progressTracker.update(jobId, "PROCESSING", 0.7);
 
             // Step 3: Create Adobe Analysis Response
             AdobeAnalysisResponse response = new AdobeAnalysisResponse();
@@ -96,55 +164,162 @@ public class AdobeAnalysisService {
             response.setRelatedSections(relatedSections);
             response.setProcessingTimeMs(System.currentTimeMillis() - startTime);
 
-            // Store results
-            analysisResults.put(jobId, response);
-
             // Save final results
             String resultJson = objectMapper.writeValueAsString(response);
-            job.setResult(resultJson);
-            job.setStatus("COMPLETED");
-            job.setProgress(1.0);
-            jobRepository.save(job);
+            artifactCache.put(jobId, new JobArtifactCache.Artifacts(response, pdfAnalysis));
+            token.throwIfCancelled();
+            resultStore.save(jobId, resultJson);
+            if (!progressTracker.complete(jobId)) {
+                // Cancelled while the result was being written; a job finished by another node keeps its result
+                if (progressTracker.getPersistedStatus(jobId).filter("CANCELLED"::equals).isPresent()) {
+                    resultStore.delete(jobId);
+                    handleCancelledWorker(jobId);
+                }
+                return CompletableFuture.completedFuture(null);
+            }
 
+            checkpointStore.deleteAll(job.getFilePaths());
             logger.info("Adobe analysis completed for job: {} in {}ms", jobId, response.getProcessingTimeMs());
 
+            // Insights and podcast are generated in the background when the request asked for them
+            eventPublisher.publishEvent(new AdobeAnalysisCompletedEvent(jobId, request));
+
+        } catch (JobCancelledException e) {
+            handleCancelledWorker(jobId);
         } catch (Exception e) {
+            if (token.isCancelled()) {
+                handleCancelledWorker(jobId);
+                return CompletableFuture.completedFuture(null);
+            }
             logger.error("Error processing Adobe analysis for job: {}", jobId, e);
 
-            // Update job with error status
-            jobRepository.findByJobId(jobId).ifPresent(job -> {
-                job.setStatus("FAILED");
-                job.setErrorMessage(e.getMessage());
-                jobRepository.save(job);
-            });
+            // Update job with error status, unless it was cancelled meanwhile
+            progressTracker.fail(jobId, e.getMessage());
+        } finally {
+            cancellationRegistry.end(jobId, token);
         }
 
         return CompletableFuture.completedFuture(null);
     }
 
+    private void handleCancelledWorker(String jobId) {
+        logger.info("Stopped Adobe analysis for cancelled job: {}", jobId);
+        artifactCache.invalidate(jobId);
+        jobRepository.findByJobId(jobId).ifPresent(job -> {
+            if (job.getFilePaths() != null) {
+                fileStorageService.deleteJobFiles(job.getFilePaths());
+            }
+        });
+    }
+
+    /**
+     * Rebuilds the request a job was submitted with, falling back to defaults for jobs
+     * created before request checkpoints existed.
+     */
+    public AdobeAnalysisRequest restoreRequest(AnalysisJob job) {
+        return checkpointStore.load(job.getFilePaths(), "request", new TypeReference<AdobeAnalysisRequest>() {})
+                .orElseGet(() -> new AdobeAnalysisRequest(job.getPersona(), job.getJobToBeDone()));
+    }
+
+    // Sections read back from a checkpoint are plain maps; the rest of the service expects typed lists
+    private Map<String, Object> restoreSectionTypes(Map<String, Object> pdfAnalysis) {
+        Object files = pdfAnalysis.get("files");
+        if (!(files instanceof List)) {
+            return pdfAnalysis;
+        }
+
+        for (Object entry : (List<?>) files) {
+            if (entry instanceof Map) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> file = (Map<String, Object>) entry;
+                file.computeIfPresent("sections", (key, value) ->
+                        objectMapper.convertValue(value, new TypeReference<List<PDFSectionInfo>>() {}));
+                file.computeIfPresent("relatedSections", (key, value) ->
+                        objectMapper.convertValue(value, new TypeReference<List<RelatedSection>>() {}));
+            }
+        }
+        return pdfAnalysis;
+    }
+
+    public AdobeAnalysisResponse getAnalysis(String jobId) {
+        return findCompletedArtifacts(jobId).getAnalysis();
+    }
+
+    /**
+     * Columnar view of a completed job's sections, built once per cached analysis.
+     */
+    public SectionColumns getSectionColumns(String jobId) {
+        return findCompletedArtifacts(jobId).getSections();
+    }
+
+    private JobArtifactCache.Artifacts findCompletedArtifacts(String jobId) {
+        Optional<JobArtifactCache.Artifacts> artifacts = artifactCache.get(jobId, this::loadArtifacts);
+        // The worker replaces a running job's entry when it writes the result; one finished by
+        // another node is picked up once its status says so, not reloaded on every read
+        if (artifacts.isPresent() && artifacts.get().getAnalysis() == null
+                && progressTracker.getPersistedStatus(jobId).filter("COMPLETED"::equals).isPresent()) {
+            artifactCache.invalidate(jobId);
+            artifacts = artifactCache.get(jobId, this::loadArtifacts);
+        }
+        return artifacts.filter(a -> a.getAnalysis() != null)
+                .orElseThrow(() -> new RuntimeException("Analysis not found for job: " + jobId));
+    }
+
+    private JobArtifactCache.Artifacts findDocumentArtifacts(String jobId) {
+        return artifactCache.get(jobId, this::loadArtifacts)
+                .filter(a -> a.getDocumentAnalysis() != null)
+                .orElseThrow(() -> new RuntimeException("Document analysis not found for job: " + jobId));
+    }
+
+    private Map<String, Object> findDocumentAnalysis(String jobId) {
+        return findDocumentArtifacts(jobId).getDocumentAnalysis();
+    }
+
+    /**
+     * Rebuilds a job's artifacts after eviction, a restart or on another node: from the stored
+     * result once the job has completed, otherwise from its document analysis checkpoint.
+     */
+    private Optional<JobArtifactCache.Artifacts> loadArtifacts(String jobId) {
+        Optional<AnalysisJob> job = jobRepository.findByJobId(jobId);
+        if (job.isEmpty()) {
+            return Optional.empty();
+        }
+
+        try {
+            if ("COMPLETED".equals(job.get().getStatus())) {
+                Optional<String> resultJson = resultStore.load(jobId);
+                if (resultJson.isEmpty()) {
+                    return Optional.empty();
+                }
+                AdobeAnalysisResponse analysis = objectMapper.readValue(resultJson.get(), AdobeAnalysisResponse.class);
+                if (analysis.getDocumentAnalysis() != null) {
+                    restoreSectionTypes(analysis.getDocumentAnalysis());
+                }
+                return Optional.of(new JobArtifactCache.Artifacts(analysis, analysis.getDocumentAnalysis()));
+            }
+
+            String filePaths = job.get().getFilePaths();
+            if (filePaths == null) {
+                return Optional.empty();
+            }
+            return checkpointStore.load(filePaths, "pdf-analysis", MAP_TYPE)
+                    .map(pdfAnalysis -> new JobArtifactCache.Artifacts(null, restoreSectionTypes(pdfAnalysis)));
+        } catch (Exception e) {
+            logger.warn("Failed to read stored Adobe analysis for job: {}", jobId, e);
+            return Optional.empty();
+        }
+    }
+
     public JobStatusResponse getJobStatus(String jobId) {
-        AnalysisJob job = jobRepository.findByJobId(jobId)
+        JobStatusResponse response = jobRepository.findStatusByJobId(jobId)
                 .orElseThrow(() -> new RuntimeException("Job not found: " + jobId));
-
-        JobStatusResponse response = new JobStatusResponse();
-        response.setJobId(job.getJobId());
-        response.setStatus(job.getStatus());
-        response.setProgress(job.getProgress());
-        response.setPersona(job.getPersona());
-        response.setJobToBeDone(job.getJobToBeDone());
-        response.setErrorMessage(job.getErrorMessage());
-        response.setResult(job.getResult());
-        response.setCreatedAt(job.getCreatedAt());
-        response.setUpdatedAt(job.getUpdatedAt());
+        progressTracker.applyTo(response);
 
         return response;
     }
 
     public List<RelatedSection> getRelatedSections(String jobId, int sectionId) {
-        AdobeAnalysisResponse analysis = analysisResults.get(jobId);
-        if (analysis == null) {
-            throw new RuntimeException("Analysis not found for job: " + jobId);
-        }
+        AdobeAnalysisResponse analysis = getAnalysis(jobId);
 
         return analysis.getRelatedSections().stream()
                 .filter(rs -> rs.getSourceSection().getId() == sectionId)
@@ -152,10 +327,7 @@ public class AdobeAnalysisService {
     }
 
     public Map<String, Object> getDocumentOutline(String jobId) {
-        Map<String, Object> documentAnalysis = documentAnalyses.get(jobId);
-        if (documentAnalysis == null) {
-            throw new RuntimeException("Document analysis not found for job: " + jobId);
-        }
+        Map<String, Object> documentAnalysis = findDocumentAnalysis(jobId);
 
         Map<String, Object> outline = new HashMap<>();
 
@@ -197,12 +369,8 @@ public class AdobeAnalysisService {
         return outline;
     }
 
-    public List<PDFSectionInfo> searchDocuments(String jobId, String query, int maxResults) {
-        Map<String, Object> documentAnalysis = documentAnalyses.get(jobId);
-        if (documentAnalysis == null) {
-            throw new RuntimeException("Document analysis not found for job: " + jobId);
-        }
-
+    public List<PDFSectionInfo> getAllSections(String jobId) {
+        Map<String, Object> documentAnalysis = findDocumentAnalysis(jobId);
         List<PDFSectionInfo> allSections = new ArrayList<>();
 
         @SuppressWarnings("unchecked")
@@ -211,35 +379,29 @@ public class AdobeAnalysisService {
         for (Map<String, Object> file : files) {
             @SuppressWarnings("unchecked")
             List<PDFSectionInfo> sections = (List<PDFSectionInfo>) file.get("sections");
-            allSections.addAll(sections);
+            if (sections != null) {
+                allSections.addAll(sections);
+            }
         }
 
-        String lowerQuery = query.toLowerCase();
+        return allSections;
+    }
 
-        return allSections.stream()
-                .filter(section ->
-                        section.getTitle().toLowerCase().contains(lowerQuery) ||
-                                section.getContentPreview().toLowerCase().contains(lowerQuery) ||
-                                section.getKeywords().stream().anyMatch(keyword ->
-                                        keyword.toLowerCase().contains(lowerQuery))
-                )
-                .sorted((a, b) -> Double.compare(b.getRelevanceScore(), a.getRelevanceScore()))
-                .limit(maxResults)
-                .collect(Collectors.toList());
+    public List<PDFSectionInfo> searchDocuments(String jobId, String query, int maxResults) {
+        SectionColumns sections = findDocumentArtifacts(jobId).getSections();
+        return sections.sections(sections.search(query, maxResults));
     }
 
     public Map<String, Object> getPageContent(String jobId, int pageNumber) {
-        Map<String, Object> documentAnalysis = documentAnalyses.get(jobId);
-        if (documentAnalysis == null) {
-            throw new RuntimeException("Document analysis not found for job: " + jobId);
-        }
+        JobArtifactCache.Artifacts artifacts = findDocumentArtifacts(jobId);
 
         Map<String, Object> pageContent = new HashMap<>();
 
         @SuppressWarnings("unchecked")
-        List<Map<String, Object>> files = (List<Map<String, Object>>) documentAnalysis.get("files");
+        List<Map<String, Object>> files = (List<Map<String, Object>>) artifacts.getDocumentAnalysis().get("files");
 
-        for (Map<String, Object> file : files) {
+        for (int document = 0; document < files.size(); document++) {
+            Map<String, Object> file = files.get(document);
             @SuppressWarnings("unchecked")
             List<Map<String, Object>> pages = (List<Map<String, Object>>) file.get("pages");
 
@@ -252,13 +414,8 @@ public class AdobeAnalysisService {
                 pageContent.put("headings", page.get("headings"));
 
                 // Get sections on this page
-                @SuppressWarnings("unchecked")
-                List<PDFSectionInfo> sections = (List<PDFSectionInfo>) file.get("sections");
-                List<PDFSectionInfo> pageSections = sections.stream()
-                        .filter(section -> section.getPageNumber() == pageNumber)
-                        .collect(Collectors.toList());
-
-                pageContent.put("sections", pageSections);
+                SectionColumns sections = artifacts.getSections();
+                pageContent.put("sections", sections.sections(sections.onPage(document, pageNumber)));
                 break;
             }
         }
@@ -267,10 +424,7 @@ public class AdobeAnalysisService {
     }
 
     public Map<String, Object> exportAnalysis(String jobId, String format) {
-        AdobeAnalysisResponse analysis = analysisResults.get(jobId);
-        if (analysis == null) {
-            throw new RuntimeException("Analysis not found for job: " + jobId);
-        }
+        AdobeAnalysisResponse analysis = getAnalysis(jobId);
 
         Map<String, Object> exportData = new HashMap<>();
         exportData.put("jobId", jobId);
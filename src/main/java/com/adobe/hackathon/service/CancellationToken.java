@@ -0,0 +1,68 @@
+package com.adobe.hackathon.service;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+
+/**
+ * Cooperative cancellation handle for one analysis job. The pipeline checks it at
+ * stage, document and page boundaries; cancelling also interrupts any futures
+ * registered for the job.
+ */
+public final class CancellationToken {
+
+    /** Token for callers outside a tracked job; never fires. */
+    public static final CancellationToken NONE = new CancellationToken(null);
+
+    private final String jobId;
+    private final Set<Future<?>> futures = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+
+    public CancellationToken(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void throwIfCancelled() {
+        if (cancelled) {
+            throw new JobCancelledException(jobId);
+        }
+    }
+
+    public <F extends Future<?>> F register(F future) {
+        if (this == NONE) {
+            return future;
+        }
+        futures.add(future);
+        if (cancelled) {
+            future.cancel(true);
+        }
+        return future;
+    }
+
+    public void unregister(Future<?> future) {
+        futures.remove(future);
+    }
+
+    /**
+     * The worker thread itself is not interrupted: it also performs the job's database
+     * writes, and an interrupt there can close the H2 file store.
+     */
+    public void cancel() {
+        if (this == NONE || cancelled) {
+            return;
+        }
+        cancelled = true;
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+        futures.clear();
+    }
+}
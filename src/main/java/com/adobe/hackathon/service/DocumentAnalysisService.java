@@ -4,10 +4,15 @@ import com.adobe.hackathon.model.dto.AnalysisRequest;
 import com.adobe.hackathon.model.dto.JobStatusResponse;
 import com.adobe.hackathon.model.entity.AnalysisJob;
 import com.adobe.hackathon.repository.AnalysisJobRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -15,6 +20,9 @@ import com.adobe.hackathon.model.dto.DetailedAnalysisResponse;
 import com.adobe.hackathon.model.dto.ExtractedSection;
 import com.adobe.hackathon.model.dto.SubsectionAnalysis;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -29,6 +37,8 @@ public class DocumentAnalysisService {
 
     private static final Logger logger = LoggerFactory.getLogger(DocumentAnalysisService.class);
 
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
     @Autowired
     private AnalysisJobRepository jobRepository;
 
@@ -44,24 +54,64 @@ public class DocumentAnalysisService {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private JobProgressTracker progressTracker;
+
+    @Autowired
+    private JobMetrics jobMetrics;
+
+    @Autowired
+    private SubmissionDeduplicator deduplicator;
+
+    @Autowired
+    private JobCancellationRegistry cancellationRegistry;
+
+    @Autowired
+    private JobCheckpointStore checkpointStore;
+
+    @Autowired
+    private JobResultStore resultStore;
+
+    // In worker mode jobs are only persisted here and picked up by whichever node claims them
+    @Value("${app.worker.enabled:false}")
+    private boolean workerMode;
+
     public String submitAnalysis(AnalysisRequest request, MultipartFile[] files) throws Exception {
         // Generate unique job ID
         String jobId = UUID.randomUUID().toString();
 
+        // Identical submissions within the dedup window attach to the existing job
+        String fingerprint = deduplicator.fingerprint(files, request.getPersona(), request.getJobToBeDone(), "standard");
+        Optional<String> existingJobId = deduplicator.reserve(fingerprint, jobId);
+        if (existingJobId.isPresent()) {
+            logger.info("Analysis job coalesced into existing job: {}", existingJobId.get());
+            return existingJobId.get();
+        }
+
         // Create and save analysis job
         AnalysisJob job = new AnalysisJob(jobId, request.getPersona(), request.getJobToBeDone());
         job.setStatus("PENDING");
         job.setProgress(0.0);
+        job.setFingerprint(fingerprint);
 
-        // Store files
-        String filePaths = fileStorageService.storeFiles(files, jobId);
-        job.setFilePaths(filePaths);
+        try {
+            // Store files
+            String filePaths = fileStorageService.storeFiles(files, jobId);
+            job.setFilePaths(filePaths);
 
-        // Save job to database
-        jobRepository.save(job);
+            // Save job to database
+            jobRepository.save(job);
+        } catch (Exception e) {
+            deduplicator.release(fingerprint, jobId);
+            throw e;
+        }
+        deduplicator.markCreated(fingerprint, jobId);
+        jobMetrics.recordSubmitted();
 
         // Start async processing
-        processAnalysisAsync(jobId);
+        if (!workerMode) {
+            processAnalysisAsync(jobId);
+        }
 
         logger.info("Analysis job submitted with ID: {}", jobId);
         return jobId;
@@ -69,31 +119,36 @@ public class DocumentAnalysisService {
 
     @Async
     public CompletableFuture<Void> processAnalysisAsync(String jobId) {
+        CancellationToken token = cancellationRegistry.begin(jobId);
         try {
             AnalysisJob job = jobRepository.findByJobId(jobId)
                     .orElseThrow(() -> new RuntimeException("Job not found: " + jobId));
+            if ("CANCELLED".equals(job.getStatus())) {
+                logger.info("Skipping cancelled job: {}", jobId);
+                return CompletableFuture.completedFuture(null);
+            }
 
             // Update status to processing
-            job.setStatus("PROCESSING");
-            job.setProgress(0.1);
-            jobRepository.save(job);
+            progressTracker.update(jobId, "PROCESSING", 0.1);
 
             // Step 1: PDF Analysis
             logger.info("Starting PDF analysis for job: {}", jobId);
-            Map<String, Object> pdfAnalysis = pdfAnalysisService.analyzePdfs(job.getFilePaths());
-            job.setProgress(0.5);
-            jobRepository.save(job);
+            Map<String, Object> pdfAnalysis = checkpointStore.loadOrCompute(job.getFilePaths(), "pdf-analysis", MAP_TYPE,
+                    () -> pdfAnalysisService.analyzePdfs(job.getFilePaths(), token));
+            token.throwIfCancelled();
+            progressTracker.update(jobId, "PROCESSING", 0.5);
 
             // Step 2: Semantic Analysis
             logger.info("Starting semantic analysis for job: {}", jobId);
-            Map<String, Object> semanticAnalysis = semanticAnalysisService.performSemanticAnalysis(
-                    pdfAnalysis, job.getPersona(), job.getJobToBeDone());
-            job.setProgress(0.8);
-            jobRepository.save(job);
+            Map<String, Object> semanticAnalysis = checkpointStore.loadOrCompute(job.getFilePaths(), "semantic-analysis", MAP_TYPE,
+                    () -> semanticAnalysisService.performSemanticAnalysis(pdfAnalysis, job.getPersona(), job.getJobToBeDone()));
+            token.throwIfCancelled();
+            progressTracker.update(jobId, "PROCESSING", 0.8);
 
             // Step 3: Combine results
-            DetailedAnalysisResponse detailedResponse = createDetailedResponse(
-                    pdfAnalysis, job.getFilePaths(), job.getPersona(), job.getJobToBeDone());
+            DetailedAnalysisResponse detailedResponse = checkpointStore.loadOrCompute(job.getFilePaths(), "detailed-response",
+                    new TypeReference<DetailedAnalysisResponse>() {},
+                    () -> createDetailedResponse(pdfAnalysis, job.getFilePaths(), job.getPersona(), job.getJobToBeDone(), token));
 
 // Combine with existing analysis
             Map<String, Object> finalResult = new HashMap<>();
@@ -104,62 +159,113 @@ public class DocumentAnalysisService {
 
 // Save final results
             String resultJson = objectMapper.writeValueAsString(finalResult);
-            job.setResult(resultJson);
-            job.setStatus("COMPLETED");
-            job.setProgress(1.0);
-            jobRepository.save(job);
+            token.throwIfCancelled();
+            resultStore.save(jobId, resultJson);
+            if (!progressTracker.complete(jobId)) {
+                // Cancelled while the result was being written; a job finished by another node keeps its result
+                if (progressTracker.getPersistedStatus(jobId).filter("CANCELLED"::equals).isPresent()) {
+                    resultStore.delete(jobId);
+                    handleCancelledWorker(jobId);
+                }
+                return CompletableFuture.completedFuture(null);
+            }
 
+            checkpointStore.deleteAll(job.getFilePaths());
             logger.info("Analysis completed for job: {}", jobId);
 
+        } catch (JobCancelledException e) {
+            handleCancelledWorker(jobId);
         } catch (Exception e) {
+            if (token.isCancelled()) {
+                handleCancelledWorker(jobId);
+                return CompletableFuture.completedFuture(null);
+            }
             logger.error("Error processing analysis for job: {}", jobId, e);
 
-            // Update job with error status
-            jobRepository.findByJobId(jobId).ifPresent(job -> {
-                job.setStatus("FAILED");
-                job.setErrorMessage(e.getMessage());
-                jobRepository.save(job);
-            });
+            // Update job with error status, unless it was cancelled meanwhile
+            progressTracker.fail(jobId, e.getMessage());
+        } finally {
+            cancellationRegistry.end(jobId, token);
         }
 
         return CompletableFuture.completedFuture(null);
     }
 
+    private void handleCancelledWorker(String jobId) {
+        logger.info("Stopped processing cancelled job: {}", jobId);
+        // cancelJob leaves file cleanup to the worker while it still has the PDFs open
+        jobRepository.findByJobId(jobId).ifPresent(job -> {
+            if (job.getFilePaths() != null) {
+                fileStorageService.deleteJobFiles(job.getFilePaths());
+            }
+        });
+    }
+
     public JobStatusResponse getJobStatus(String jobId) {
-        AnalysisJob job = jobRepository.findByJobId(jobId)
+        JobStatusResponse response = jobRepository.findStatusByJobId(jobId)
                 .orElseThrow(() -> new RuntimeException("Job not found: " + jobId));
-
-        JobStatusResponse response = new JobStatusResponse();
-        response.setJobId(job.getJobId());
-        response.setStatus(job.getStatus());
-        response.setProgress(job.getProgress());
-        response.setPersona(job.getPersona());
-        response.setJobToBeDone(job.getJobToBeDone());
-        response.setErrorMessage(job.getErrorMessage());
-        response.setResult(job.getResult());
-        response.setCreatedAt(job.getCreatedAt());
-        response.setUpdatedAt(job.getUpdatedAt());
+        progressTracker.applyTo(response);
 
         return response;
     }
 
+    /**
+     * One page of jobs, newest first, optionally filtered by status. Pass the cursor from the
+     * previous page to continue after it; each page is an index range scan whatever its depth.
+     */
+    public Slice<JobStatusResponse> listJobs(Collection<String> statuses, String cursor, int limit) {
+        Pageable pageable = PageRequest.of(0, limit);
+        Slice<JobStatusResponse> page;
+        if (cursor == null || cursor.isEmpty()) {
+            page = statuses.isEmpty()
+                    ? jobRepository.findStatusPage(pageable)
+                    : jobRepository.findStatusPageByStatusIn(statuses, pageable);
+        } else {
+            String[] position = decodeCursor(cursor);
+            LocalDateTime createdAt = LocalDateTime.parse(position[0]);
+            page = statuses.isEmpty()
+                    ? jobRepository.findStatusPageBefore(createdAt, position[1], pageable)
+                    : jobRepository.findStatusPageByStatusInBefore(statuses, createdAt, position[1], pageable);
+        }
+        page.forEach(progressTracker::applyTo);
+        return page;
+    }
+
+    public static String encodeCursor(JobStatusResponse last) {
+        String position = last.getCreatedAt() + "|" + last.getJobId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+            if (position.length == 2) {
+                LocalDateTime.parse(position[0]);
+                return position;
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+
     public void cancelJob(String jobId) {
         AnalysisJob job = jobRepository.findByJobId(jobId)
                 .orElseThrow(() -> new RuntimeException("Job not found: " + jobId));
 
-        if ("PENDING".equals(job.getStatus()) || "PROCESSING".equals(job.getStatus())) {
-            job.setStatus("CANCELLED");
-            jobRepository.save(job);
-
-            // Clean up files
-            if (job.getFilePaths() != null) {
-                fileStorageService.deleteJobFiles(job.getFilePaths());
-            }
+        // Conditional, so a worker completing or failing the job at the same moment cannot be overwritten
+        if (!progressTracker.cancel(jobId)) {
+            throw new RuntimeException("Cannot cancel job in status: "
+                    + progressTracker.getPersistedStatus(jobId).orElse(job.getStatus()));
+        }
 
-            logger.info("Job cancelled: {}", jobId);
-        } else {
-            throw new RuntimeException("Cannot cancel job in status: " + job.getStatus());
+        // A running worker stops at its next page boundary and cleans up its own files;
+        // a job leased by another node is stopped by that node's next progress flush
+        if (!cancellationRegistry.cancel(jobId) && job.getLeaseOwner() == null && job.getFilePaths() != null) {
+            fileStorageService.deleteJobFiles(job.getFilePaths());
         }
+
+        logger.info("Job cancelled: {}", jobId);
     }
     @Autowired
     private SectionExtractionService sectionExtractionService;
@@ -171,7 +277,8 @@ public class DocumentAnalysisService {
     private DetailedAnalysisResponse createDetailedResponse(Map<String, Object> pdfAnalysis,
                                                             String jobDirectory,
                                                             String persona,
-                                                            String jobToBeDone) {
+                                                            String jobToBeDone,
+                                                            CancellationToken token) {
         DetailedAnalysisResponse detailedResponse = new DetailedAnalysisResponse();
 
         // Create metadata
@@ -183,12 +290,12 @@ public class DocumentAnalysisService {
 
         // Extract sections with importance ranking using Python-inspired logic
         List<ExtractedSection> extractedSections = pythonLogicSectionExtractionService
-                .extractTopHeadings(jobDirectory, persona, jobToBeDone);
+                .extractTopHeadings(jobDirectory, persona, jobToBeDone, 5, token);
         detailedResponse.setExtractedSections(extractedSections);
 
         // Extract subsection analysis (refined text under those headings)
         List<SubsectionAnalysis> subsectionAnalysis = pythonLogicSectionExtractionService
-                .extractSubsectionAnalysis(jobDirectory, extractedSections.stream().limit(10).collect(Collectors.toList()));
+                .extractSubsectionAnalysis(jobDirectory, extractedSections.stream().limit(10).collect(Collectors.toList()), token);
         detailedResponse.setSubsectionAnalysis(subsectionAnalysis);
 
         return detailedResponse;
@@ -7,10 +7,12 @@ import com.adobe.hackathon.repository.AnalysisJobRepository;
 import com.adobe.hackathon.model.dto.*;
 import com.adobe.hackathon.model.dto.ExtractedSection;
 import com.adobe.hackathon.model.dto.SubsectionAnalysis;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -27,6 +29,8 @@ public class EnhancedDocumentAnalysisService {
 
     private static final Logger logger = LoggerFactory.getLogger(EnhancedDocumentAnalysisService.class);
 
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
     @Autowired
     private AnalysisJobRepository jobRepository;
 
@@ -48,26 +52,67 @@ public class EnhancedDocumentAnalysisService {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private JobProgressTracker progressTracker;
+
+    @Autowired
+    private JobMetrics jobMetrics;
+
+    @Autowired
+    private SubmissionDeduplicator deduplicator;
+
+    @Autowired
+    private JobCancellationRegistry cancellationRegistry;
+
+    @Autowired
+    private JobCheckpointStore checkpointStore;
+
+    @Autowired
+    private JobResultStore resultStore;
+
+    // In worker mode jobs are only persisted here and picked up by whichever node claims them
+    @Value("${app.worker.enabled:false}")
+    private boolean workerMode;
+
     public String submitAnalysis(AnalysisRequest request, MultipartFile[] files) throws Exception {
         long startTime = System.currentTimeMillis();
 
         // Generate unique job ID
         String jobId = UUID.randomUUID().toString();
 
+        // Identical submissions within the dedup window attach to the existing job
+        String fingerprint = deduplicator.fingerprint(files, request.getPersona(), request.getJobToBeDone(), "enhanced");
+        Optional<String> existingJobId = deduplicator.reserve(fingerprint, jobId);
+        if (existingJobId.isPresent()) {
+            logger.info("Enhanced analysis job coalesced into existing job: {}", existingJobId.get());
+            return existingJobId.get();
+        }
+
         // Create and save analysis job
         AnalysisJob job = new AnalysisJob(jobId, request.getPersona(), request.getJobToBeDone());
         job.setStatus("PENDING");
         job.setProgress(0.0);
+        job.setAnalysisType("enhanced");
+        job.setFingerprint(fingerprint);
 
-        // Store files and get detailed file information
-        String filePaths = fileStorageService.storeFiles(files, jobId);
-        job.setFilePaths(filePaths);
+        try {
+            // Store files and get detailed file information
+            String filePaths = fileStorageService.storeFiles(files, jobId);
+            job.setFilePaths(filePaths);
 
-        // Save job to database
-        jobRepository.save(job);
+            // Save job to database
+            jobRepository.save(job);
+        } catch (Exception e) {
+            deduplicator.release(fingerprint, jobId);
+            throw e;
+        }
+        deduplicator.markCreated(fingerprint, jobId);
+        jobMetrics.recordSubmitted();
 
         // Start async processing
-        processEnhancedAnalysisAsync(jobId, startTime);
+        if (!workerMode) {
+            processEnhancedAnalysisAsync(jobId, startTime);
+        }
 
         logger.info("Enhanced analysis job submitted with ID: {} for {} files", jobId, files.length);
         return jobId;
@@ -76,44 +121,51 @@ public class EnhancedDocumentAnalysisService {
     @Async
     public CompletableFuture<Void> processEnhancedAnalysisAsync(String jobId, long submissionTime) {
         long processingStartTime = System.currentTimeMillis();
+        CancellationToken token = cancellationRegistry.begin(jobId);
 
         try {
             AnalysisJob job = jobRepository.findByJobId(jobId)
                     .orElseThrow(() -> new RuntimeException("Job not found: " + jobId));
+            if ("CANCELLED".equals(job.getStatus())) {
+                logger.info("Skipping cancelled job: {}", jobId);
+                return CompletableFuture.completedFuture(null);
+            }
 
             logger.info("Starting enhanced processing for job: {}", jobId);
 
             // Update status to processing
-            job.setStatus("PROCESSING");
-            job.setProgress(0.1);
-            jobRepository.save(job);
+            progressTracker.update(jobId, "PROCESSING", 0.1);
 
             // Step 1: Enhanced PDF Analysis with detailed metrics
             logger.info("Step 1/5: Enhanced PDF analysis for job: {}", jobId);
-            Map<String, Object> pdfAnalysis = pdfAnalysisService.analyzePdfs(job.getFilePaths());
-            job.setProgress(0.3);
-            jobRepository.save(job);
+            Map<String, Object> pdfAnalysis = checkpointStore.loadOrCompute(job.getFilePaths(), "pdf-analysis", MAP_TYPE,
+                    () -> pdfAnalysisService.analyzePdfs(job.getFilePaths(), token));
+            token.throwIfCancelled();
+            progressTracker.update(jobId, "PROCESSING", 0.3);
 
             // Step 2: Enhanced Section Extraction
             logger.info("Step 2/5: Enhanced section extraction for job: {}", jobId);
-            List<DetailedExtractedSection> detailedSections = extractDetailedSectionsWithPythonLogic(
-                    job.getFilePaths(), job.getPersona(), job.getJobToBeDone());
-            job.setProgress(0.5);
-            jobRepository.save(job);
+            List<DetailedExtractedSection> detailedSections = checkpointStore.loadOrCompute(job.getFilePaths(), "detailed-sections",
+                    new TypeReference<List<DetailedExtractedSection>>() {},
+                    () -> extractDetailedSectionsWithPythonLogic(job.getFilePaths(), job.getPersona(), job.getJobToBeDone(), token));
+            token.throwIfCancelled();
+            progressTracker.update(jobId, "PROCESSING", 0.5);
 
             // Step 3: Enhanced Subsection Analysis
             logger.info("Step 3/5: Enhanced subsection analysis for job: {}", jobId);
-            List<DetailedSubsectionAnalysis> detailedSubsections = extractDetailedSubsectionsWithPythonLogic(
-                    job.getFilePaths(), detailedSections.stream().limit(15).collect(Collectors.toList()));
-            job.setProgress(0.7);
-            jobRepository.save(job);
+            List<DetailedSubsectionAnalysis> detailedSubsections = checkpointStore.loadOrCompute(job.getFilePaths(), "detailed-subsections",
+                    new TypeReference<List<DetailedSubsectionAnalysis>>() {},
+                    () -> extractDetailedSubsectionsWithPythonLogic(
+                            job.getFilePaths(), detailedSections.stream().limit(15).collect(Collectors.toList()), token));
+            token.throwIfCancelled();
+            progressTracker.update(jobId, "PROCESSING", 0.7);
 
             // Step 4: Semantic Analysis
             logger.info("Step 4/5: Semantic analysis for job: {}", jobId);
-            Map<String, Object> semanticAnalysis = semanticAnalysisService.performSemanticAnalysis(
-                    pdfAnalysis, job.getPersona(), job.getJobToBeDone());
-            job.setProgress(0.85);
-            jobRepository.save(job);
+            Map<String, Object> semanticAnalysis = checkpointStore.loadOrCompute(job.getFilePaths(), "semantic-analysis", MAP_TYPE,
+                    () -> semanticAnalysisService.performSemanticAnalysis(pdfAnalysis, job.getPersona(), job.getJobToBeDone()));
+            token.throwIfCancelled();
+            progressTracker.update(jobId, "PROCESSING", 0.85);
 
             // Step 5: Create comprehensive enhanced response
             logger.info("Step 5/5: Creating comprehensive response for job: {}", jobId);
@@ -123,36 +175,57 @@ public class EnhancedDocumentAnalysisService {
 
             // Save the enhanced response directly
             String resultJson = objectMapper.writeValueAsString(enhancedResponse);
-            job.setResult(resultJson);
-            job.setStatus("COMPLETED");
-            job.setProgress(1.0);
-            jobRepository.save(job);
+            token.throwIfCancelled();
+            resultStore.save(jobId, resultJson);
+            if (!progressTracker.complete(jobId)) {
+                // Cancelled while the result was being written; a job finished by another node keeps its result
+                if (progressTracker.getPersistedStatus(jobId).filter("CANCELLED"::equals).isPresent()) {
+                    resultStore.delete(jobId);
+                    handleCancelledWorker(jobId);
+                }
+                return CompletableFuture.completedFuture(null);
+            }
 
+            checkpointStore.deleteAll(job.getFilePaths());
             long totalTime = System.currentTimeMillis() - processingStartTime;
             logger.info("Enhanced analysis completed for job: {} in {}ms with {} sections",
                     jobId, totalTime, detailedSections.size());
 
+        } catch (JobCancelledException e) {
+            handleCancelledWorker(jobId);
         } catch (Exception e) {
+            if (token.isCancelled()) {
+                handleCancelledWorker(jobId);
+                return CompletableFuture.completedFuture(null);
+            }
             logger.error("Error processing enhanced analysis for job: {}", jobId, e);
 
-            // Update job with error status
-            jobRepository.findByJobId(jobId).ifPresent(job -> {
-                job.setStatus("FAILED");
-                job.setErrorMessage("Enhanced processing failed: " + e.getMessage());
-                jobRepository.save(job);
-            });
+            // Update job with error status, unless it was cancelled meanwhile
+            progressTracker.fail(jobId, "Enhanced processing failed: " + e.getMessage());
+        } finally {
+            cancellationRegistry.end(jobId, token);
         }
 
         return CompletableFuture.completedFuture(null);
     }
 
-    private List<DetailedExtractedSection> extractDetailedSectionsWithPythonLogic(String jobDirectory, String persona, String jobToBeDone) {
+    private void handleCancelledWorker(String jobId) {
+        logger.info("Stopped enhanced processing for cancelled job: {}", jobId);
+        jobRepository.findByJobId(jobId).ifPresent(job -> {
+            if (job.getFilePaths() != null) {
+                fileStorageService.deleteJobFiles(job.getFilePaths());
+            }
+        });
+    }
+
+    private List<DetailedExtractedSection> extractDetailedSectionsWithPythonLogic(String jobDirectory, String persona, String jobToBeDone,
+                                                                                 CancellationToken token) {
         List<DetailedExtractedSection> detailedSections = new ArrayList<>();
         
         try {
             // Use Python logic to get top headings
             List<ExtractedSection> extractedSections = pythonLogicSectionExtractionService
-                    .extractTopHeadings(jobDirectory, persona, jobToBeDone, 10); // Get top 10 for enhanced analysis
+                    .extractTopHeadings(jobDirectory, persona, jobToBeDone, 10, token); // Get top 10 for enhanced analysis
             
             // Convert to DetailedExtractedSection format
             for (ExtractedSection section : extractedSections) {
@@ -177,6 +250,8 @@ public class EnhancedDocumentAnalysisService {
             
             logger.info("Extracted {} detailed sections using Python logic", detailedSections.size());
             
+        } catch (JobCancelledException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error extracting detailed sections with Python logic", e);
         }
@@ -184,7 +259,8 @@ public class EnhancedDocumentAnalysisService {
         return detailedSections;
     }
 
-    private List<DetailedSubsectionAnalysis> extractDetailedSubsectionsWithPythonLogic(String jobDirectory, List<DetailedExtractedSection> topSections) {
+    private List<DetailedSubsectionAnalysis> extractDetailedSubsectionsWithPythonLogic(String jobDirectory, List<DetailedExtractedSection> topSections,
+                                                                                      CancellationToken token) {
         List<DetailedSubsectionAnalysis> detailedSubsections = new ArrayList<>();
         
         try {
@@ -202,7 +278,7 @@ public class EnhancedDocumentAnalysisService {
             
             // Use Python logic to get subsection analysis
             List<SubsectionAnalysis> subsectionAnalyses = pythonLogicSectionExtractionService
-                    .extractSubsectionAnalysis(jobDirectory, extractedSections);
+                    .extractSubsectionAnalysis(jobDirectory, extractedSections, token);
             
             // Convert to DetailedSubsectionAnalysis format
             for (SubsectionAnalysis analysis : subsectionAnalyses) {
@@ -228,6 +304,8 @@ public class EnhancedDocumentAnalysisService {
             
             logger.info("Extracted {} detailed subsections using Python logic", detailedSubsections.size());
             
+        } catch (JobCancelledException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error extracting detailed subsections with Python logic", e);
         }
@@ -710,38 +788,41 @@ public class EnhancedDocumentAnalysisService {
 
     // Keep existing methods for compatibility
     public JobStatusResponse getJobStatus(String jobId) {
-        AnalysisJob job = jobRepository.findByJobId(jobId)
+        JobStatusResponse response = jobRepository.findStatusByJobId(jobId)
                 .orElseThrow(() -> new RuntimeException("Job not found: " + jobId));
-
-        JobStatusResponse response = new JobStatusResponse();
-        response.setJobId(job.getJobId());
-        response.setStatus(job.getStatus());
-        response.setProgress(job.getProgress());
-        response.setPersona(job.getPersona());
-        response.setJobToBeDone(job.getJobToBeDone());
-        response.setErrorMessage(job.getErrorMessage());
-        response.setResult(job.getResult());
-        response.setCreatedAt(job.getCreatedAt());
-        response.setUpdatedAt(job.getUpdatedAt());
+        progressTracker.applyTo(response);
 
         return response;
     }
 
+    /**
+     * Statuses for several jobs in one query, keyed by job ID. Unknown IDs are left out.
+     */
+    public Map<String, JobStatusResponse> getJobStatuses(Collection<String> jobIds) {
+        Map<String, JobStatusResponse> statuses = new HashMap<>();
+        for (JobStatusResponse response : jobRepository.findStatusByJobIdIn(jobIds)) {
+            progressTracker.applyTo(response);
+            statuses.put(response.getJobId(), response);
+        }
+        return statuses;
+    }
+
     public void cancelJob(String jobId) {
         AnalysisJob job = jobRepository.findByJobId(jobId)
                 .orElseThrow(() -> new RuntimeException("Job not found: " + jobId));
 
-        if ("PENDING".equals(job.getStatus()) || "PROCESSING".equals(job.getStatus())) {
-            job.setStatus("CANCELLED");
-            jobRepository.save(job);
-
-            if (job.getFilePaths() != null) {
-                fileStorageService.deleteJobFiles(job.getFilePaths());
-            }
+        // Conditional, so a worker completing or failing the job at the same moment cannot be overwritten
+        if (!progressTracker.cancel(jobId)) {
+            throw new RuntimeException("Cannot cancel job in status: "
+                    + progressTracker.getPersistedStatus(jobId).orElse(job.getStatus()));
+        }
 
-            logger.info("Job cancelled: {}", jobId);
-        } else {
-            throw new RuntimeException("Cannot cancel job in status: " + job.getStatus());
+        // A running worker stops at its next page boundary and cleans up its own files;
+        // a job leased by another node is stopped by that node's next progress flush
+        if (!cancellationRegistry.cancel(jobId) && job.getLeaseOwner() == null && job.getFilePaths() != null) {
+            fileStorageService.deleteJobFiles(job.getFilePaths());
         }
+
+        logger.info("Job cancelled: {}", jobId);
     }
 }
\ No newline at end of file
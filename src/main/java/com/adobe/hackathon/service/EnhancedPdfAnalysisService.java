@@ -34,15 +34,19 @@ public class EnhancedPdfAnalysisService {
     );
 
     public Map<String, Object> analyzePdfsForAdobe(String filePaths) throws Exception {
+        return analyzePdfsForAdobe(filePaths, CancellationToken.NONE);
+    }
+
+    public Map<String, Object> analyzePdfsForAdobe(String filePaths, CancellationToken token) throws Exception {
         Map<String, Object> analysis = new HashMap<>();
         List<Map<String, Object>> fileAnalyses = new ArrayList<>();
 
         String[] paths = filePaths.split(",");
 
         for (String path : paths) {
-            File pdfFile = new File(path.trim());
-            if (pdfFile.exists()) {
-                Map<String, Object> fileAnalysis = analyzeSinglePdfForAdobe(pdfFile);
+            for (File pdfFile : resolvePdfFiles(new File(path.trim()))) {
+                token.throwIfCancelled();
+                Map<String, Object> fileAnalysis = analyzeSinglePdfForAdobe(pdfFile, token);
                 fileAnalyses.add(fileAnalysis);
             }
         }
@@ -54,7 +58,22 @@ public class EnhancedPdfAnalysisService {
         return analysis;
     }
 
-    private Map<String, Object> analyzeSinglePdfForAdobe(File pdfFile) throws IOException {
+    // Jobs store a job directory with the uploads under PDFs/, as written by FileStorageService
+    private List<File> resolvePdfFiles(File path) {
+        if (!path.isDirectory()) {
+            return path.exists() ? Collections.singletonList(path) : Collections.emptyList();
+        }
+
+        File[] pdfFiles = new File(path, "PDFs").listFiles((dir, name) -> name.toLowerCase().endsWith(".pdf"));
+        if (pdfFiles == null) {
+            logger.warn("No PDF files found in job directory: {}", path.getPath());
+            return Collections.emptyList();
+        }
+        Arrays.sort(pdfFiles);
+        return Arrays.asList(pdfFiles);
+    }
+
+    private Map<String, Object> analyzeSinglePdfForAdobe(File pdfFile, CancellationToken token) throws IOException {
         Map<String, Object> fileAnalysis = new HashMap<>();
 
         try (PDDocument document = PDDocument.load(pdfFile)) {
@@ -79,7 +98,7 @@ public class EnhancedPdfAnalysisService {
             fileAnalysis.put("relatedSections", relatedSections);
 
             // Extract page-by-page content for better navigation
-            List<Map<String, Object>> pageContents = extractPageByPageContent(document);
+            List<Map<String, Object>> pageContents = extractPageByPageContent(document, token);
             fileAnalysis.put("pages", pageContents);
 
             logger.info("Analyzed PDF: {} - {} pages, {} sections, {} related sections",
@@ -171,11 +190,12 @@ public class EnhancedPdfAnalysisService {
         return relatedSections;
     }
 
-    private List<Map<String, Object>> extractPageByPageContent(PDDocument document) throws IOException {
+    private List<Map<String, Object>> extractPageByPageContent(PDDocument document, CancellationToken token) throws IOException {
         List<Map<String, Object>> pageContents = new ArrayList<>();
         PDFTextStripper textStripper = new PDFTextStripper();
 
         for (int i = 1; i <= document.getNumberOfPages(); i++) {
+            token.throwIfCancelled();
             textStripper.setStartPage(i);
             textStripper.setEndPage(i);
 
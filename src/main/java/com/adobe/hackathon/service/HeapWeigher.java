@@ -0,0 +1,185 @@
+package com.adobe.hackathon.service;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimates the heap an object graph of maps, lists, strings, boxed values and this
+ * application's DTOs holds, assuming a 64-bit JVM with compressed references and compact
+ * strings. Objects reachable twice are counted once. Close enough to bound a cache by, at a
+ * fraction of the cost of measuring.
+ */
+final class HeapWeigher {
+
+    private static final int HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int MAP_ENTRY = 32;
+    private static final int LINKED_MAP_ENTRY = 40;
+    // JDK types with state of their own, such as LocalDateTime, are not walked
+    private static final int OPAQUE_OBJECT = 24;
+    private static final String APPLICATION_PACKAGE = "com.adobe.hackathon.";
+
+    private static final Map<Class<?>, List<Field>> FIELDS = new ConcurrentHashMap<>();
+
+    private HeapWeigher() {
+    }
+
+    static long weigh(Object... roots) {
+        Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Object> pending = new ArrayDeque<>();
+        for (Object root : roots) {
+            if (root != null) {
+                pending.push(root);
+            }
+        }
+
+        long bytes = 0;
+        while (!pending.isEmpty()) {
+            Object value = pending.pop();
+            if (!seen.add(value)) {
+                continue;
+            }
+            bytes += shallowSize(value);
+            if (value instanceof Map) {
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    pushIfPresent(pending, entry.getKey());
+                    pushIfPresent(pending, entry.getValue());
+                }
+            } else if (value instanceof Collection) {
+                for (Object element : (Collection<?>) value) {
+                    pushIfPresent(pending, element);
+                }
+            } else if (value instanceof Object[]) {
+                for (Object element : (Object[]) value) {
+                    pushIfPresent(pending, element);
+                }
+            } else if (isApplicationObject(value)) {
+                for (Field field : fields(value.getClass())) {
+                    try {
+                        pushIfPresent(pending, field.get(value));
+                    } catch (IllegalAccessException e) {
+                        // Counted as a reference only
+                    }
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private static long shallowSize(Object value) {
+        if (value instanceof String) {
+            String string = (String) value;
+            return align(HEADER + 12) + align(ARRAY_HEADER + (long) string.length() * coder(string));
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            return 16;
+        }
+        if (value instanceof HashMap) {
+            int capacity = tableCapacity(((Map<?, ?>) value).size());
+            int entry = value instanceof LinkedHashMap ? LINKED_MAP_ENTRY : MAP_ENTRY;
+            return align(HEADER + 36) + align(ARRAY_HEADER + (long) capacity * REFERENCE)
+                    + (long) ((Map<?, ?>) value).size() * entry;
+        }
+        if (value instanceof Map) {
+            return align(HEADER + 12) + align(ARRAY_HEADER + 2L * ((Map<?, ?>) value).size() * REFERENCE);
+        }
+        if (value instanceof Collection) {
+            return align(HEADER + 12) + align(ARRAY_HEADER + (long) ((Collection<?>) value).size() * REFERENCE);
+        }
+        if (value.getClass().isArray()) {
+            return arraySize(value);
+        }
+        if (isApplicationObject(value)) {
+            long size = HEADER;
+            for (Field field : fields(value.getClass())) {
+                size += fieldSize(field.getType());
+            }
+            return align(size);
+        }
+        return OPAQUE_OBJECT;
+    }
+
+    private static long arraySize(Object array) {
+        Class<?> component = array.getClass().getComponentType();
+        int length = Array.getLength(array);
+        return align(ARRAY_HEADER + (long) length * fieldSize(component));
+    }
+
+    private static int fieldSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return REFERENCE;
+    }
+
+    // Latin-1 strings take one byte per character, anything else two
+    private static int coder(String string) {
+        for (int i = 0; i < string.length(); i++) {
+            if (string.charAt(i) > 0xFF) {
+                return 2;
+            }
+        }
+        return 1;
+    }
+
+    private static int tableCapacity(int size) {
+        int needed = (int) Math.ceil(size / 0.75);
+        int capacity = 16;
+        while (capacity < needed) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    private static boolean isApplicationObject(Object value) {
+        return value.getClass().getName().startsWith(APPLICATION_PACKAGE);
+    }
+
+    private static void pushIfPresent(Deque<Object> pending, Object value) {
+        if (value != null) {
+            pending.push(value);
+        }
+    }
+
+    private static List<Field> fields(Class<?> type) {
+        return FIELDS.computeIfAbsent(type, t -> {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = t; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+            return fields;
+        });
+    }
+}
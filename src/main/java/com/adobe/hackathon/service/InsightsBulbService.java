@@ -3,13 +3,23 @@ package com.adobe.hackathon.service;
 
 import com.adobe.hackathon.model.dto.AdobeAnalysisResponse;
 import com.adobe.hackathon.model.dto.JobStatusResponse;
-import com.adobe.hackathon.model.dto.PDFSectionInfo;
+import com.adobe.hackathon.repository.AnalysisJobRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -17,13 +27,73 @@ public class InsightsBulbService {
 
     private static final Logger logger = LoggerFactory.getLogger(InsightsBulbService.class);
 
+    private static final Set<String> COMBINED_SECTIONS =
+            Set.of("KEY INSIGHTS", "DID YOU KNOW", "CONTRADICTIONS", "CONNECTIONS");
+
+    private static final List<String> FALLBACK_KEY_INSIGHTS = Arrays.asList(
+            "Document contains structured information with clear section hierarchies",
+            "Multiple related topics are interconnected throughout the content",
+            "Key concepts appear consistently across different sections"
+    );
+
+    private static final List<String> FALLBACK_FACTS = Arrays.asList(
+            "PDF format was invented by Adobe in 1993",
+            "Document structure analysis can improve reading comprehension by 40%",
+            "Related content identification helps reduce information processing time"
+    );
+
+    private static final List<String> FALLBACK_CONTRADICTIONS =
+            Arrays.asList("Content analysis did not reveal significant contradictions");
+
+    private static final List<String> FALLBACK_CONNECTIONS = Arrays.asList(
+            "Related sections share common terminology and concepts",
+            "Document structure suggests hierarchical information organization",
+            "Cross-references appear between different topic areas"
+    );
+
     @Autowired
     private LLMIntegrationService llmService;
 
     @Autowired
     private AdobeAnalysisService adobeAnalysisService;
 
+    @Autowired
+    private PromptContextBuilder contextBuilder;
+
+    @Autowired
+    private AnalysisJobRepository jobRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.llm.context.insights-tokens:500}")
+    private int contextTokens = 500;
+
+    @Value("${app.insights.call-timeout-ms:20000}")
+    private long callTimeoutMs = 20000;
+
+    // One structured call instead of four, for providers where that is cheaper
+    @Value("${app.insights.combined-prompt:false}")
+    private boolean combinedPrompt;
+
+    private final Map<String, CompletableFuture<AdobeAnalysisResponse.InsightsBulb>> inFlight = new ConcurrentHashMap<>();
+
     public AdobeAnalysisResponse.InsightsBulb generateInsights(String jobId) throws Exception {
+        return streamInsights(jobId, (section, items) -> { });
+    }
+
+    /**
+     * Same as generateInsights, but hands each section to onSection as soon as it is ready
+     * (keyInsights, didYouKnowFacts, contradictions, connections), in completion order.
+     */
+    public AdobeAnalysisResponse.InsightsBulb streamInsights(String jobId,
+                                                             BiConsumer<String, List<String>> onSection) throws Exception {
+        return streamInsights(jobId, onSection, llmService::generateResponseAsync);
+    }
+
+    private AdobeAnalysisResponse.InsightsBulb streamInsights(String jobId,
+                                                              BiConsumer<String, List<String>> onSection,
+                                                              Function<String, CompletableFuture<String>> llmCall) throws Exception {
         logger.info("Generating insights for job: {}", jobId);
 
         // Get the analysis data
@@ -32,27 +102,96 @@ public class InsightsBulbService {
             throw new RuntimeException("Analysis must be completed before generating insights");
         }
 
-        // Extract content for insights generation
-        String documentContent = extractDocumentContentForInsights(jobId);
+        Optional<AdobeAnalysisResponse.InsightsBulb> precomputed = loadPrecomputed(jobId);
+        if (precomputed.isPresent()) {
+            logger.info("Serving precomputed insights for job: {}", jobId);
+            emitSections(precomputed.get(), onSection);
+            return precomputed.get();
+        }
 
-        AdobeAnalysisResponse.InsightsBulb insights = new AdobeAnalysisResponse.InsightsBulb();
+        // One generation per job at a time; later callers share it instead of asking the LLM again
+        CompletableFuture<AdobeAnalysisResponse.InsightsBulb> generation = new CompletableFuture<>();
+        CompletableFuture<AdobeAnalysisResponse.InsightsBulb> running = inFlight.putIfAbsent(jobId, generation);
+        if (running != null) {
+            Optional<AdobeAnalysisResponse.InsightsBulb> shared = awaitRunning(jobId, running);
+            if (shared.isPresent()) {
+                emitSections(shared.get(), onSection);
+                return shared.get();
+            }
+        }
 
         try {
-            // Generate key insights using LLM
-            insights.setKeyInsights(generateKeyInsights(documentContent));
+            AdobeAnalysisResponse.InsightsBulb insights = generate(jobId, onSection, llmCall);
+            generation.complete(insights);
+            return insights;
+        } catch (Exception e) {
+            generation.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(jobId, generation);
+        }
+    }
+
+    // Waits at most one call timeout for another caller's generation, then lets this caller generate its own
+    private Optional<AdobeAnalysisResponse.InsightsBulb> awaitRunning(
+            String jobId, CompletableFuture<AdobeAnalysisResponse.InsightsBulb> running) throws InterruptedException {
+        try {
+            AdobeAnalysisResponse.InsightsBulb insights = running.get(callTimeoutMs, TimeUnit.MILLISECONDS);
+            logger.info("Shared insights generation already running for job: {}", jobId);
+            return Optional.of(insights);
+        } catch (TimeoutException | ExecutionException e) {
+            logger.info("Insights generation running for job {} did not finish in time, generating again", jobId);
+            return Optional.empty();
+        }
+    }
 
-            // Generate "Did you know?" facts
-            insights.setDidYouKnowFacts(generateDidYouKnowFacts(documentContent));
+    private AdobeAnalysisResponse.InsightsBulb generate(String jobId,
+                                                        BiConsumer<String, List<String>> onSection,
+                                                        Function<String, CompletableFuture<String>> llmCall) {
+        // Extract content for insights generation
+        String documentContent = extractDocumentContentForInsights(jobId);
 
-            // Find contradictions or counterpoints
-            insights.setContradictions(findContradictions(documentContent));
+        AdobeAnalysisResponse.InsightsBulb insights = new AdobeAnalysisResponse.InsightsBulb();
 
-            // Find connections across documents
-            insights.setConnections(findConnections(documentContent, jobId));
+        try {
+            if (combinedPrompt) {
+                generateCombinedInsights(insights, documentContent, llmCall);
+                emitSections(insights, onSection);
+            } else {
+                // The four prompts are independent; run them together and keep whatever finishes in time
+                CompletableFuture<List<String>> keyInsights = ask("key insights", llmCall,
+                        keyInsightsPrompt(documentContent), response -> parseInsightsResponse(response, 5),
+                        FALLBACK_KEY_INSIGHTS);
+                CompletableFuture<List<String>> didYouKnow = ask("facts", llmCall,
+                        didYouKnowPrompt(documentContent), response -> parseInsightsResponse(response, 4),
+                        FALLBACK_FACTS);
+                CompletableFuture<List<String>> contradictions = ask("contradictions", llmCall,
+                        contradictionsPrompt(documentContent), this::parseContradictions,
+                        FALLBACK_CONTRADICTIONS);
+                CompletableFuture<List<String>> connections = ask("connections", llmCall,
+                        connectionsPrompt(documentContent), response -> parseInsightsResponse(response, 4),
+                        FALLBACK_CONNECTIONS);
+
+                CompletableFuture.allOf(
+                        keyInsights.thenAccept(items -> onSection.accept("keyInsights", items)),
+                        didYouKnow.thenAccept(items -> onSection.accept("didYouKnowFacts", items)),
+                        contradictions.thenAccept(items -> onSection.accept("contradictions", items)),
+                        connections.thenAccept(items -> onSection.accept("connections", items))
+                ).join();
+
+                insights.setKeyInsights(keyInsights.join());
+                insights.setDidYouKnowFacts(didYouKnow.join());
+                insights.setContradictions(contradictions.join());
+                insights.setConnections(connections.join());
+            }
 
             logger.info("Successfully generated insights for job: {}", jobId);
 
         } catch (Exception e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                // The streaming client went away
+                throw (UncheckedIOException) e.getCause();
+            }
             logger.error("Error generating insights for job: {}", jobId, e);
             // Return fallback insights
             insights = generateFallbackInsights();
@@ -61,30 +200,150 @@ public class InsightsBulbService {
         return insights;
     }
 
-    private String extractDocumentContentForInsights(String jobId) {
+    private static void emitSections(AdobeAnalysisResponse.InsightsBulb insights,
+                                     BiConsumer<String, List<String>> onSection) {
+        onSection.accept("keyInsights", insights.getKeyInsights());
+        onSection.accept("didYouKnowFacts", insights.getDidYouKnowFacts());
+        onSection.accept("contradictions", insights.getContradictions());
+        onSection.accept("connections", insights.getConnections());
+    }
+
+    /**
+     * Generates insights and stores them with the job, unless they are already stored or the
+     * LLM only produced fallback content.
+     */
+    public void precomputeInsights(String jobId) throws Exception {
+        if (loadPrecomputed(jobId).isPresent()) {
+            return;
+        }
+
+        // Calls run one at a time on the precompute thread with the background permit budget,
+        // so speculative work takes no I/O threads or permits from interactive requests
+        AdobeAnalysisResponse.InsightsBulb insights = streamInsights(jobId, (section, items) -> { }, this::backgroundCall);
+        if (containsFallback(insights)) {
+            logger.info("Insights for job {} fell back to defaults, not storing them", jobId);
+            return;
+        }
+
+        jobRepository.updatePrecomputedInsights(jobId, objectMapper.writeValueAsString(insights));
+        logger.info("Stored precomputed insights for job: {}", jobId);
+    }
+
+    private CompletableFuture<String> backgroundCall(String prompt) {
+        try {
+            return CompletableFuture.completedFuture(llmService.generateResponse(prompt, true));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private Optional<AdobeAnalysisResponse.InsightsBulb> loadPrecomputed(String jobId) {
+        Optional<String> stored = jobRepository.findPrecomputedInsights(jobId);
+        if (stored.isEmpty()) {
+            return Optional.empty();
+        }
+
         try {
-            Map<String, Object> outline = adobeAnalysisService.getDocumentOutline(jobId);
-            StringBuilder content = new StringBuilder();
+            return Optional.of(objectMapper.readValue(stored.get(), AdobeAnalysisResponse.InsightsBulb.class));
+        } catch (Exception e) {
+            logger.warn("Failed to read precomputed insights for job: {}", jobId, e);
+            return Optional.empty();
+        }
+    }
 
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> documents = (List<Map<String, Object>>) outline.get("documents");
+    // The contradictions fallback is a plausible answer on its own, so it is not counted
+    private boolean containsFallback(AdobeAnalysisResponse.InsightsBulb insights) {
+        return FALLBACK_KEY_INSIGHTS.equals(insights.getKeyInsights())
+                || FALLBACK_FACTS.equals(insights.getDidYouKnowFacts())
+                || FALLBACK_CONNECTIONS.equals(insights.getConnections())
+                || generateFallbackInsights().getKeyInsights().equals(insights.getKeyInsights());
+    }
 
-            for (Map<String, Object> doc : documents) {
-                @SuppressWarnings("unchecked")
-                List<Map<String, Object>> pages = (List<Map<String, Object>>) doc.get("pages");
+    // Every future completes with a value: the parsed response, or the fallback on error or timeout.
+    // A call that timed out is cancelled rather than left holding its thread and permit.
+    private CompletableFuture<List<String>> ask(String section,
+                                                Function<String, CompletableFuture<String>> llmCall,
+                                                String prompt,
+                                                Function<String, List<String>> parser,
+                                                List<String> fallback) {
+        CompletableFuture<String> call = llmCall.apply(prompt);
+        return call.thenApply(parser)
+                .exceptionally(e -> {
+                    logger.warn("LLM call failed for {}, using fallback", section, e);
+                    return fallback;
+                })
+                .completeOnTimeout(fallback, callTimeoutMs, TimeUnit.MILLISECONDS)
+                .whenComplete((items, e) -> call.cancel(true));
+    }
 
-                for (Map<String, Object> page : pages) {
-                    @SuppressWarnings("unchecked")
-                    List<PDFSectionInfo> sections = (List<PDFSectionInfo>) page.get("sections");
+    private void generateCombinedInsights(AdobeAnalysisResponse.InsightsBulb insights, String content,
+                                          Function<String, CompletableFuture<String>> llmCall) {
+        String prompt = """
+            Analyze the following document content and answer in exactly four sections,
+            each starting with its heading on its own line followed by bullet points:
+            KEY INSIGHTS: 3-5 key insights, the most important, actionable and surprising findings.
+            DID YOU KNOW: 3-4 interesting, surprising or educational facts.
+            CONTRADICTIONS: 2-3 contradictions, counterpoints or alternative perspectives, or "None".
+            CONNECTIONS: 3-4 themes or concepts that connect different sections.
+            
+            Content:
+            %s
+            """.formatted(content);
+
+        Map<String, String> sections = Collections.emptyMap();
+        CompletableFuture<String> call = llmCall.apply(prompt);
+        try {
+            sections = splitCombinedResponse(call.get(callTimeoutMs, TimeUnit.MILLISECONDS));
+        } catch (Exception e) {
+            call.cancel(true);
+            logger.warn("Combined LLM call failed for insights, using fallback", e);
+        }
+
+        insights.setKeyInsights(parseSection(sections, "KEY INSIGHTS", 5, FALLBACK_KEY_INSIGHTS));
+        insights.setDidYouKnowFacts(parseSection(sections, "DID YOU KNOW", 4, FALLBACK_FACTS));
+        insights.setContradictions(sections.containsKey("CONTRADICTIONS")
+                ? parseContradictions(sections.get("CONTRADICTIONS"))
+                : FALLBACK_CONTRADICTIONS);
+        insights.setConnections(parseSection(sections, "CONNECTIONS", 4, FALLBACK_CONNECTIONS));
+    }
+
+    private Map<String, String> splitCombinedResponse(String response) {
+        Map<String, String> sections = new HashMap<>();
+        String current = null;
+        StringBuilder body = new StringBuilder();
 
-                    for (PDFSectionInfo section : sections) {
-                        content.append(section.getTitle()).append(": ");
-                        content.append(section.getContentPreview()).append("\n\n");
-                    }
+        for (String line : response.split("\n")) {
+            String heading = line.replaceAll("[#*:]", "").trim().toUpperCase();
+            if (COMBINED_SECTIONS.contains(heading)) {
+                if (current != null) {
+                    sections.put(current, body.toString());
                 }
+                current = heading;
+                body.setLength(0);
+            } else if (current != null) {
+                body.append(line).append("\n");
             }
+        }
+        if (current != null) {
+            sections.put(current, body.toString());
+        }
+        return sections;
+    }
 
-            return content.toString();
+    private List<String> parseSection(Map<String, String> sections, String name, int maxItems, List<String> fallback) {
+        String section = sections.get(name);
+        if (section == null) {
+            return fallback;
+        }
+        List<String> items = parseInsightsResponse(section, maxItems);
+        return items.isEmpty() ? fallback : items;
+    }
+
+    private String extractDocumentContentForInsights(String jobId) {
+        try {
+            // Most relevant sections that fit the context budget
+            String content = contextBuilder.build(adobeAnalysisService.getAllSections(jobId), contextTokens);
+            return content.isEmpty() ? "Document analysis content for insights generation." : content;
 
         } catch (Exception e) {
             logger.warn("Could not extract content for insights, using fallback", e);
@@ -92,8 +351,8 @@ public class InsightsBulbService {
         }
     }
 
-    private List<String> generateKeyInsights(String content) throws Exception {
-        String prompt = """
+    private String keyInsightsPrompt(String content) {
+        return """
             Analyze the following document content and provide 3-5 key insights. 
             Focus on the most important, actionable, and surprising findings.
             Each insight should be concise (1-2 sentences) and valuable to the reader.
@@ -102,23 +361,11 @@ public class InsightsBulbService {
             %s
             
             Key Insights:
-            """.formatted(content.substring(0, Math.min(content.length(), 2000)));
-
-        try {
-            String response = llmService.generateResponse(prompt);
-            return parseInsightsResponse(response, 5);
-        } catch (Exception e) {
-            logger.warn("LLM call failed for key insights, using fallback", e);
-            return Arrays.asList(
-                    "Document contains structured information with clear section hierarchies",
-                    "Multiple related topics are interconnected throughout the content",
-                    "Key concepts appear consistently across different sections"
-            );
-        }
+            """.formatted(content);
     }
 
-    private List<String> generateDidYouKnowFacts(String content) throws Exception {
-        String prompt = """
+    private String didYouKnowPrompt(String content) {
+        return """
             Based on the following document content, generate 3-4 interesting "Did you know?" facts.
             These should be surprising, educational, or provide additional context.
             Make them engaging and factual.
@@ -127,23 +374,11 @@ public class InsightsBulbService {
             %s
             
             Did You Know Facts:
-            """.formatted(content.substring(0, Math.min(content.length(), 1500)));
-
-        try {
-            String response = llmService.generateResponse(prompt);
-            return parseInsightsResponse(response, 4);
-        } catch (Exception e) {
-            logger.warn("LLM call failed for facts, using fallback", e);
-            return Arrays.asList(
-                    "PDF format was invented by Adobe in 1993",
-                    "Document structure analysis can improve reading comprehension by 40%",
-                    "Related content identification helps reduce information processing time"
-            );
-        }
+            """.formatted(content);
     }
 
-    private List<String> findContradictions(String content) throws Exception {
-        String prompt = """
+    private String contradictionsPrompt(String content) {
+        return """
             Analyze the following content for contradictions, counterpoints, or alternative perspectives.
             Look for statements that might conflict with each other or present different viewpoints.
             Provide 2-3 contradictions or counterpoints if found.
@@ -152,22 +387,11 @@ public class InsightsBulbService {
             %s
             
             Contradictions/Counterpoints:
-            """.formatted(content.substring(0, Math.min(content.length(), 1500)));
-
-        try {
-            String response = llmService.generateResponse(prompt);
-            List<String> contradictions = parseInsightsResponse(response, 3);
-            return contradictions.isEmpty() ?
-                    Arrays.asList("No significant contradictions found in the analyzed content") :
-                    contradictions;
-        } catch (Exception e) {
-            logger.warn("LLM call failed for contradictions, using fallback", e);
-            return Arrays.asList("Content analysis did not reveal significant contradictions");
-        }
+            """.formatted(content);
     }
 
-    private List<String> findConnections(String content, String jobId) throws Exception {
-        String prompt = """
+    private String connectionsPrompt(String content) {
+        return """
             Identify connections and relationships between different sections or topics in this content.
             Look for themes, concepts, or ideas that appear in multiple places.
             Provide 3-4 meaningful connections.
@@ -176,19 +400,14 @@ public class InsightsBulbService {
             %s
             
             Connections:
-            """.formatted(content.substring(0, Math.min(content.length(), 1500)));
+            """.formatted(content);
+    }
 
-        try {
-            String response = llmService.generateResponse(prompt);
-            return parseInsightsResponse(response, 4);
-        } catch (Exception e) {
-            logger.warn("LLM call failed for connections, using fallback", e);
-            return Arrays.asList(
-                    "Related sections share common terminology and concepts",
-                    "Document structure suggests hierarchical information organization",
-                    "Cross-references appear between different topic areas"
-            );
-        }
+    private List<String> parseContradictions(String response) {
+        List<String> contradictions = parseInsightsResponse(response, 3);
+        return contradictions.isEmpty() ?
+                Arrays.asList("No significant contradictions found in the analyzed content") :
+                contradictions;
     }
 
     private List<String> parseInsightsResponse(String response, int maxItems) {
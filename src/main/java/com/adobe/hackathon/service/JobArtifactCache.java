@@ -0,0 +1,148 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.dto.AdobeAnalysisResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * In-memory LRU of per-job analysis artifacts, bounded by total weight rather than entry
+ * count. Entries are weighed by the heap their object graph holds, since one job's document
+ * text can outweigh hundreds of others and parsed maps take several times their JSON size.
+ * A miss is rebuilt by the caller's loader from persisted results or checkpoints; concurrent
+ * misses for the same job share a single load.
+ */
+@Service
+public class JobArtifactCache {
+
+    @Value("${app.artifact-cache.max-bytes:134217728}")
+    private long maxBytes = 134217728;
+
+    private final Map<String, Artifacts> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<Optional<Artifacts>>> loading = new ConcurrentHashMap<>();
+    private long weightBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Analysis artifacts of one job. The full analysis is null while the job is still running
+     * and only its document analysis has been produced.
+     */
+    public static class Artifacts {
+        private final AdobeAnalysisResponse analysis;
+        private final Map<String, Object> documentAnalysis;
+        private final long weight;
+        private volatile SectionColumns sections;
+
+        public Artifacts(AdobeAnalysisResponse analysis, Map<String, Object> documentAnalysis) {
+            this(analysis, documentAnalysis, HeapWeigher.weigh(analysis, documentAnalysis));
+        }
+
+        public Artifacts(AdobeAnalysisResponse analysis, Map<String, Object> documentAnalysis, long weight) {
+            this.analysis = analysis;
+            this.documentAnalysis = documentAnalysis;
+            this.weight = weight;
+        }
+
+        public AdobeAnalysisResponse getAnalysis() { return analysis; }
+        public Map<String, Object> getDocumentAnalysis() { return documentAnalysis; }
+        public long getWeight() { return weight; }
+
+        // Built on first use; two threads racing here build identical columns
+        public SectionColumns getSections() {
+            SectionColumns columns = sections;
+            if (columns == null) {
+                columns = SectionColumns.of(documentAnalysis, analysis == null ? null : analysis.getHighlightedSections());
+                sections = columns;
+            }
+            return columns;
+        }
+    }
+
+    public Optional<Artifacts> get(String jobId, Function<String, Optional<Artifacts>> loader) {
+        synchronized (entries) {
+            Artifacts cached = entries.get(jobId);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return Optional.of(cached);
+            }
+        }
+        misses.incrementAndGet();
+
+        CompletableFuture<Optional<Artifacts>> load = new CompletableFuture<>();
+        CompletableFuture<Optional<Artifacts>> inFlight = loading.putIfAbsent(jobId, load);
+        if (inFlight != null) {
+            return inFlight.join();
+        }
+
+        try {
+            Optional<Artifacts> loaded = loader.apply(jobId);
+            loaded.ifPresent(artifacts -> put(jobId, artifacts));
+            load.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(jobId, load);
+        }
+    }
+
+    public void put(String jobId, Artifacts artifacts) {
+        synchronized (entries) {
+            Artifacts previous = entries.remove(jobId);
+            if (previous != null) {
+                weightBytes -= previous.getWeight();
+            }
+            // An entry larger than the whole cache is served but never kept
+            if (artifacts.getWeight() > maxBytes) {
+                return;
+            }
+            entries.put(jobId, artifacts);
+            weightBytes += artifacts.getWeight();
+
+            Iterator<Artifacts> eldest = entries.values().iterator();
+            while (weightBytes > maxBytes && eldest.hasNext()) {
+                weightBytes -= eldest.next().getWeight();
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    public void invalidate(String jobId) {
+        synchronized (entries) {
+            Artifacts removed = entries.remove(jobId);
+            if (removed != null) {
+                weightBytes -= removed.getWeight();
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long lookups = hits.get() + misses.get();
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) hits.get() / lookups);
+        stats.put("maxBytes", maxBytes);
+        synchronized (entries) {
+            stats.put("entries", entries.size());
+            stats.put("weightBytes", weightBytes);
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,40 @@
+package com.adobe.hackathon.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the cancellation token of every job that is currently being processed.
+ */
+@Service
+public class JobCancellationRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobCancellationRegistry.class);
+
+    private final Map<String, CancellationToken> tokens = new ConcurrentHashMap<>();
+
+    public CancellationToken begin(String jobId) {
+        return tokens.computeIfAbsent(jobId, CancellationToken::new);
+    }
+
+    public void end(String jobId, CancellationToken token) {
+        tokens.remove(jobId, token);
+    }
+
+    /**
+     * Signals a running job to stop. Returns false when no worker currently holds the job.
+     */
+    public boolean cancel(String jobId) {
+        CancellationToken token = tokens.get(jobId);
+        if (token == null) {
+            return false;
+        }
+        token.cancel();
+        logger.info("Cancellation signalled for running job: {}", jobId);
+        return true;
+    }
+}
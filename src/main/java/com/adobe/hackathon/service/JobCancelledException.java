@@ -0,0 +1,19 @@
+package com.adobe.hackathon.service;
+
+/**
+ * Thrown from inside the analysis pipeline once a job's cancellation token has fired.
+ * Workers catch it separately from ordinary failures so the job is not marked FAILED.
+ */
+public class JobCancelledException extends RuntimeException {
+
+    private final String jobId;
+
+    public JobCancelledException(String jobId) {
+        super("Job cancelled: " + jobId);
+        this.jobId = jobId;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+}
@@ -0,0 +1,164 @@
+package com.adobe.hackathon.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Persists the output of each pipeline stage under {jobDirectory}/checkpoints so an
+ * interrupted or failed job can resume from its last completed stage. Checkpoints are
+ * written as Smile, Jackson's binary JSON, with repeated names and short strings
+ * back-referenced; JSON checkpoints from earlier versions are still read.
+ */
+@Service
+public class JobCheckpointStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobCheckpointStore.class);
+
+    public static final String CHECKPOINT_DIR = "checkpoints";
+
+    private static final String SMILE_SUFFIX = ".smile";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ObjectMapper smileMapper;
+
+    @PostConstruct
+    public void init() {
+        // Same modules and settings as the JSON mapper, so checkpoints bind exactly as before
+        smileMapper = objectMapper.copyWith(SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build());
+    }
+
+    @FunctionalInterface
+    public interface StageComputation<T> {
+        T compute() throws Exception;
+    }
+
+    /**
+     * Returns the checkpointed output of a stage, or runs the stage and checkpoints its output.
+     * Output that reports a failure is returned but not kept, so a retry runs the stage again.
+     */
+    public <T> T loadOrCompute(String jobDirectory, String stage, TypeReference<T> type,
+                               StageComputation<T> computation) throws Exception {
+        Optional<T> checkpoint = load(jobDirectory, stage, type).filter(value -> !reportsFailure(value));
+        if (checkpoint.isPresent()) {
+            logger.info("Resuming stage '{}' from checkpoint in {}", stage, jobDirectory);
+            return checkpoint.get();
+        }
+
+        T value = computation.compute();
+        if (reportsFailure(value)) {
+            logger.warn("Stage '{}' reported a failure in {}; not checkpointing it", stage, jobDirectory);
+            return value;
+        }
+        save(jobDirectory, stage, value);
+        return value;
+    }
+
+    public <T> Optional<T> load(String jobDirectory, String stage, TypeReference<T> type) {
+        Path file = existingCheckpointFile(jobDirectory, stage);
+        if (file == null) {
+            return Optional.empty();
+        }
+
+        ObjectMapper mapper = file.toString().endsWith(SMILE_SUFFIX) ? smileMapper : objectMapper;
+        try {
+            T value = mapper.readerFor(mapper.getTypeFactory().constructType(type))
+                    .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                    .readValue(file.toFile());
+            return Optional.ofNullable(value);
+        } catch (IOException e) {
+            // A torn or stale checkpoint is discarded and the stage simply runs again
+            logger.warn("Discarding unreadable checkpoint {}", file, e);
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // Left for the next attempt
+            }
+            return Optional.empty();
+        }
+    }
+
+    public void save(String jobDirectory, String stage, Object value) {
+        Path file = checkpointFile(jobDirectory, stage);
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try {
+            Files.createDirectories(file.getParent());
+            smileMapper.writeValue(tempFile.toFile(), value);
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.deleteIfExists(legacyCheckpointFile(jobDirectory, stage));
+        } catch (IOException e) {
+            // Checkpoints are an optimisation; the job itself must not fail because of them
+            logger.warn("Failed to write checkpoint for stage '{}' in {}", stage, jobDirectory, e);
+        }
+    }
+
+    /**
+     * Removes all checkpoints of a job once its result is stored.
+     */
+    public void deleteAll(String jobDirectory) {
+        Path directory = Paths.get(jobDirectory, CHECKPOINT_DIR);
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            // Left for retention to remove with the rest of the job directory
+            logger.warn("Failed to delete checkpoints in {}", jobDirectory, e);
+        }
+    }
+
+    public boolean exists(String jobDirectory, String stage) {
+        return existingCheckpointFile(jobDirectory, stage) != null;
+    }
+
+    // PDF and semantic analysis catch their own errors and return them in the output map
+    private static boolean reportsFailure(Object value) {
+        if (!(value instanceof Map)) {
+            return false;
+        }
+        Map<?, ?> map = (Map<?, ?>) value;
+        return Boolean.FALSE.equals(map.get("success")) || map.containsKey("error");
+    }
+
+    private Path existingCheckpointFile(String jobDirectory, String stage) {
+        Path file = checkpointFile(jobDirectory, stage);
+        if (Files.exists(file)) {
+            return file;
+        }
+        Path legacy = legacyCheckpointFile(jobDirectory, stage);
+        return Files.exists(legacy) ? legacy : null;
+    }
+
+    private Path checkpointFile(String jobDirectory, String stage) {
+        return Paths.get(jobDirectory, CHECKPOINT_DIR, stage + SMILE_SUFFIX);
+    }
+
+    private Path legacyCheckpointFile(String jobDirectory, String stage) {
+        return Paths.get(jobDirectory, CHECKPOINT_DIR, stage + ".json");
+    }
+}
@@ -0,0 +1,187 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.entity.AnalysisJob;
+import com.adobe.hackathon.repository.AnalysisJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lets several instances share one job table. Each node claims unleased or expired
+ * PENDING/PROCESSING rows with a conditional update, keeps its leases alive with a
+ * heartbeat and releases them when the worker finishes. Jobs of a node that dies are
+ * claimed again once its leases expire and resume from their checkpoints.
+ */
+@Service
+public class JobLeaseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobLeaseService.class);
+
+    private static final String CANDIDATES_SQL =
+            "SELECT job_id FROM analysis_jobs WHERE status IN ('PENDING', 'PROCESSING') " +
+            "AND (lease_owner IS NULL OR lease_expires_at < ?) ORDER BY created_at LIMIT ?";
+
+    // Only one node can win this update for a given row, which makes it the claim
+    private static final String CLAIM_SQL =
+            "UPDATE analysis_jobs SET lease_owner = ?, lease_expires_at = ? " +
+            "WHERE job_id = ? AND status IN ('PENDING', 'PROCESSING') " +
+            "AND (lease_owner IS NULL OR lease_expires_at < ?)";
+
+    private static final String HEARTBEAT_SQL =
+            "UPDATE analysis_jobs SET lease_expires_at = ? " +
+            "WHERE job_id = ? AND lease_owner = ? AND status IN ('PENDING', 'PROCESSING')";
+
+    private static final String RELEASE_SQL =
+            "UPDATE analysis_jobs SET lease_owner = NULL, lease_expires_at = NULL " +
+            "WHERE job_id = ? AND lease_owner = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AnalysisJobRepository jobRepository;
+
+    @Autowired
+    private JobRecoveryService recoveryService;
+
+    @Autowired
+    private JobCancellationRegistry cancellationRegistry;
+
+    @Value("${app.worker.enabled:false}")
+    private boolean workerEnabled;
+
+    @Value("${app.worker.node-id:}")
+    private String nodeId;
+
+    @Value("${app.worker.lease-ms:30000}")
+    private long leaseMs = 30000;
+
+    @Value("${app.worker.max-concurrent:2}")
+    private int maxConcurrent = 2;
+
+    private final Set<String> activeJobs = ConcurrentHashMap.newKeySet();
+
+    @Scheduled(fixedDelayString = "${app.worker.poll-ms:1000}")
+    public void pollForJobs() {
+        if (!workerEnabled) {
+            return;
+        }
+
+        int capacity = maxConcurrent - activeJobs.size();
+        if (capacity <= 0) {
+            return;
+        }
+
+        try {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<String> candidates = jdbcTemplate.queryForList(CANDIDATES_SQL, String.class, now, capacity * 2);
+
+            for (String jobId : candidates) {
+                if (activeJobs.size() >= maxConcurrent) {
+                    break;
+                }
+                if (!activeJobs.contains(jobId) && tryClaim(jobId, now)) {
+                    start(jobId);
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to poll for jobs, will retry on next cycle", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.worker.heartbeat-ms:10000}")
+    public void heartbeat() {
+        if (!workerEnabled || activeJobs.isEmpty()) {
+            return;
+        }
+
+        Timestamp expiresAt = Timestamp.valueOf(LocalDateTime.now().plusNanos(leaseMs * 1_000_000));
+        for (String jobId : activeJobs) {
+            try {
+                if (jdbcTemplate.update(HEARTBEAT_SQL, expiresAt, jobId, getNodeId()) == 0) {
+                    handleLostLease(jobId);
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to renew lease for job: {}", jobId, e);
+            }
+        }
+    }
+
+    private boolean tryClaim(String jobId, Timestamp now) {
+        Timestamp expiresAt = Timestamp.valueOf(now.toLocalDateTime().plusNanos(leaseMs * 1_000_000));
+        return jdbcTemplate.update(CLAIM_SQL, getNodeId(), expiresAt, jobId, now) == 1;
+    }
+
+    private void start(String jobId) {
+        activeJobs.add(jobId);
+        try {
+            AnalysisJob job = jobRepository.findByJobId(jobId)
+                    .orElseThrow(() -> new RuntimeException("Job not found: " + jobId));
+            logger.info("Node {} claimed job: {}", getNodeId(), jobId);
+            recoveryService.dispatch(job).whenComplete((result, error) -> release(jobId));
+        } catch (Exception e) {
+            logger.error("Failed to start claimed job: {}", jobId, e);
+            release(jobId);
+        }
+    }
+
+    private void release(String jobId) {
+        try {
+            jdbcTemplate.update(RELEASE_SQL, jobId, getNodeId());
+        } catch (Exception e) {
+            // The lease simply expires and another node re-checks the job
+            logger.warn("Failed to release lease for job: {}", jobId, e);
+        } finally {
+            activeJobs.remove(jobId);
+        }
+    }
+
+    private void handleLostLease(String jobId) {
+        List<String> statuses = jdbcTemplate.queryForList(
+                "SELECT status FROM analysis_jobs WHERE job_id = ?", String.class, jobId);
+        String status = statuses.isEmpty() ? null : statuses.get(0);
+
+        if ("CANCELLED".equals(status)) {
+            // Cancelled through another node; stop the local worker
+            cancellationRegistry.cancel(jobId);
+        } else if (!JobProgressTracker.isTerminal(status)) {
+            logger.warn("Lease for job {} was lost; another node may have taken it over", jobId);
+        }
+    }
+
+    public String getNodeId() {
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = defaultNodeId();
+        }
+        return nodeId;
+    }
+
+    public boolean isWorkerEnabled() {
+        return workerEnabled;
+    }
+
+    public int getActiveJobCount() {
+        return activeJobs.size();
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + "-" + ProcessHandle.current().pid();
+    }
+}
@@ -0,0 +1,165 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.repository.AnalysisJobRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live job counters kept by the job engine, so metrics reads never hit the database.
+ * Counts per state move with each submission and transition; a periodic grouped count
+ * corrects drift from jobs changed elsewhere, such as by other workers or a retry.
+ */
+@Service
+public class JobMetrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobMetrics.class);
+
+    public static final List<String> STATES = List.of("PENDING", "PROCESSING", "COMPLETED", "FAILED", "CANCELLED");
+
+    private static final long BUCKET_MS = 60_000;
+
+    @Autowired
+    private AnalysisJobRepository jobRepository;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.metrics.throughput-window-minutes:60}")
+    private int throughputWindowMinutes = 60;
+
+    private final Map<String, AtomicLong> jobsByState = new LinkedHashMap<>();
+    private final Map<String, Timer> processingTimers = new ConcurrentHashMap<>();
+    private final LongAdder finishedJobs = new LongAdder();
+    private final LongAdder processingNanos = new LongAdder();
+
+    // Completions per minute over the throughput window, as a ring indexed by minute
+    private long[] bucketMinutes = new long[throughputWindowMinutes];
+    private long[] bucketCounts = new long[throughputWindowMinutes];
+
+    public JobMetrics() {
+        for (String state : STATES) {
+            jobsByState.put(state, new AtomicLong());
+        }
+    }
+
+    @PostConstruct
+    public void registerMeters() {
+        bucketMinutes = new long[throughputWindowMinutes];
+        bucketCounts = new long[throughputWindowMinutes];
+        if (meterRegistry == null) {
+            return;
+        }
+        jobsByState.forEach((state, count) -> Gauge.builder("analysis.jobs", count, AtomicLong::get)
+                .tag("state", state)
+                .register(meterRegistry));
+        Gauge.builder("analysis.jobs.throughput", this, JobMetrics::getThroughputPerHour)
+                .description("Jobs completed per hour over the throughput window")
+                .register(meterRegistry);
+    }
+
+    public void recordSubmitted() {
+        jobsByState.get("PENDING").incrementAndGet();
+    }
+
+    public void recordStarted() {
+        recordTransition("PENDING", "PROCESSING");
+    }
+
+    /**
+     * Records a job reaching a terminal state. The processing time is null for jobs that
+     * never started, e.g. ones cancelled while pending.
+     */
+    public void recordFinished(String fromState, String toState, Duration processingTime) {
+        recordTransition(fromState, toState);
+        if (processingTime != null) {
+            if (meterRegistry != null) {
+                processingTimer(toState).record(processingTime);
+            }
+            finishedJobs.increment();
+            processingNanos.add(processingTime.toNanos());
+        }
+        if ("COMPLETED".equals(toState)) {
+            recordCompletion(System.currentTimeMillis() / BUCKET_MS);
+        }
+    }
+
+    public void recordTransition(String fromState, String toState) {
+        AtomicLong from = jobsByState.get(fromState);
+        if (from != null) {
+            from.updateAndGet(count -> Math.max(0, count - 1));
+        }
+        AtomicLong to = jobsByState.get(toState);
+        if (to != null) {
+            to.incrementAndGet();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.metrics.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        try {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            for (Object[] row : jobRepository.countGroupedByStatus()) {
+                counts.put((String) row[0], ((Number) row[1]).longValue());
+            }
+            jobsByState.forEach((state, count) -> count.set(counts.getOrDefault(state, 0L)));
+        } catch (Exception e) {
+            logger.warn("Failed to reconcile job counts, will retry on next cycle", e);
+        }
+    }
+
+    public Map<String, Long> getJobCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        jobsByState.forEach((state, count) -> counts.put(state, count.get()));
+        return counts;
+    }
+
+    public double getAverageProcessingSeconds() {
+        long finished = finishedJobs.sum();
+        return finished == 0 ? 0.0 : processingNanos.sum() / (double) finished / 1_000_000_000.0;
+    }
+
+    public synchronized double getThroughputPerHour() {
+        long oldestMinute = System.currentTimeMillis() / BUCKET_MS - throughputWindowMinutes + 1;
+        long completed = 0;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            if (bucketMinutes[i] >= oldestMinute) {
+                completed += bucketCounts[i];
+            }
+        }
+        return completed * 60.0 / throughputWindowMinutes;
+    }
+
+    private synchronized void recordCompletion(long minute) {
+        int index = (int) (minute % bucketCounts.length);
+        if (bucketMinutes[index] != minute) {
+            bucketMinutes[index] = minute;
+            bucketCounts[index] = 0;
+        }
+        bucketCounts[index]++;
+    }
+
+    private Timer processingTimer(String outcome) {
+        return processingTimers.computeIfAbsent(outcome, o -> Timer.builder("analysis.job.duration")
+                .description("Time from a job starting to reaching a terminal state")
+                .tag("outcome", o)
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,302 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.dto.JobStatusResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps live job progress in memory and writes it behind to analysis_jobs.
+ * Pipeline steps report here instead of saving the whole entity; the flush
+ * coalesces repeated updates and writes only status, progress and updated_at.
+ * State transitions are conditional updates that bump the row version, so a
+ * completion can never overwrite a cancellation or the other way round.
+ */
+@Service
+public class JobProgressTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobProgressTracker.class);
+
+    private static final Set<String> TERMINAL_STATUSES = Set.of("COMPLETED", "FAILED", "CANCELLED");
+
+    // Never moves a row out of a terminal state, so a late flush cannot undo a completion or cancellation
+    private static final String FLUSH_SQL =
+            "UPDATE analysis_jobs SET status = ?, progress = ?, updated_at = ? " +
+            "WHERE job_id = ? AND status IN ('PENDING', 'PROCESSING')";
+
+    private static final String COMPLETE_SQL =
+            "UPDATE analysis_jobs SET status = 'COMPLETED', progress = 1.0, updated_at = ?, version = version + 1 " +
+            "WHERE job_id = ? AND status IN ('PENDING', 'PROCESSING')";
+
+    private static final String FAIL_SQL =
+            "UPDATE analysis_jobs SET status = 'FAILED', error_message = ?, updated_at = ?, version = version + 1 " +
+            "WHERE job_id = ? AND status IN ('PENDING', 'PROCESSING')";
+
+    private static final String CANCEL_SQL =
+            "UPDATE analysis_jobs SET status = 'CANCELLED', updated_at = ?, version = version + 1 " +
+            "WHERE job_id = ? AND status IN ('PENDING', 'PROCESSING')";
+
+    private static final String REQUEUE_SQL =
+            "UPDATE analysis_jobs SET status = 'PENDING', progress = 0.0, error_message = NULL, " +
+            "lease_owner = NULL, lease_expires_at = NULL, updated_at = ?, version = version + 1 " +
+            "WHERE job_id = ? AND status = 'FAILED'";
+
+    private static final String STATUS_SQL = "SELECT status FROM analysis_jobs WHERE job_id = ?";
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JobMetrics jobMetrics;
+
+    @Autowired
+    private JobCancellationRegistry cancellationRegistry;
+
+    @Value("${app.jobs.progress.terminal-retention-ms:60000}")
+    private long terminalRetentionMs = 60000;
+
+    private final Map<String, ProgressEntry> entries = new ConcurrentHashMap<>();
+
+    public void update(String jobId, String status, double progress) {
+        entries.compute(jobId, (id, entry) -> {
+            if (entry == null) {
+                entry = new ProgressEntry();
+            }
+            synchronized (entry) {
+                // Late reports from a job that already finished or was cancelled are dropped
+                if (!entry.terminal) {
+                    if (entry.startedNanos == 0 && "PROCESSING".equals(status)) {
+                        entry.startedNanos = System.nanoTime();
+                        jobMetrics.recordStarted();
+                    }
+                    entry.status = status;
+                    entry.progress = progress;
+                    entry.updatedAt = LocalDateTime.now();
+                    entry.dirty = true;
+                }
+            }
+            return entry;
+        });
+    }
+
+    /**
+     * Records a terminal state. The caller persists it together with the result or error;
+     * the tracker only stops accepting progress for the job until the entry is evicted.
+     */
+    public void markTerminal(String jobId, String status) {
+        if (!isTerminal(status)) {
+            throw new IllegalArgumentException("Not a terminal status: " + status);
+        }
+        entries.compute(jobId, (id, entry) -> {
+            if (entry == null) {
+                entry = new ProgressEntry();
+            }
+            synchronized (entry) {
+                if (!entry.terminal) {
+                    boolean started = entry.startedNanos != 0;
+                    jobMetrics.recordFinished(started ? "PROCESSING" : "PENDING", status,
+                            started ? Duration.ofNanos(System.nanoTime() - entry.startedNanos) : null);
+                }
+                entry.status = status;
+                entry.updatedAt = LocalDateTime.now();
+                entry.dirty = false;
+                entry.terminal = true;
+            }
+            return entry;
+        });
+    }
+
+    /**
+     * Drops all state for a job so it can be processed again, e.g. after a retry.
+     */
+    public void forget(String jobId) {
+        entries.remove(jobId);
+    }
+
+    /**
+     * Moves a PENDING or PROCESSING job to COMPLETED. Returns false, writing nothing, when
+     * the job had already left those states, e.g. because it was cancelled meanwhile.
+     */
+    public boolean complete(String jobId) {
+        return transition(jobId, "COMPLETED", COMPLETE_SQL, now(), jobId);
+    }
+
+    public boolean fail(String jobId, String errorMessage) {
+        String message = errorMessage != null && errorMessage.length() > MAX_ERROR_LENGTH
+                ? errorMessage.substring(0, MAX_ERROR_LENGTH) : errorMessage;
+        return transition(jobId, "FAILED", FAIL_SQL, message, now(), jobId);
+    }
+
+    public boolean cancel(String jobId) {
+        return transition(jobId, "CANCELLED", CANCEL_SQL, now(), jobId);
+    }
+
+    /**
+     * Moves a FAILED job back to PENDING, clearing its error and lease, and drops its tracked state.
+     */
+    public boolean requeue(String jobId) {
+        if (jdbcTemplate.update(REQUEUE_SQL, now(), jobId) == 0) {
+            return false;
+        }
+        forget(jobId);
+        jobMetrics.recordTransition("FAILED", "PENDING");
+        return true;
+    }
+
+    public Optional<String> getPersistedStatus(String jobId) {
+        return jdbcTemplate.queryForList(STATUS_SQL, String.class, jobId).stream().findFirst();
+    }
+
+    private boolean transition(String jobId, String status, String sql, Object... args) {
+        if (jdbcTemplate.update(sql, args) == 0) {
+            return false;
+        }
+        markTerminal(jobId, status);
+        return true;
+    }
+
+    private static Timestamp now() {
+        return Timestamp.valueOf(LocalDateTime.now());
+    }
+
+    public Optional<ProgressSnapshot> getSnapshot(String jobId) {
+        ProgressEntry entry = entries.get(jobId);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        synchronized (entry) {
+            return Optional.of(new ProgressSnapshot(entry.status, entry.progress, entry.updatedAt));
+        }
+    }
+
+    /**
+     * Overlays live progress on a status read from the database. Terminal rows are
+     * authoritative since they carry the result or error message.
+     */
+    public void applyTo(JobStatusResponse response) {
+        if (isTerminal(response.getStatus())) {
+            return;
+        }
+        getSnapshot(response.getJobId()).ifPresent(snapshot -> {
+            if (!isTerminal(snapshot.getStatus())) {
+                response.setStatus(snapshot.getStatus());
+                response.setProgress(snapshot.getProgress());
+                response.setUpdatedAt(snapshot.getUpdatedAt());
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.jobs.progress.flush-interval-ms:500}")
+    public void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        LocalDateTime evictBefore = LocalDateTime.now().minusNanos(terminalRetentionMs * 1_000_000);
+
+        for (Map.Entry<String, ProgressEntry> mapEntry : entries.entrySet()) {
+            ProgressEntry entry = mapEntry.getValue();
+            synchronized (entry) {
+                if (entry.terminal) {
+                    if (entry.updatedAt.isBefore(evictBefore)) {
+                        entries.remove(mapEntry.getKey(), entry);
+                    }
+                    continue;
+                }
+                if (entry.dirty) {
+                    batch.add(new Object[]{entry.status, entry.progress,
+                            Timestamp.valueOf(entry.updatedAt), mapEntry.getKey()});
+                    entry.dirty = false;
+                }
+            }
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            int[] counts = jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+            logger.debug("Flushed progress for {} jobs", batch.size());
+            for (int i = 0; counts != null && i < counts.length && i < batch.size(); i++) {
+                if (counts[i] == 0) {
+                    handleFinishedElsewhere((String) batch.get(i)[3]);
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to flush job progress, will retry on next cycle", e);
+            for (Object[] row : batch) {
+                ProgressEntry entry = entries.get((String) row[3]);
+                if (entry != null) {
+                    synchronized (entry) {
+                        entry.dirty = !entry.terminal;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A flush that matched no row means the job was finished or cancelled by another writer,
+     * possibly on another node. The local worker is stopped now rather than at its next heartbeat.
+     */
+    private void handleFinishedElsewhere(String jobId) {
+        try {
+            Optional<String> status = getPersistedStatus(jobId);
+            if (status.isPresent() && isTerminal(status.get())) {
+                markTerminal(jobId, status.get());
+                if ("CANCELLED".equals(status.get()) && cancellationRegistry.cancel(jobId)) {
+                    logger.info("Stopping worker for job cancelled elsewhere: {}", jobId);
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to check status of job: {}", jobId, e);
+        }
+    }
+
+    public static boolean isTerminal(String status) {
+        return status != null && TERMINAL_STATUSES.contains(status);
+    }
+
+    public int getTrackedJobCount() {
+        return entries.size();
+    }
+
+    private static final class ProgressEntry {
+        private String status;
+        private double progress;
+        private LocalDateTime updatedAt;
+        private boolean dirty;
+        private boolean terminal;
+        private long startedNanos;
+    }
+
+    public static final class ProgressSnapshot {
+        private final String status;
+        private final double progress;
+        private final LocalDateTime updatedAt;
+
+        public ProgressSnapshot(String status, double progress, LocalDateTime updatedAt) {
+            this.status = status;
+            this.progress = progress;
+            this.updatedAt = updatedAt;
+        }
+
+        public String getStatus() { return status; }
+        public double getProgress() { return progress; }
+        public LocalDateTime getUpdatedAt() { return updatedAt; }
+    }
+}
@@ -0,0 +1,102 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.entity.AnalysisJob;
+import com.adobe.hackathon.repository.AnalysisJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Re-enqueues jobs left unfinished by a previous run and retries failed jobs.
+ * Workers skip every stage that already has a checkpoint, so both resume from
+ * the last completed stage rather than from zero.
+ */
+@Service
+public class JobRecoveryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobRecoveryService.class);
+
+    @Autowired
+    private AnalysisJobRepository jobRepository;
+
+    @Autowired
+    private DocumentAnalysisService documentAnalysisService;
+
+    @Autowired
+    private EnhancedDocumentAnalysisService enhancedAnalysisService;
+
+    @Autowired
+    private AdobeAnalysisService adobeAnalysisService;
+
+    @Autowired
+    private JobProgressTracker progressTracker;
+
+    @Value("${app.jobs.recovery.enabled:true}")
+    private boolean recoveryEnabled;
+
+    @Value("${app.worker.enabled:false}")
+    private boolean workerMode;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverUnfinishedJobs() {
+        // In worker mode unfinished jobs are reclaimed through their expired leases instead
+        if (!recoveryEnabled || workerMode) {
+            return;
+        }
+
+        List<AnalysisJob> unfinished = jobRepository.findByStatusIn(Arrays.asList("PENDING", "PROCESSING"));
+        if (unfinished.isEmpty()) {
+            return;
+        }
+
+        logger.info("Recovering {} unfinished jobs from previous run", unfinished.size());
+        for (AnalysisJob job : unfinished) {
+            try {
+                dispatch(job);
+            } catch (Exception e) {
+                logger.error("Failed to re-enqueue job: {}", job.getJobId(), e);
+            }
+        }
+    }
+
+    public void retryJob(String jobId) {
+        AnalysisJob job = jobRepository.findByJobId(jobId)
+                .orElseThrow(() -> new RuntimeException("Job not found: " + jobId));
+
+        if (!progressTracker.requeue(jobId)) {
+            throw new RuntimeException("Cannot retry job in status: "
+                    + progressTracker.getPersistedStatus(jobId).orElse(job.getStatus()));
+        }
+
+        if (!workerMode) {
+            dispatch(job);
+        }
+        logger.info("Job re-enqueued for retry: {}", jobId);
+    }
+
+    /**
+     * Starts the pipeline matching the job's analysis type. The returned future completes
+     * when the worker has finished, whatever the outcome.
+     */
+    public CompletableFuture<Void> dispatch(AnalysisJob job) {
+        String jobId = job.getJobId();
+        String analysisType = job.getAnalysisType() == null ? "standard" : job.getAnalysisType();
+
+        switch (analysisType) {
+            case "enhanced":
+                return enhancedAnalysisService.processEnhancedAnalysisAsync(jobId, System.currentTimeMillis());
+            case "adobe":
+                return adobeAnalysisService.processAdobeAnalysisAsync(jobId, adobeAnalysisService.restoreRequest(job));
+            default:
+                return documentAnalysisService.processAnalysisAsync(jobId);
+        }
+    }
+}
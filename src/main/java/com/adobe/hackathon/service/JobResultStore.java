@@ -0,0 +1,322 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.entity.AnalysisJobResult;
+import com.adobe.hackathon.repository.AnalysisJobResultRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stores job results in analysis_job_results, encoded with the configured ResultCodec and
+ * carrying their size and SHA-256. Results are only read when a caller asks for them.
+ * Large results are also decoded once into a spill directory so they can be served from disk.
+ */
+@Service
+public class JobResultStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobResultStore.class);
+
+    // Results written before they moved to their own table
+    private static final String INLINE_RESULTS_SQL =
+            "SELECT job_id FROM analysis_jobs WHERE result IS NOT NULL";
+    private static final String INLINE_RESULT_SQL =
+            "SELECT result FROM analysis_jobs WHERE job_id = ?";
+    private static final String CLEAR_INLINE_RESULT_SQL =
+            "UPDATE analysis_jobs SET result = NULL WHERE job_id = ?";
+
+    @Autowired
+    private AnalysisJobResultRepository resultRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.results.codec:deflate}")
+    private String codecName = "deflate";
+
+    @Value("${app.results.migrate-inline:true}")
+    private boolean migrateInline = true;
+
+    @Value("${app.results.spill-dir:./data/results}")
+    private String spillDir = "./data/results";
+
+    @Value("${app.results.spill-threshold-bytes:262144}")
+    private long spillThresholdBytes = 262144;
+
+    // Seeded from the table once at startup and kept up to date by this store, so the metrics
+    // endpoint does not scan the result table on every call
+    private final AtomicLong resultCount = new AtomicLong();
+    private final AtomicLong originalBytes = new AtomicLong();
+    private final AtomicLong storedBytes = new AtomicLong();
+
+    /**
+     * Result JSON exactly as stored, written to a stream without being parsed.
+     */
+    public interface ResultBody {
+        long getLength();
+
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    public void save(String jobId, String resultJson) {
+        ResultCodec codec = ResultCodec.forName(codecName);
+        byte[] raw = resultJson.getBytes(StandardCharsets.UTF_8);
+        byte[] encoded = codec.encode(raw);
+
+        // Retried jobs overwrite their earlier result
+        Optional<AnalysisJobResult> existing = resultRepository.findByJobId(jobId);
+        AnalysisJobResult result = existing.orElseGet(() -> new AnalysisJobResult(jobId));
+        long previousOriginal = existing.map(AnalysisJobResult::getOriginalSize).orElse(0L);
+        long previousStored = existing.map(AnalysisJobResult::getStoredSize).orElse(0L);
+        result.setCodec(codec.name());
+        result.setPayload(encoded);
+        result.setOriginalSize(raw.length);
+        result.setStoredSize(encoded.length);
+        result.setChecksum(sha256(raw));
+        result.setCreatedAt(LocalDateTime.now());
+        resultRepository.save(result);
+        deleteSpillFiles(jobId);
+        if (existing.isEmpty()) {
+            resultCount.incrementAndGet();
+        }
+        originalBytes.addAndGet(raw.length - previousOriginal);
+        storedBytes.addAndGet(encoded.length - previousStored);
+
+        logger.debug("Stored result for job {}: {} bytes as {} bytes ({})",
+                jobId, raw.length, encoded.length, codec);
+    }
+
+    public Optional<String> load(String jobId) {
+        return resultRepository.findByJobId(jobId).map(this::decode);
+    }
+
+    /**
+     * Opens the stored result for passthrough. Small results are decoded into memory; larger
+     * ones are served from their spill file, which is written on first access.
+     */
+    public Optional<ResultBody> openResult(String jobId) {
+        Optional<AnalysisJobResultRepository.ResultMetadata> metadata = resultRepository.findMetadataByJobId(jobId);
+        if (metadata.isEmpty()) {
+            return Optional.empty();
+        }
+
+        if (metadata.get().getOriginalSize() < spillThresholdBytes) {
+            return resultRepository.findByJobId(jobId).map(result -> {
+                byte[] raw = decodeBytes(result);
+                return new ResultBody() {
+                    @Override
+                    public long getLength() { return raw.length; }
+
+                    @Override
+                    public void writeTo(OutputStream out) throws IOException { out.write(raw); }
+                };
+            });
+        }
+
+        Path file = spillFile(jobId, metadata.get().getChecksum());
+        if (!Files.exists(file)) {
+            Optional<AnalysisJobResult> result = resultRepository.findByJobId(jobId);
+            if (result.isEmpty()) {
+                return Optional.empty();
+            }
+            writeSpillFile(file, decodeBytes(result.get()));
+        }
+        return Optional.of(fileBody(file));
+    }
+
+    /**
+     * Deletes the stored result and any spill file. Returns the bytes the result occupied.
+     */
+    public long delete(String jobId) {
+        Optional<AnalysisJobResult> existing = resultRepository.findByJobId(jobId);
+        if (resultRepository.deleteByJobId(jobId) > 0 && existing.isPresent()) {
+            resultCount.decrementAndGet();
+            originalBytes.addAndGet(-existing.get().getOriginalSize());
+            storedBytes.addAndGet(-existing.get().getStoredSize());
+        }
+        deleteSpillFiles(jobId);
+        return existing.map(AnalysisJobResult::getStoredSize).orElse(0L);
+    }
+
+    /**
+     * Re-encodes up to {@code limit} results created before the given time that are still
+     * stored uncompressed, with the configured codec. Returns the bytes saved.
+     */
+    public long compressOldResults(LocalDateTime before, int limit) {
+        ResultCodec codec = ResultCodec.forName(codecName);
+        if (codec == ResultCodec.IDENTITY) {
+            return 0;
+        }
+
+        long saved = 0;
+        List<String> jobIds = resultRepository.findJobIdsByCodecCreatedBefore(
+                ResultCodec.IDENTITY.name(), before, PageRequest.of(0, limit));
+        for (String jobId : jobIds) {
+            Optional<AnalysisJobResult> stored = resultRepository.findByJobId(jobId);
+            if (stored.isEmpty()) {
+                continue;
+            }
+            AnalysisJobResult result = stored.get();
+            byte[] encoded = codec.encode(decodeBytes(result));
+            saved += result.getStoredSize() - encoded.length;
+            result.setCodec(codec.name());
+            result.setPayload(encoded);
+            result.setStoredSize(encoded.length);
+            resultRepository.save(result);
+        }
+        storedBytes.addAndGet(-saved);
+        return saved;
+    }
+
+    @PostConstruct
+    public void initStats() {
+        resultCount.set(resultRepository.count());
+        originalBytes.set(resultRepository.sumOriginalSize());
+        storedBytes.set(resultRepository.sumStoredSize());
+    }
+
+    public Map<String, Object> getStats() {
+        long original = originalBytes.get();
+        long stored = storedBytes.get();
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("codec", ResultCodec.forName(codecName).name());
+        stats.put("results", resultCount.get());
+        stats.put("originalBytes", original);
+        stats.put("storedBytes", stored);
+        stats.put("compressionRatio", stored == 0 ? 0.0
+                : Math.round(original * 100.0 / stored) / 100.0);
+        return stats;
+    }
+
+    private String decode(AnalysisJobResult result) {
+        return new String(decodeBytes(result), StandardCharsets.UTF_8);
+    }
+
+    private byte[] decodeBytes(AnalysisJobResult result) {
+        byte[] raw = ResultCodec.forName(result.getCodec()).decode(result.getPayload());
+        if (raw.length != result.getOriginalSize() || !sha256(raw).equals(result.getChecksum())) {
+            throw new RuntimeException("Stored result is corrupt for job: " + result.getJobId());
+        }
+        return raw;
+    }
+
+    // Named by checksum, so a rewritten result never serves a stale file
+    private Path spillFile(String jobId, String checksum) {
+        return Paths.get(spillDir, jobId + "-" + checksum + ".json");
+    }
+
+    private void writeSpillFile(Path file, byte[] raw) {
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            Files.write(temp, raw);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Streamed from disk in small buffers, so the result is never held on the heap as a whole
+    private static ResultBody fileBody(Path file) {
+        return new ResultBody() {
+            @Override
+            public long getLength() {
+                try {
+                    return Files.size(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                Files.copy(file, out);
+            }
+        };
+    }
+
+    private void deleteSpillFiles(String jobId) {
+        Path dir = Paths.get(spillDir);
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, jobId + "-*.json")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to delete spilled result files for job: {}", jobId, e);
+        }
+    }
+
+    /**
+     * Moves results still held in the legacy analysis_jobs.result column into the result table.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateInlineResults() {
+        if (!migrateInline) {
+            return;
+        }
+
+        List<String> jobIds;
+        try {
+            jobIds = jdbcTemplate.queryForList(INLINE_RESULTS_SQL, String.class);
+        } catch (DataAccessException e) {
+            // Databases created after the move have no result column
+            return;
+        }
+
+        int migrated = 0;
+        for (String jobId : jobIds) {
+            try {
+                String resultJson = jdbcTemplate.queryForObject(INLINE_RESULT_SQL, String.class, jobId);
+                if (resultJson != null && resultRepository.findByJobId(jobId).isEmpty()) {
+                    save(jobId, resultJson);
+                }
+                jdbcTemplate.update(CLEAR_INLINE_RESULT_SQL, jobId);
+                migrated++;
+            } catch (Exception e) {
+                logger.warn("Failed to migrate inline result for job: {}", jobId, e);
+            }
+        }
+
+        if (migrated > 0) {
+            logger.info("Moved {} inline job results to analysis_job_results", migrated);
+        }
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
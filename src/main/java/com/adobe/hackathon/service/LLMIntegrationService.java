@@ -1,22 +1,47 @@
 package com.adobe.hackathon.service;
 
+import com.adobe.hackathon.config.HttpClientConfiguration;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpResponse;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Service
 public class LLMIntegrationService {
 
     private static final Logger logger = LoggerFactory.getLogger(LLMIntegrationService.class);
 
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    private static final Set<String> STREAMING_PROVIDERS = Set.of("gemini", "openai");
+
     @Value("${llm.provider:gemini}")
     private String llmProvider;
 
@@ -29,9 +54,87 @@ public class LLMIntegrationService {
     @Value("${llm.api.timeout:30000}")
     private int timeout;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    // Overridable so benchmarks can point at a local stub instead of the real provider
+    @Value("${llm.api.gemini-base-url:https://generativelanguage.googleapis.com}")
+    private String geminiBaseUrl = "https://generativelanguage.googleapis.com";
+
+    @Value("${llm.api.openai-base-url:https://api.openai.com}")
+    private String openAIBaseUrl = "https://api.openai.com";
+
+    @Autowired
+    @Qualifier("ioExecutor")
+    private ExecutorService ioExecutor;
+
+    @Autowired
+    private OutboundCallLimiter callLimiter;
+
+    @Autowired
+    private LlmResponseCache responseCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProviderCircuitBreaker circuitBreaker;
+
+    // Pooled client with connect and read timeouts, see HttpClientConfiguration
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Value("${app.llm.retry.max-attempts:3}")
+    private int maxAttempts = 3;
+
+    @Value("${app.llm.retry.initial-backoff-ms:500}")
+    private long initialBackoffMs = 500;
+
+    @Value("${app.llm.retry.max-backoff-ms:8000}")
+    private long maxBackoffMs = 8000;
+
+    // Upper bound for all attempts of one call including backoff
+    @Value("${app.llm.total-timeout-ms:60000}")
+    private long totalTimeoutMs = 60000;
+
+    /**
+     * Runs the call on the I/O executor so callers can fan out several prompts
+     * without holding analysis threads while the provider responds. Cancelling the
+     * returned future interrupts the call, which gives back its thread and limiter permit.
+     */
+    public CompletableFuture<String> generateResponseAsync(String prompt) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Future<?> task = ioExecutor.submit(() -> {
+            try {
+                result.complete(generateResponse(prompt));
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        result.whenComplete((response, error) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * True if a call would reach the provider rather than return the fallback response.
+     */
+    public boolean isAvailable() {
+        String provider = llmProvider.toLowerCase();
+        return apiKey != null && !apiKey.isEmpty()
+                && STREAMING_PROVIDERS.contains(provider)
+                && circuitBreaker.getState(provider) != ProviderCircuitBreaker.State.OPEN;
+    }
 
     public String generateResponse(String prompt) throws Exception {
+        return generateResponse(prompt, false);
+    }
+
+    /**
+     * Background calls take permits from the provider's separate "-background" limiter budget,
+     * so speculative work cannot use up the permits interactive requests need.
+     */
+    public String generateResponse(String prompt, boolean background) throws Exception {
         if (apiKey == null || apiKey.isEmpty()) {
             logger.warn("No LLM API key configured, returning fallback response");
             return generateFallbackResponse(prompt);
@@ -39,32 +142,104 @@ public class LLMIntegrationService {
 
         switch (llmProvider.toLowerCase()) {
             case "gemini":
-                return callGeminiAPI(prompt);
+                return cachedCall("gemini", permitKey("gemini", background), prompt, () -> callGeminiAPI(prompt));
             case "openai":
-                return callOpenAI(prompt);
+                return cachedCall("openai", permitKey("openai", background), prompt, () -> callOpenAI(prompt));
             default:
                 logger.warn("Unknown LLM provider: {}, using fallback", llmProvider);
                 return generateFallbackResponse(prompt);
         }
     }
 
+    private static String permitKey(String provider, boolean background) {
+        return background ? provider + "-background" : provider;
+    }
+
+    private String cachedCall(String provider, String permitKey, String prompt, Callable<String> call) throws Exception {
+        Optional<String> cached = responseCache.get(provider, model, prompt);
+        if (cached.isPresent()) {
+            logger.debug("LLM response served from cache for provider: {}", provider);
+            return cached.get();
+        }
+
+        if (!circuitBreaker.allowRequest(provider)) {
+            logger.warn("Circuit open for LLM provider: {}, using fallback", provider);
+            return generateFallbackResponse(prompt);
+        }
+
+        String response;
+        try {
+            response = callWithRetry(provider, permitKey, call);
+            circuitBreaker.recordSuccess(provider);
+        } catch (Exception e) {
+            recordOutcome(provider, e);
+            throw e;
+        }
+        responseCache.put(provider, model, prompt, response);
+        return response;
+    }
+
+    // Each attempt takes its own limiter permit, so a call backing off does not block other callers,
+    // and waits for a response no longer than the deadline leaves
+    private String callWithRetry(String provider, String permitKey, Callable<String> call) throws Exception {
+        long deadline = System.currentTimeMillis() + totalTimeoutMs;
+
+        for (int attempt = 1; ; attempt++) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                throw new ResourceAccessException("LLM call to " + provider + " exceeded its " + totalTimeoutMs + "ms deadline");
+            }
+            long attemptTimeout = timeout > 0 ? Math.min(timeout, remaining) : remaining;
+            try {
+                return callLimiter.call(permitKey, remaining,
+                        () -> HttpClientConfiguration.withResponseTimeout(attemptTimeout, call));
+            } catch (Exception e) {
+                long backoff = backoffMs(attempt);
+                if (attempt >= maxAttempts || !isRetryable(e) || System.currentTimeMillis() + backoff >= deadline) {
+                    throw e;
+                }
+                logger.warn("LLM call to {} failed (attempt {}/{}), retrying in {}ms: {}",
+                        provider, attempt, maxAttempts, backoff, e.getMessage());
+                Thread.sleep(backoff);
+            }
+        }
+    }
+
+    // Exponential backoff with jitter so parallel callers do not retry in lockstep
+    private long backoffMs(int attempt) {
+        long cap = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+        return cap / 2 + ThreadLocalRandom.current().nextLong(cap / 2 + 1);
+    }
+
+    // Transport failures, throttling and gateway errors are transient; anything else is not worth repeating
+    private boolean isRetryable(Exception e) {
+        if (e instanceof ResourceAccessException) {
+            return true;
+        }
+        if (e instanceof RestClientResponseException) {
+            int status = ((RestClientResponseException) e).getStatusCode().value();
+            return status == 429 || status == 502 || status == 503 || status == 504;
+        }
+        return false;
+    }
+
+    // Only provider-side trouble counts against the circuit; a rejected request proves the provider is up
+    private void recordOutcome(String provider, Exception e) {
+        if (isRetryable(e)) {
+            circuitBreaker.recordFailure(provider);
+        } else {
+            circuitBreaker.recordSuccess(provider);
+        }
+    }
+
     private String callGeminiAPI(String prompt) throws Exception {
-        String url = "https://generativelanguage.googleapis.com/v1beta/models/" + model + ":generateContent";
+        String url = geminiBaseUrl + "/v1beta/models/" + model + ":generateContent";
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         headers.set("x-goog-api-key", apiKey);
 
-        Map<String, Object> requestBody = new HashMap<>();
-        Map<String, Object> contents = new HashMap<>();
-        List<Map<String, Object>> parts = new ArrayList<>();
-        Map<String, Object> textPart = new HashMap<>();
-        textPart.put("text", prompt);
-        parts.add(textPart);
-        contents.put("parts", parts);
-        requestBody.put("contents", new Object[]{contents});
-
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
+        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(geminiRequestBody(prompt), headers);
 
         try {
             ResponseEntity<Map<String, Object>> response = restTemplate.exchange(url, HttpMethod.POST, entity, (Class<Map<String, Object>>) (Class<?>) Map.class);
@@ -74,6 +249,9 @@ public class LLMIntegrationService {
             } else {
                 throw new RuntimeException("Gemini API call failed with status: " + response.getStatusCode());
             }
+        } catch (ResourceAccessException | RestClientResponseException e) {
+            // Kept unwrapped so the retry policy can tell transient failures apart
+            throw e;
         } catch (Exception e) {
             logger.error("Error calling Gemini API", e);
             throw new RuntimeException("Failed to generate LLM response: " + e.getMessage());
@@ -81,21 +259,13 @@ public class LLMIntegrationService {
     }
 
     private String callOpenAI(String prompt) throws Exception {
-        String url = "https://api.openai.com/v1/chat/completions";
+        String url = openAIBaseUrl + "/v1/chat/completions";
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         headers.setBearerAuth(apiKey);
 
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("model", model);
-        requestBody.put("messages", new Object[]{
-                Map.of("role", "user", "content", prompt)
-        });
-        requestBody.put("max_tokens", 1000);
-        requestBody.put("temperature", 0.7);
-
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
+        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(openAIRequestBody(prompt, false), headers);
 
         try {
             ResponseEntity<Map<String, Object>> response = restTemplate.exchange(url, HttpMethod.POST, entity, (Class<Map<String, Object>>) (Class<?>) Map.class);
@@ -105,12 +275,164 @@ public class LLMIntegrationService {
             } else {
                 throw new RuntimeException("OpenAI API call failed with status: " + response.getStatusCode());
             }
+        } catch (ResourceAccessException | RestClientResponseException e) {
+            // Kept unwrapped so the retry policy can tell transient failures apart
+            throw e;
         } catch (Exception e) {
             logger.error("Error calling OpenAI API", e);
             throw new RuntimeException("Failed to generate LLM response: " + e.getMessage());
         }
     }
 
+    /**
+     * Streams the completion, passing each text fragment to onChunk as it arrives, and
+     * returns the full text. Cached and fallback responses are delivered as one chunk.
+     */
+    public String streamResponse(String prompt, Consumer<String> onChunk) throws Exception {
+        String provider = llmProvider.toLowerCase();
+        if (apiKey == null || apiKey.isEmpty() || !STREAMING_PROVIDERS.contains(provider)) {
+            logger.warn("LLM streaming not available for provider: {}, using fallback", llmProvider);
+            String fallback = generateFallbackResponse(prompt);
+            onChunk.accept(fallback);
+            return fallback;
+        }
+
+        Optional<String> cached = responseCache.get(provider, model, prompt);
+        if (cached.isPresent()) {
+            onChunk.accept(cached.get());
+            return cached.get();
+        }
+
+        if (!circuitBreaker.allowRequest(provider)) {
+            logger.warn("Circuit open for LLM provider: {}, using fallback", provider);
+            String fallback = generateFallbackResponse(prompt);
+            onChunk.accept(fallback);
+            return fallback;
+        }
+
+        // Not retried: chunks already delivered cannot be taken back
+        String response;
+        try {
+            response = callLimiter.call(provider, () -> "gemini".equals(provider)
+                    ? streamGeminiAPI(prompt, onChunk)
+                    : streamOpenAI(prompt, onChunk));
+            circuitBreaker.recordSuccess(provider);
+        } catch (Exception e) {
+            recordOutcome(provider, e);
+            throw e;
+        }
+        responseCache.put(provider, model, prompt, response);
+        return response;
+    }
+
+    private String streamGeminiAPI(String prompt, Consumer<String> onChunk) {
+        String url = geminiBaseUrl + "/v1beta/models/" + model + ":streamGenerateContent?alt=sse";
+
+        return restTemplate.execute(url, HttpMethod.POST, request -> {
+            request.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            request.getHeaders().set("x-goog-api-key", apiKey);
+            objectMapper.writeValue(request.getBody(), geminiRequestBody(prompt));
+        }, response -> readEventStream(response, this::extractGeminiChunk, onChunk));
+    }
+
+    private String streamOpenAI(String prompt, Consumer<String> onChunk) {
+        String url = openAIBaseUrl + "/v1/chat/completions";
+
+        return restTemplate.execute(url, HttpMethod.POST, request -> {
+            request.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            request.getHeaders().setBearerAuth(apiKey);
+            objectMapper.writeValue(request.getBody(), openAIRequestBody(prompt, true));
+        }, response -> readEventStream(response, this::extractOpenAIChunk, onChunk));
+    }
+
+    // Both providers answer with server-sent events whose data lines carry one JSON chunk each
+    private String readEventStream(ClientHttpResponse response, Function<Map<String, Object>, String> extractor,
+                                   Consumer<String> onChunk) throws IOException {
+        StringBuilder text = new StringBuilder();
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(response.getBody(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith("data:")) {
+                    continue;
+                }
+                String data = line.substring(5).trim();
+                if (data.isEmpty()) {
+                    continue;
+                }
+                if ("[DONE]".equals(data)) {
+                    break;
+                }
+
+                String chunk = extractor.apply(objectMapper.readValue(data, MAP_TYPE));
+                if (chunk != null && !chunk.isEmpty()) {
+                    text.append(chunk);
+                    onChunk.accept(chunk);
+                }
+            }
+        }
+
+        if (text.length() == 0) {
+            throw new RuntimeException("LLM stream ended without content");
+        }
+        return text.toString();
+    }
+
+    private Map<String, Object> geminiRequestBody(String prompt) {
+        Map<String, Object> requestBody = new HashMap<>();
+        Map<String, Object> contents = new HashMap<>();
+        List<Map<String, Object>> parts = new ArrayList<>();
+        Map<String, Object> textPart = new HashMap<>();
+        textPart.put("text", prompt);
+        parts.add(textPart);
+        contents.put("parts", parts);
+        requestBody.put("contents", new Object[]{contents});
+        return requestBody;
+    }
+
+    private Map<String, Object> openAIRequestBody(String prompt, boolean stream) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", model);
+        requestBody.put("messages", new Object[]{
+                Map.of("role", "user", "content", prompt)
+        });
+        requestBody.put("max_tokens", 1000);
+        requestBody.put("temperature", 0.7);
+        if (stream) {
+            requestBody.put("stream", true);
+        }
+        return requestBody;
+    }
+
+    // Stream chunks may legitimately carry no text (e.g. the final one with only a finish reason)
+    @SuppressWarnings("unchecked")
+    private String extractGeminiChunk(Map<String, Object> chunk) {
+        List<Map<String, Object>> candidates = (List<Map<String, Object>>) chunk.get("candidates");
+        if (candidates == null || candidates.isEmpty()) {
+            return null;
+        }
+        Map<String, Object> content = (Map<String, Object>) candidates.get(0).get("content");
+        if (content == null) {
+            return null;
+        }
+        List<Map<String, Object>> contentParts = (List<Map<String, Object>>) content.get("parts");
+        if (contentParts == null || contentParts.isEmpty()) {
+            return null;
+        }
+        return (String) contentParts.get(0).get("text");
+    }
+
+    @SuppressWarnings("unchecked")
+    private String extractOpenAIChunk(Map<String, Object> chunk) {
+        List<Map<String, Object>> choices = (List<Map<String, Object>>) chunk.get("choices");
+        if (choices == null || choices.isEmpty()) {
+            return null;
+        }
+        Map<String, Object> delta = (Map<String, Object>) choices.get(0).get("delta");
+        return delta == null ? null : (String) delta.get("content");
+    }
+
     @SuppressWarnings("unchecked")
     private String extractGeminiResponse(Map<String, Object> response) {
         try {
@@ -0,0 +1,274 @@
+package com.adobe.hackathon.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Two-tier cache of provider responses keyed by SHA-256 of provider, model and prompt:
+ * an in-memory LRU in front of one file per entry under the cache directory. Only real
+ * provider responses are stored, never the canned fallbacks.
+ */
+@Service
+public class LlmResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(LlmResponseCache.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.llm.cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.llm.cache.dir:./data/llm-cache}")
+    private String cacheDir = "./data/llm-cache";
+
+    @Value("${app.llm.cache.ttl-ms:86400000}")
+    private long ttlMs = 86400000;
+
+    @Value("${app.llm.cache.max-memory-entries:500}")
+    private int maxMemoryEntries = 500;
+
+    @Value("${app.llm.cache.max-disk-mb:200}")
+    private long maxDiskMb = 200;
+
+    private final Map<String, CachedResponse> memory = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+            return size() > maxMemoryEntries;
+        }
+    };
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+
+    public Optional<String> get(String provider, String model, String prompt) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        String key = key(provider, model, prompt);
+        long now = System.currentTimeMillis();
+
+        CachedResponse cached;
+        synchronized (memory) {
+            cached = memory.get(key);
+            if (cached != null && cached.isExpired(now, ttlMs)) {
+                memory.remove(key);
+                cached = null;
+            }
+        }
+        if (cached != null) {
+            memoryHits.incrementAndGet();
+            return Optional.of(cached.getResponse());
+        }
+
+        cached = readFromDisk(key, now);
+        if (cached != null) {
+            diskHits.incrementAndGet();
+            synchronized (memory) {
+                memory.put(key, cached);
+            }
+            return Optional.of(cached.getResponse());
+        }
+
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    public void put(String provider, String model, String prompt, String response) {
+        if (!enabled || response == null) {
+            return;
+        }
+
+        String key = key(provider, model, prompt);
+        CachedResponse cached = new CachedResponse(System.currentTimeMillis(), response);
+        synchronized (memory) {
+            memory.put(key, cached);
+        }
+        writeToDisk(key, cached);
+        writes.incrementAndGet();
+    }
+
+    /**
+     * Drops expired entry files and, if the directory is still over its size limit,
+     * the least recently written ones.
+     */
+    @Scheduled(fixedDelayString = "${app.llm.cache.cleanup-interval-ms:3600000}")
+    public void cleanup() {
+        Path root = Paths.get(cacheDir);
+        if (!enabled || !Files.isDirectory(root)) {
+            return;
+        }
+
+        long expiredBefore = System.currentTimeMillis() - ttlMs;
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(root)) {
+            files = stream.filter(path -> path.toString().endsWith(".json")).collect(Collectors.toList());
+        } catch (IOException e) {
+            logger.warn("Failed to scan LLM cache directory {}", root, e);
+            return;
+        }
+
+        List<Path> remaining = new ArrayList<>();
+        long totalBytes = 0;
+        for (Path file : files) {
+            try {
+                if (Files.getLastModifiedTime(file).toMillis() < expiredBefore) {
+                    Files.deleteIfExists(file);
+                } else {
+                    remaining.add(file);
+                    totalBytes += Files.size(file);
+                }
+            } catch (IOException e) {
+                // Removed concurrently or unreadable; the next run retries
+            }
+        }
+
+        long maxBytes = maxDiskMb * 1024 * 1024;
+        if (totalBytes <= maxBytes) {
+            return;
+        }
+        remaining.sort(Comparator.comparingLong(LlmResponseCache::lastModified));
+        for (Path file : remaining) {
+            if (totalBytes <= maxBytes) {
+                break;
+            }
+            try {
+                long size = Files.size(file);
+                Files.deleteIfExists(file);
+                totalBytes -= size;
+            } catch (IOException e) {
+                // Retried on the next run
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long hits = memoryHits.get() + diskHits.get();
+        long lookups = hits + misses.get();
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("memoryHits", memoryHits.get());
+        stats.put("diskHits", diskHits.get());
+        stats.put("misses", misses.get());
+        stats.put("writes", writes.get());
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) hits / lookups);
+        synchronized (memory) {
+            stats.put("memoryEntries", memory.size());
+        }
+        return stats;
+    }
+
+    private CachedResponse readFromDisk(String key, long now) {
+        Path file = entryFile(key);
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        try {
+            CachedResponse cached = objectMapper.readValue(file.toFile(), CachedResponse.class);
+            if (cached.getResponse() == null || cached.isExpired(now, ttlMs)) {
+                Files.deleteIfExists(file);
+                return null;
+            }
+            return cached;
+        } catch (IOException e) {
+            logger.warn("Discarding unreadable LLM cache entry {}", file, e);
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // Left for cleanup
+            }
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, CachedResponse cached) {
+        Path file = entryFile(key);
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try {
+            Files.createDirectories(file.getParent());
+            objectMapper.writeValue(tempFile.toFile(), cached);
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // The memory tier still serves the entry; disk is best effort
+            logger.warn("Failed to write LLM cache entry {}", file, e);
+        }
+    }
+
+    // Two-character fan-out keeps directories small
+    private Path entryFile(String key) {
+        return Paths.get(cacheDir, key.substring(0, 2), key + ".json");
+    }
+
+    static String key(String provider, String model, String prompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((provider + "|" + model + "|").getBytes(StandardCharsets.UTF_8));
+            digest.update(prompt.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    public static class CachedResponse {
+        private long createdAt;
+        private String response;
+
+        public CachedResponse() {
+        }
+
+        public CachedResponse(long createdAt, String response) {
+            this.createdAt = createdAt;
+            this.response = response;
+        }
+
+        boolean isExpired(long now, long ttlMs) {
+            return now - createdAt > ttlMs;
+        }
+
+        public long getCreatedAt() { return createdAt; }
+        public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
+
+        public String getResponse() { return response; }
+        public void setResponse(String response) { this.response = response; }
+    }
+}
@@ -0,0 +1,73 @@
+package com.adobe.hackathon.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds the number of in-flight calls per external provider, so a burst of cheap
+ * I/O tasks cannot exceed a provider's rate limits or exhaust its connection pool.
+ */
+@Service
+public class OutboundCallLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboundCallLimiter.class);
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${app.io.max-concurrent-per-provider:16}")
+    private int defaultLimit = 16;
+
+    @Value("${app.io.acquire-timeout-ms:30000}")
+    private long acquireTimeoutMs = 30000;
+
+    private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+
+    public <T> T call(String provider, Callable<T> call) throws Exception {
+        return call(provider, acquireTimeoutMs, call);
+    }
+
+    /**
+     * Same as call, but waits at most maxWaitMs for a permit when that is below the configured timeout.
+     */
+    public <T> T call(String provider, long maxWaitMs, Callable<T> call) throws Exception {
+        Semaphore semaphore = permits.computeIfAbsent(provider, this::createSemaphore);
+
+        if (!semaphore.tryAcquire(Math.min(acquireTimeoutMs, maxWaitMs), TimeUnit.MILLISECONDS)) {
+            throw new RuntimeException("Too many concurrent calls to provider: " + provider);
+        }
+        try {
+            return call.call();
+        } finally {
+            semaphore.release();
+        }
+    }
+
+    public int getAvailablePermits(String provider) {
+        Semaphore semaphore = permits.get(provider);
+        return semaphore == null ? getLimit(provider) : semaphore.availablePermits();
+    }
+
+    private Semaphore createSemaphore(String provider) {
+        int limit = getLimit(provider);
+        logger.info("Limiting concurrent calls to {} at {}", provider, limit);
+        return new Semaphore(limit, true);
+    }
+
+    // app.io.max-concurrent.<provider> overrides the default for a single provider
+    private int getLimit(String provider) {
+        Integer limit = environment == null ? null
+                : environment.getProperty("app.io.max-concurrent." + provider, Integer.class);
+        return limit != null && limit > 0 ? limit : defaultLimit;
+    }
+}
@@ -1,14 +1,13 @@
 package com.adobe.hackathon.service;
 
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.text.PDFTextStripper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -18,7 +17,14 @@ public class PdfAnalysisService {
 
     private static final Logger logger = LoggerFactory.getLogger(PdfAnalysisService.class);
 
+    @Autowired
+    private PdfPageExtractionService pageExtractionService;
+
     public Map<String, Object> analyzePdfs(String jobDirectory) {
+        return analyzePdfs(jobDirectory, CancellationToken.NONE);
+    }
+
+    public Map<String, Object> analyzePdfs(String jobDirectory, CancellationToken token) {
         Map<String, Object> analysis = new HashMap<>();
         List<Map<String, Object>> fileAnalyses = new ArrayList<>();
 
@@ -37,15 +43,18 @@ public class PdfAnalysisService {
                 return analysis;
             }
 
-            for (File pdfFile : pdfFiles) {
-                Map<String, Object> fileAnalysis = analyzeSinglePdf(pdfFile);
-                fileAnalyses.add(fileAnalysis);
+            List<PdfPageExtractionService.DocumentPages> documents =
+                    pageExtractionService.extractPages(Arrays.asList(pdfFiles), token);
+            for (PdfPageExtractionService.DocumentPages document : documents) {
+                fileAnalyses.add(analyzeSinglePdf(document));
             }
 
             analysis.put("totalFiles", pdfFiles.length);
             analysis.put("files", fileAnalyses);
             analysis.put("success", true);
 
+        } catch (JobCancelledException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error analyzing PDFs in directory: {}", jobDirectory, e);
             analysis.put("error", "Failed to analyze PDFs: " + e.getMessage());
@@ -55,44 +64,43 @@ public class PdfAnalysisService {
         return analysis;
     }
 
-    private Map<String, Object> analyzeSinglePdf(File pdfFile) {
+    private Map<String, Object> analyzeSinglePdf(PdfPageExtractionService.DocumentPages document) {
         Map<String, Object> fileAnalysis = new HashMap<>();
+        File pdfFile = document.getFile();
         fileAnalysis.put("filename", pdfFile.getName());
 
-        try (PDDocument document = PDDocument.load(pdfFile)) {
-            // Extract basic metadata
-            fileAnalysis.put("pageCount", document.getNumberOfPages());
-            fileAnalysis.put("fileSize", pdfFile.length());
+        if (!document.isSuccess()) {
+            fileAnalysis.put("error", "Failed to analyze: " + document.getError());
+            fileAnalysis.put("success", false);
+            return fileAnalysis;
+        }
 
-            // Extract text content
-            PDFTextStripper textStripper = new PDFTextStripper();
-            String text = textStripper.getText(document);
-            fileAnalysis.put("textLength", text.length());
-            fileAnalysis.put("wordCount", text.split("\\s+").length);
+        // Extract basic metadata
+        fileAnalysis.put("pageCount", document.getPageCount());
+        fileAnalysis.put("fileSize", pdfFile.length());
 
-            // Store extracted text (first 1000 characters as preview)
-            String preview = text.length() > 1000 ? text.substring(0, 1000) + "..." : text;
-            fileAnalysis.put("textPreview", preview);
+        // Extract text content
+        String text = document.getText();
+        fileAnalysis.put("textLength", text.length());
+        fileAnalysis.put("wordCount", text.split("\\s+").length);
 
-            // Basic content analysis
-            fileAnalysis.put("containsImages", hasImages(document));
-            fileAnalysis.put("success", true);
+        // Store extracted text (first 1000 characters as preview)
+        String preview = text.length() > 1000 ? text.substring(0, 1000) + "..." : text;
+        fileAnalysis.put("textPreview", preview);
 
-            logger.info("Analyzed PDF: {} ({} pages, {} chars)",
-                    pdfFile.getName(), document.getNumberOfPages(), text.length());
+        // Basic content analysis
+        fileAnalysis.put("containsImages", hasImages(pdfFile));
+        fileAnalysis.put("success", true);
 
-        } catch (IOException e) {
-            logger.error("Error analyzing PDF: {}", pdfFile.getName(), e);
-            fileAnalysis.put("error", "Failed to analyze: " + e.getMessage());
-            fileAnalysis.put("success", false);
-        }
+        logger.info("Analyzed PDF: {} ({} pages, {} chars)",
+                pdfFile.getName(), document.getPageCount(), text.length());
 
         return fileAnalysis;
     }
 
-    private boolean hasImages(PDDocument document) {
+    private boolean hasImages(File pdfFile) {
         // Simplified image detection - in real implementation,
         // you would check for image XObjects in the PDF
         return false; // Placeholder
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,245 @@
+package com.adobe.hackathon.service;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Extracts page text for a whole job as a fork/join task tree: the job forks one task per
+ * document, documents split into page chunks, and idle workers steal chunks from the largest
+ * document. Results are joined in document and page order, so output matches a sequential pass.
+ */
+@Service
+public class PdfPageExtractionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PdfPageExtractionService.class);
+
+    @Autowired
+    @Qualifier("analysisForkJoinPool")
+    private ForkJoinPool forkJoinPool;
+
+    @Value("${app.analysis.fork-join.pages-per-chunk:16}")
+    private int pagesPerChunk = 16;
+
+    @Value("${app.analysis.fork-join.candidates-per-block:256}")
+    private int candidatesPerBlock = 256;
+
+    public List<DocumentPages> extractPages(List<File> pdfFiles, CancellationToken token) {
+        return run(new JobTask(pdfFiles, token), token);
+    }
+
+    /**
+     * Scores candidates in parallel blocks. The score of candidate i is written to slot i,
+     * so ranking on the result is independent of scheduling.
+     */
+    public <T> double[] score(List<T> candidates, ToDoubleFunction<T> scorer, CancellationToken token) {
+        double[] scores = new double[candidates.size()];
+        if (candidates.isEmpty()) {
+            return scores;
+        }
+        run(new ScoreTask<>(candidates, scorer, scores, 0, candidates.size(), token), token);
+        return scores;
+    }
+
+    private <R> R run(ForkJoinTask<R> task, CancellationToken token) {
+        token.register(task);
+        try {
+            forkJoinPool.execute(task);
+            return task.join();
+        } catch (CancellationException e) {
+            throw new JobCancelledException(token.getJobId());
+        } finally {
+            token.unregister(task);
+        }
+    }
+
+    /**
+     * Text of one document, one entry per page in page order. Documents that cannot be
+     * read carry the error instead of pages.
+     */
+    public static final class DocumentPages {
+        private final File file;
+        private final List<String> pages;
+        private final String error;
+
+        private DocumentPages(File file, List<String> pages, String error) {
+            this.file = file;
+            this.pages = pages;
+            this.error = error;
+        }
+
+        public File getFile() { return file; }
+        public List<String> getPages() { return pages; }
+        public String getError() { return error; }
+        public boolean isSuccess() { return error == null; }
+        public int getPageCount() { return pages.size(); }
+
+        public String getText() {
+            return String.join("", pages);
+        }
+    }
+
+    private final class JobTask extends RecursiveTask<List<DocumentPages>> {
+        private final List<File> pdfFiles;
+        private final CancellationToken token;
+
+        private JobTask(List<File> pdfFiles, CancellationToken token) {
+            this.pdfFiles = pdfFiles;
+            this.token = token;
+        }
+
+        @Override
+        protected List<DocumentPages> compute() {
+            List<DocumentTask> tasks = new ArrayList<>();
+            for (File pdfFile : pdfFiles) {
+                tasks.add(new DocumentTask(pdfFile, token));
+            }
+            invokeAll(tasks);
+
+            List<DocumentPages> documents = new ArrayList<>(tasks.size());
+            for (DocumentTask task : tasks) {
+                documents.add(task.join());
+            }
+            return documents;
+        }
+    }
+
+    private final class DocumentTask extends RecursiveTask<DocumentPages> {
+        private final File pdfFile;
+        private final CancellationToken token;
+
+        private DocumentTask(File pdfFile, CancellationToken token) {
+            this.pdfFile = pdfFile;
+            this.token = token;
+        }
+
+        @Override
+        protected DocumentPages compute() {
+            token.throwIfCancelled();
+            try {
+                int pageCount;
+                try (PDDocument document = PDDocument.load(pdfFile)) {
+                    pageCount = document.getNumberOfPages();
+                    if (pageCount <= pagesPerChunk) {
+                        // Small documents are read in place rather than reopened by a chunk task
+                        return new DocumentPages(pdfFile, extractRange(document, 1, pageCount, token), null);
+                    }
+                }
+
+                PageChunkTask root = new PageChunkTask(pdfFile, 1, pageCount, token);
+                return new DocumentPages(pdfFile, root.invoke(), null);
+            } catch (JobCancelledException e) {
+                throw e;
+            } catch (Exception e) {
+                logger.error("Error extracting pages from PDF {}", pdfFile.getName(), e);
+                return new DocumentPages(pdfFile, Collections.emptyList(), e.getMessage());
+            }
+        }
+    }
+
+    private final class PageChunkTask extends RecursiveTask<List<String>> {
+        private final File pdfFile;
+        private final int startPage;
+        private final int endPage;
+        private final CancellationToken token;
+
+        private PageChunkTask(File pdfFile, int startPage, int endPage, CancellationToken token) {
+            this.pdfFile = pdfFile;
+            this.startPage = startPage;
+            this.endPage = endPage;
+            this.token = token;
+        }
+
+        @Override
+        protected List<String> compute() {
+            token.throwIfCancelled();
+            int pages = endPage - startPage + 1;
+            if (pages <= pagesPerChunk) {
+                // PDDocument is not thread-safe, so every leaf opens its own copy
+                try (PDDocument document = PDDocument.load(pdfFile)) {
+                    return extractRange(document, startPage, endPage, token);
+                } catch (IOException e) {
+                    throw new PageExtractionException(pdfFile, e);
+                }
+            }
+
+            int middle = startPage + pages / 2;
+            PageChunkTask left = new PageChunkTask(pdfFile, startPage, middle - 1, token);
+            PageChunkTask right = new PageChunkTask(pdfFile, middle, endPage, token);
+            right.fork();
+            List<String> result = new ArrayList<>(left.compute());
+            result.addAll(right.join());
+            return result;
+        }
+    }
+
+    private final class ScoreTask<T> extends RecursiveAction {
+        private final List<T> candidates;
+        private final ToDoubleFunction<T> scorer;
+        private final double[] scores;
+        private final int from;
+        private final int to;
+        private final CancellationToken token;
+
+        private ScoreTask(List<T> candidates, ToDoubleFunction<T> scorer, double[] scores,
+                          int from, int to, CancellationToken token) {
+            this.candidates = candidates;
+            this.scorer = scorer;
+            this.scores = scores;
+            this.from = from;
+            this.to = to;
+            this.token = token;
+        }
+
+        @Override
+        protected void compute() {
+            token.throwIfCancelled();
+            if (to - from <= candidatesPerBlock) {
+                for (int i = from; i < to; i++) {
+                    scores[i] = scorer.applyAsDouble(candidates.get(i));
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new ScoreTask<>(candidates, scorer, scores, from, middle, token),
+                    new ScoreTask<>(candidates, scorer, scores, middle, to, token));
+        }
+    }
+
+    private static List<String> extractRange(PDDocument document, int startPage, int endPage,
+                                             CancellationToken token) throws IOException {
+        List<String> pages = new ArrayList<>(endPage - startPage + 1);
+        PDFTextStripper stripper = new PDFTextStripper();
+        for (int page = startPage; page <= endPage; page++) {
+            token.throwIfCancelled();
+            stripper.setStartPage(page);
+            stripper.setEndPage(page);
+            pages.add(stripper.getText(document));
+        }
+        return pages;
+    }
+
+    private static final class PageExtractionException extends RuntimeException {
+        private PageExtractionException(File pdfFile, IOException cause) {
+            super("Failed to read " + pdfFile.getName() + ": " + cause.getMessage(), cause);
+        }
+    }
+}
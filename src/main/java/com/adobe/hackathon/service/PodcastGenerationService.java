@@ -8,8 +8,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import com.adobe.hackathon.model.dto.JobStatusResponse;
+import com.adobe.hackathon.repository.AnalysisJobRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,10 +31,27 @@ public class PodcastGenerationService {
     @Autowired
     private AdobeAnalysisService adobeAnalysisService;
 
+    @Autowired
+    private PromptContextBuilder contextBuilder;
+
+    @Autowired
+    private AnalysisJobRepository jobRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Value("${app.tts.enabled:false}")
     private boolean ttsEnabled;
 
+    @Value("${app.llm.context.podcast-tokens:1500}")
+    private int contextTokens = 1500;
+
     public AdobeAnalysisResponse.PodcastContent generatePodcast(String jobId, int durationSeconds) throws Exception {
+        return generatePodcast(jobId, durationSeconds, false);
+    }
+
+    private AdobeAnalysisResponse.PodcastContent generatePodcast(String jobId, int durationSeconds,
+                                                                 boolean background) throws Exception {
         logger.info("Generating podcast for job: {} with duration: {}s", jobId, durationSeconds);
 
         // Get the analysis data
@@ -38,11 +60,17 @@ public class PodcastGenerationService {
             throw new RuntimeException("Analysis must be completed before generating podcast");
         }
 
+        Optional<AdobeAnalysisResponse.PodcastContent> precomputed = loadPrecomputed(jobId, durationSeconds);
+        if (precomputed.isPresent()) {
+            logger.info("Serving precomputed podcast for job: {}", jobId);
+            return precomputed.get();
+        }
+
         AdobeAnalysisResponse.PodcastContent podcast = new AdobeAnalysisResponse.PodcastContent();
 
         try {
             // Generate podcast script
-            String script = generatePodcastScript(jobId, durationSeconds);
+            String script = generatePodcastScript(jobId, durationSeconds, background);
             podcast.setTranscript(script);
 
             // Extract key topics
@@ -54,7 +82,7 @@ public class PodcastGenerationService {
 
             // Generate audio if TTS is enabled
             if (ttsEnabled) {
-                String audioUrl = ttsService.generateAudio(script, jobId);
+                String audioUrl = ttsService.generateAudio(script, jobId, background);
                 podcast.setAudioUrl(audioUrl);
             } else {
                 podcast.setAudioUrl("/api/adobe/podcast/demo-audio/" + jobId);
@@ -71,14 +99,156 @@ public class PodcastGenerationService {
         return podcast;
     }
 
-    private String generatePodcastScript(String jobId, int durationSeconds) throws Exception {
-        // Get document outline and content
-        Map<String, Object> outline = adobeAnalysisService.getDocumentOutline(jobId);
+    /**
+     * Streams the script to onText while the LLM generates it. With TTS enabled, each
+     * completed paragraph block is synthesised right away and its URL passed to onAudio,
+     * so playback can start before the script is finished.
+     */
+    public AdobeAnalysisResponse.PodcastContent streamPodcast(String jobId, int durationSeconds,
+                                                             Consumer<String> onText,
+                                                             Consumer<String> onAudio) throws Exception {
+        logger.info("Streaming podcast for job: {} with duration: {}s", jobId, durationSeconds);
+
+        JobStatusResponse jobStatus = adobeAnalysisService.getJobStatus(jobId);
+        if (!"COMPLETED".equals(jobStatus.getStatus())) {
+            throw new RuntimeException("Analysis must be completed before generating podcast");
+        }
+
+        Optional<AdobeAnalysisResponse.PodcastContent> precomputed = loadPrecomputed(jobId, durationSeconds);
+        if (precomputed.isPresent()) {
+            logger.info("Serving precomputed podcast for job: {}", jobId);
+            onText.accept(precomputed.get().getTranscript());
+            if (ttsEnabled) {
+                onAudio.accept(precomputed.get().getAudioUrl());
+            }
+            return precomputed.get();
+        }
+
+        List<CompletableFuture<String>> audioSegments = new ArrayList<>();
+        StringBuilder pending = new StringBuilder();
+        StringBuilder streamed = new StringBuilder();
+
+        String script;
+        try {
+            script = llmService.streamResponse(podcastPrompt(jobId, durationSeconds), chunk -> {
+                streamed.append(chunk);
+                onText.accept(chunk);
+                if (ttsEnabled) {
+                    pending.append(chunk);
+                    int paragraphEnd = pending.lastIndexOf("\n\n");
+                    if (paragraphEnd >= 0) {
+                        startAudioSegment(jobId, pending.substring(0, paragraphEnd), audioSegments, onAudio);
+                        pending.delete(0, paragraphEnd + 2);
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // The client went away; stop generating
+            throw e;
+        } catch (Exception e) {
+            if (streamed.length() > 0) {
+                logger.warn("LLM stream for podcast script of job {} ended early, keeping partial script", jobId, e);
+                script = streamed.toString();
+            } else {
+                logger.warn("LLM call failed for podcast script, using fallback", e);
+                script = generateFallbackScript(jobId, durationSeconds);
+                onText.accept(script);
+                pending.append(script);
+            }
+        }
+
+        AdobeAnalysisResponse.PodcastContent podcast = new AdobeAnalysisResponse.PodcastContent();
+        podcast.setTranscript(script);
+        podcast.setKeyTopics(extractKeyTopics(script));
+        podcast.setDurationSeconds(durationSeconds);
+
+        if (ttsEnabled) {
+            startAudioSegment(jobId, pending.toString(), audioSegments, onAudio);
+            CompletableFuture.allOf(audioSegments.toArray(new CompletableFuture[0])).join();
+            // The segments were streamed one by one; the final payload carries them as one file
+            List<String> segmentUrls = audioSegments.stream()
+                    .map(CompletableFuture::join)
+                    .collect(Collectors.toList());
+            podcast.setAudioUrl(ttsService.joinAudio(segmentUrls, jobId)
+                    .orElse("/api/adobe/podcast/demo-audio/" + jobId));
+        } else {
+            podcast.setAudioUrl("/api/adobe/podcast/demo-audio/" + jobId);
+        }
+
+        return podcast;
+    }
+
+    /**
+     * Generates the podcast and stores it with the job, unless one of this duration is
+     * already stored or the script came from the fallback template.
+     */
+    public void precomputePodcast(String jobId, int durationSeconds) throws Exception {
+        if (loadPrecomputed(jobId, durationSeconds).isPresent()) {
+            return;
+        }
+
+        // Background budgets, so speculative work takes no permits from interactive requests
+        AdobeAnalysisResponse.PodcastContent podcast = generatePodcast(jobId, durationSeconds, true);
+        if (generateFallbackScript(jobId, durationSeconds).equals(podcast.getTranscript())) {
+            logger.info("Podcast script for job {} fell back to the template, not storing it", jobId);
+            return;
+        }
+
+        jobRepository.updatePrecomputedPodcast(jobId, objectMapper.writeValueAsString(podcast));
+        logger.info("Stored precomputed podcast for job: {}", jobId);
+    }
+
+    private Optional<AdobeAnalysisResponse.PodcastContent> loadPrecomputed(String jobId, int durationSeconds) {
+        Optional<String> stored = jobRepository.findPrecomputedPodcast(jobId);
+        if (stored.isEmpty()) {
+            return Optional.empty();
+        }
+
+        try {
+            AdobeAnalysisResponse.PodcastContent podcast =
+                    objectMapper.readValue(stored.get(), AdobeAnalysisResponse.PodcastContent.class);
+            return podcast.getDurationSeconds() == durationSeconds ? Optional.of(podcast) : Optional.empty();
+        } catch (Exception e) {
+            logger.warn("Failed to read precomputed podcast for job: {}", jobId, e);
+            return Optional.empty();
+        }
+    }
+
+    private void startAudioSegment(String jobId, String text, List<CompletableFuture<String>> audioSegments,
+                                   Consumer<String> onAudio) {
+        if (text.isBlank()) {
+            return;
+        }
+        String segmentId = jobId + "-" + audioSegments.size();
+        // Audio is recorded against the job itself, so retention removes it with the job
+        audioSegments.add(ttsService.generateAudioAsync(text.trim(), jobId)
+                .exceptionally(e -> {
+                    logger.warn("TTS failed for podcast segment {}", segmentId, e);
+                    return "/api/adobe/podcast/demo-audio/" + jobId;
+                })
+                .thenApply(audioUrl -> {
+                    onAudio.accept(audioUrl);
+                    return audioUrl;
+                }));
+    }
+
+    private String generatePodcastScript(String jobId, int durationSeconds, boolean background) throws Exception {
+        try {
+            return llmService.generateResponse(podcastPrompt(jobId, durationSeconds), background);
+        } catch (Exception e) {
+            logger.warn("LLM call failed for podcast script, using fallback", e);
+            return generateFallbackScript(jobId, durationSeconds);
+        }
+    }
+
+    private String podcastPrompt(String jobId, int durationSeconds) {
+        // Most relevant sections that fit the context budget, instead of the whole outline
+        String context = contextBuilder.build(adobeAnalysisService.getAllSections(jobId), contextTokens);
 
         // Estimate words needed (average speaking rate: 150 words per minute)
         int targetWords = (durationSeconds / 60) * 150;
 
-        String prompt = """
+        return """
             Create a podcast script based on the following document analysis.
             The script should be engaging, conversational, and approximately %d words.
             
@@ -94,14 +264,7 @@ public class PodcastGenerationService {
             %s
             
             Podcast Script:
-            """.formatted(targetWords, outline.toString());
-
-        try {
-            return llmService.generateResponse(prompt);
-        } catch (Exception e) {
-            logger.warn("LLM call failed for podcast script, using fallback", e);
-            return generateFallbackScript(jobId, durationSeconds);
-        }
+            """.formatted(targetWords, context);
     }
 
     private List<String> extractKeyTopics(String script) {
@@ -0,0 +1,162 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.dto.PDFSectionInfo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Packs document sections into LLM prompt context under a token budget: most relevant
+ * sections first, near-duplicates skipped, stopping when the next section would not fit.
+ */
+@Service
+public class PromptContextBuilder {
+
+    private static final int SHINGLE_SIZE = 3;
+
+    @Value("${app.llm.context.duplicate-threshold:0.8}")
+    private double duplicateThreshold = 0.8;
+
+    public String build(List<PDFSectionInfo> sections, int tokenBudget) {
+        List<PDFSectionInfo> ranked = new ArrayList<>(sections);
+        ranked.sort(Comparator.comparingDouble(PDFSectionInfo::getRelevanceScore).reversed());
+
+        StringBuilder context = new StringBuilder();
+        List<Set<String>> included = new ArrayList<>();
+        int usedTokens = 0;
+
+        for (PDFSectionInfo section : ranked) {
+            String entry = formatSection(section);
+            if (entry.isBlank()) {
+                continue;
+            }
+
+            Set<String> shingles = shingles(entry);
+            if (isNearDuplicate(shingles, included)) {
+                continue;
+            }
+
+            int tokens = estimateTokens(entry);
+            if (usedTokens + tokens > tokenBudget) {
+                // The best section alone is over budget: keep as much of it as fits rather than nothing
+                if (context.length() == 0) {
+                    context.append(truncateToTokens(entry, tokenBudget));
+                }
+                break;
+            }
+
+            context.append(entry);
+            included.add(shingles);
+            usedTokens += tokens;
+        }
+
+        return context.toString();
+    }
+
+    /**
+     * Cheap local token estimate. BPE tokenizers average roughly four characters per token
+     * on English prose, but short words and punctuation each tend to cost a token of their
+     * own, so the larger of the two counts is used.
+     */
+    public int estimateTokens(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+
+        int words = 0;
+        int punctuation = 0;
+        boolean inWord = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (!inWord) {
+                    words++;
+                    inWord = true;
+                }
+            } else {
+                inWord = false;
+                if (!Character.isWhitespace(c)) {
+                    punctuation++;
+                }
+            }
+        }
+
+        int byCharacters = (text.length() + 3) / 4;
+        int byWords = (int) Math.ceil(words * 1.3) + punctuation;
+        return Math.max(byCharacters, byWords);
+    }
+
+    private String formatSection(PDFSectionInfo section) {
+        StringBuilder entry = new StringBuilder();
+        if (section.getTitle() != null && !section.getTitle().isBlank()) {
+            entry.append(section.getTitle().trim());
+            if (section.getPageNumber() > 0) {
+                entry.append(" (page ").append(section.getPageNumber()).append(")");
+            }
+            entry.append(": ");
+        }
+        if (section.getContentPreview() != null) {
+            entry.append(section.getContentPreview().trim());
+        }
+        return entry.length() == 0 ? "" : entry.append("\n\n").toString();
+    }
+
+    private String truncateToTokens(String text, int tokenBudget) {
+        int end = Math.min(text.length(), tokenBudget * 4);
+        while (end > 0 && estimateTokens(text.substring(0, end)) > tokenBudget) {
+            end -= Math.max(1, (end - 1) / 10);
+        }
+        return text.substring(0, end);
+    }
+
+    private boolean isNearDuplicate(Set<String> shingles, List<Set<String>> included) {
+        for (Set<String> other : included) {
+            if (jaccard(shingles, other) >= duplicateThreshold) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double jaccard(Set<String> a, Set<String> b) {
+        if (a.isEmpty() && b.isEmpty()) {
+            return 1.0;
+        }
+        Set<String> smaller = a.size() <= b.size() ? a : b;
+        Set<String> larger = smaller == a ? b : a;
+        int intersection = 0;
+        for (String shingle : smaller) {
+            if (larger.contains(shingle)) {
+                intersection++;
+            }
+        }
+        return (double) intersection / (a.size() + b.size() - intersection);
+    }
+
+    // Word trigrams, which catch the same paragraph extracted twice with minor differences
+    private static Set<String> shingles(String text) {
+        String[] words = text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+");
+        List<String> tokens = new ArrayList<>();
+        for (String word : words) {
+            if (!word.isEmpty()) {
+                tokens.add(word);
+            }
+        }
+
+        Set<String> shingles = new HashSet<>();
+        if (tokens.size() < SHINGLE_SIZE) {
+            shingles.add(String.join(" ", tokens));
+            return shingles;
+        }
+        for (int i = 0; i <= tokens.size() - SHINGLE_SIZE; i++) {
+            shingles.add(String.join(" ", tokens.subList(i, i + SHINGLE_SIZE)));
+        }
+        return shingles;
+    }
+}
@@ -0,0 +1,122 @@
+package com.adobe.hackathon.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-provider circuit breaker. After a run of consecutive failures the circuit opens and
+ * callers use their fallback without touching the provider; once the open interval has
+ * passed a single trial call is let through, and its outcome closes or re-opens the circuit.
+ */
+@Service
+public class ProviderCircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProviderCircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    @Value("${app.llm.circuit-breaker.failure-threshold:5}")
+    private int failureThreshold = 5;
+
+    @Value("${app.llm.circuit-breaker.open-ms:30000}")
+    private long openMs = 30000;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+    /**
+     * Returns true if a call to the provider may proceed.
+     */
+    public boolean allowRequest(String provider) {
+        Circuit circuit = circuit(provider);
+        synchronized (circuit) {
+            switch (circuit.state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (System.currentTimeMillis() - circuit.openedAt < openMs) {
+                        return false;
+                    }
+                    circuit.state = State.HALF_OPEN;
+                    logger.info("Circuit for {} half-open, sending trial request", provider);
+                    return true;
+                default:
+                    // Only the trial request is in flight while half-open
+                    return false;
+            }
+        }
+    }
+
+    public void recordSuccess(String provider) {
+        Circuit circuit = circuit(provider);
+        synchronized (circuit) {
+            if (circuit.state != State.CLOSED) {
+                logger.info("Circuit for {} closed", provider);
+            }
+            circuit.state = State.CLOSED;
+            circuit.consecutiveFailures = 0;
+        }
+    }
+
+    public void recordFailure(String provider) {
+        Circuit circuit = circuit(provider);
+        synchronized (circuit) {
+            circuit.consecutiveFailures++;
+            if (circuit.state == State.HALF_OPEN || circuit.consecutiveFailures >= failureThreshold) {
+                if (circuit.state != State.OPEN) {
+                    logger.warn("Circuit for {} opened after {} consecutive failures",
+                            provider, circuit.consecutiveFailures);
+                }
+                circuit.state = State.OPEN;
+                circuit.openedAt = System.currentTimeMillis();
+            }
+        }
+    }
+
+    public State getState(String provider) {
+        Circuit circuit = circuit(provider);
+        synchronized (circuit) {
+            return circuit.state;
+        }
+    }
+
+    public Map<String, String> getStates() {
+        Map<String, String> states = new HashMap<>();
+        circuits.forEach((provider, circuit) -> {
+            synchronized (circuit) {
+                states.put(provider, circuit.state.name());
+            }
+        });
+        return states;
+    }
+
+    private Circuit circuit(String provider) {
+        return circuits.computeIfAbsent(provider, p -> {
+            Circuit circuit = new Circuit();
+            if (meterRegistry != null) {
+                // 0 = closed, 1 = open, 2 = half-open
+                Gauge.builder("llm.circuit.state", circuit, c -> c.state.ordinal())
+                        .tag("provider", p)
+                        .register(meterRegistry);
+            }
+            return circuit;
+        });
+    }
+
+    private static final class Circuit {
+        private volatile State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long openedAt;
+    }
+}
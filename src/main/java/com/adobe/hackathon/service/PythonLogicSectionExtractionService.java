@@ -6,12 +6,14 @@ import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 public class PythonLogicSectionExtractionService {
@@ -20,10 +22,21 @@ public class PythonLogicSectionExtractionService {
 
     private static final int DEFAULT_TOP_N = 5;
 
+    @Autowired
+    private PdfPageExtractionService pageExtractionService;
+
     public List<ExtractedSection> extractTopHeadings(String jobDirectory,
                                                      String persona,
                                                      String jobToBeDone,
                                                      int topN) {
+        return extractTopHeadings(jobDirectory, persona, jobToBeDone, topN, CancellationToken.NONE);
+    }
+
+    public List<ExtractedSection> extractTopHeadings(String jobDirectory,
+                                                     String persona,
+                                                     String jobToBeDone,
+                                                     int topN,
+                                                     CancellationToken token) {
         List<ExtractedSection> extractedSections = new ArrayList<>();
 
         File pdfsDir = new File(jobDirectory, "PDFs");
@@ -36,20 +49,29 @@ public class PythonLogicSectionExtractionService {
         List<File> pdfFiles = Optional.ofNullable(pdfsDir.listFiles((dir, name) -> name.toLowerCase().endsWith(".pdf")))
                 .map(Arrays::asList).orElseGet(ArrayList::new);
 
-        for (File pdfFile : pdfFiles) {
+        // Pages of all documents are extracted in parallel; ranking below stays per document and in file order
+        List<PdfPageExtractionService.DocumentPages> documents = pageExtractionService.extractPages(pdfFiles, token);
+        Map<String, Integer> queryVector = toTermFrequencyVector(queryText);
+
+        for (PdfPageExtractionService.DocumentPages document : documents) {
+            if (!document.isSuccess()) {
+                continue;
+            }
+            File pdfFile = document.getFile();
             try {
-                List<HeadingCandidate> candidates = extractHeadingsWithPageAndNextLine(pdfFile);
+                List<HeadingCandidate> candidates = findHeadingCandidates(document.getPages());
                 if (candidates.isEmpty()) {
                     continue;
                 }
 
-                Map<String, Double> similarityByHeading = scoreHeadingsByQuery(queryText, candidates);
+                double[] similarity = pageExtractionService.score(candidates,
+                        candidate -> cosineSimilarity(queryVector, toTermFrequencyVector(candidate.headingText)), token);
 
-                List<HeadingCandidate> ranked = candidates.stream()
-                        .sorted((a, b) -> Double.compare(
-                                similarityByHeading.getOrDefault(b.headingText, 0.0),
-                                similarityByHeading.getOrDefault(a.headingText, 0.0)))
+                // Stable sort on candidate index keeps ties in page order, as the sequential path did
+                List<HeadingCandidate> ranked = IntStream.range(0, candidates.size()).boxed()
+                        .sorted((a, b) -> Double.compare(similarity[b], similarity[a]))
                         .limit(Math.max(1, topN))
+                        .map(candidates::get)
                         .collect(Collectors.toList());
 
                 int rank = 1;
@@ -61,6 +83,8 @@ public class PythonLogicSectionExtractionService {
                     section.setPageNumber(candidate.pageNumber);
                     extractedSections.add(section);
                 }
+            } catch (JobCancelledException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error processing PDF {}", pdfFile.getName(), e);
             }
@@ -77,6 +101,12 @@ public class PythonLogicSectionExtractionService {
 
     public List<SubsectionAnalysis> extractSubsectionAnalysis(String jobDirectory,
                                                               List<ExtractedSection> topSections) {
+        return extractSubsectionAnalysis(jobDirectory, topSections, CancellationToken.NONE);
+    }
+
+    public List<SubsectionAnalysis> extractSubsectionAnalysis(String jobDirectory,
+                                                              List<ExtractedSection> topSections,
+                                                              CancellationToken token) {
         List<SubsectionAnalysis> analyses = new ArrayList<>();
 
         File pdfsDir = new File(jobDirectory, "PDFs");
@@ -88,6 +118,7 @@ public class PythonLogicSectionExtractionService {
         Map<String, Map<SectionKey, String>> cache = new HashMap<>();
 
         for (ExtractedSection section : topSections) {
+            token.throwIfCancelled();
             try {
                 File pdf = findPdfFile(pdfsDir, section.getDocument());
                 if (pdf == null) {
@@ -96,7 +127,7 @@ public class PythonLogicSectionExtractionService {
                 }
 
                 Map<SectionKey, String> nextLineByHeading = cache.computeIfAbsent(
-                        pdf.getAbsolutePath(), k -> buildNextLineLookup(pdf));
+                        pdf.getAbsolutePath(), k -> buildNextLineLookup(pdf, token));
 
                 SectionKey key = new SectionKey(section.getSectionTitle(), section.getPageNumber());
                 String refinedText = nextLineByHeading.getOrDefault(key, "");
@@ -106,6 +137,8 @@ public class PythonLogicSectionExtractionService {
                 analysis.setRefinedText(refinedText);
                 analysis.setPageNumber(section.getPageNumber());
                 analyses.add(analysis);
+            } catch (JobCancelledException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error extracting subsection for {}", section.getDocument(), e);
             }
@@ -120,26 +153,21 @@ public class PythonLogicSectionExtractionService {
         return "Persona: " + p + ". Job to be done: " + j;
     }
 
-    private List<HeadingCandidate> extractHeadingsWithPageAndNextLine(File pdfFile) throws IOException {
+    private List<HeadingCandidate> findHeadingCandidates(List<String> pageTexts) {
         List<HeadingCandidate> candidates = new ArrayList<>();
         Set<String> dedupe = new HashSet<>();
 
-        try (PDDocument document = PDDocument.load(pdfFile)) {
-            PDFTextStripper stripper = new PDFTextStripper();
-            for (int page = 1; page <= document.getNumberOfPages(); page++) {
-                stripper.setStartPage(page);
-                stripper.setEndPage(page);
-                String pageText = stripper.getText(document);
-                List<String> lines = Arrays.stream(pageText.split("\n")).map(String::trim).collect(Collectors.toList());
-
-                for (int i = 0; i < lines.size(); i++) {
-                    String line = lines.get(i);
-                    if (isPotentialHeading(line)) {
-                        String key = (line + "|" + page).toLowerCase(Locale.ROOT);
-                        if (dedupe.add(key)) {
-                            String nextLine = findFirstNonEmptyFollowingLine(lines, i + 1);
-                            candidates.add(new HeadingCandidate(line, page, nextLine));
-                        }
+        for (int page = 1; page <= pageTexts.size(); page++) {
+            String pageText = pageTexts.get(page - 1);
+            List<String> lines = Arrays.stream(pageText.split("\n")).map(String::trim).collect(Collectors.toList());
+
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i);
+                if (isPotentialHeading(line)) {
+                    String key = (line + "|" + page).toLowerCase(Locale.ROOT);
+                    if (dedupe.add(key)) {
+                        String nextLine = findFirstNonEmptyFollowingLine(lines, i + 1);
+                        candidates.add(new HeadingCandidate(line, page, nextLine));
                     }
                 }
             }
@@ -148,19 +176,6 @@ public class PythonLogicSectionExtractionService {
         return candidates;
     }
 
-    private Map<String, Double> scoreHeadingsByQuery(String query, List<HeadingCandidate> candidates) {
-        Map<String, Integer> queryVector = toTermFrequencyVector(query);
-        Map<String, Double> scores = new HashMap<>();
-
-        for (HeadingCandidate candidate : candidates) {
-            Map<String, Integer> headingVector = toTermFrequencyVector(candidate.headingText);
-            double sim = cosineSimilarity(queryVector, headingVector);
-            scores.put(candidate.headingText, sim);
-        }
-
-        return scores;
-    }
-
     private Map<String, Integer> toTermFrequencyVector(String text) {
         Map<String, Integer> tf = new HashMap<>();
         if (text == null || text.isBlank()) return tf;
@@ -246,11 +261,12 @@ public class PythonLogicSectionExtractionService {
         return files[0];
     }
 
-    private Map<SectionKey, String> buildNextLineLookup(File pdfFile) {
+    private Map<SectionKey, String> buildNextLineLookup(File pdfFile, CancellationToken token) {
         Map<SectionKey, String> map = new HashMap<>();
         try (PDDocument document = PDDocument.load(pdfFile)) {
             PDFTextStripper stripper = new PDFTextStripper();
             for (int page = 1; page <= document.getNumberOfPages(); page++) {
+                token.throwIfCancelled();
                 stripper.setStartPage(page);
                 stripper.setEndPage(page);
                 String pageText = stripper.getText(document);
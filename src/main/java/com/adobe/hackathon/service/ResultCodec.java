@@ -0,0 +1,67 @@
+package com.adobe.hackathon.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Encoding applied to stored job results. The codec name is stored with each result, so
+ * changing the configured codec only affects results written afterwards.
+ */
+public enum ResultCodec {
+
+    IDENTITY {
+        @Override
+        public byte[] encode(byte[] data) {
+            return data;
+        }
+
+        @Override
+        public byte[] decode(byte[] data) {
+            return data;
+        }
+    },
+
+    // Result JSON is repetitive (field names, section metadata) and typically shrinks 5-10x
+    DEFLATE {
+        @Override
+        public byte[] encode(byte[] data) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+            try (DeflaterOutputStream deflate = new DeflaterOutputStream(out, deflater)) {
+                deflate.write(data);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                deflater.end();
+            }
+            return out.toByteArray();
+        }
+
+        @Override
+        public byte[] decode(byte[] data) {
+            try (InflaterInputStream inflate = new InflaterInputStream(new ByteArrayInputStream(data))) {
+                return inflate.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    };
+
+    public abstract byte[] encode(byte[] data);
+
+    public abstract byte[] decode(byte[] data);
+
+    public static ResultCodec forName(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown result codec: " + name);
+        }
+    }
+}
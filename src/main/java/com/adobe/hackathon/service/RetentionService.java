@@ -0,0 +1,232 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.repository.AnalysisJobRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Removes finished jobs once they pass the TTL for their status: row, upload directory
+ * (including checkpoints), stored result and podcast audio no other job uses, in batches.
+ * Also compresses old results still stored uncompressed, expires unreferenced audio and
+ * checkpoints the H2 store.
+ * PENDING and PROCESSING jobs are never touched.
+ */
+@Service
+public class RetentionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetentionService.class);
+
+    @Autowired
+    private AnalysisJobRepository jobRepository;
+
+    @Autowired
+    private JobResultStore resultStore;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private TextToSpeechService ttsService;
+
+    @Autowired
+    private JobMetrics jobMetrics;
+
+    @Autowired
+    private JobArtifactCache artifactCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.retention.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.retention.completed-days:30}")
+    private int completedDays = 30;
+
+    @Value("${app.retention.failed-days:7}")
+    private int failedDays = 7;
+
+    @Value("${app.retention.cancelled-days:1}")
+    private int cancelledDays = 1;
+
+    @Value("${app.retention.audio-days:30}")
+    private int audioDays = 30;
+
+    @Value("${app.retention.compress-results-after-days:1}")
+    private int compressResultsAfterDays = 1;
+
+    @Value("${app.retention.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${app.retention.max-batches-per-run:20}")
+    private int maxBatchesPerRun = 20;
+
+    private final AtomicLong jobsDeleted = new AtomicLong();
+    private final AtomicLong reclaimedBytes = new AtomicLong();
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    @Scheduled(fixedDelayString = "${app.retention.interval-ms:3600000}",
+            initialDelayString = "${app.retention.initial-delay-ms:300000}")
+    public void runRetention() {
+        if (!enabled) {
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        Map<String, Object> run = new LinkedHashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        long deleted = 0;
+        long fileBytes = 0;
+        long resultBytes = 0;
+        long audioBytes = 0;
+        Map<String, Integer> ttlDays = Map.of("COMPLETED", completedDays, "FAILED", failedDays,
+                "CANCELLED", cancelledDays);
+        for (Map.Entry<String, Integer> ttl : ttlDays.entrySet()) {
+            if (ttl.getValue() <= 0) {
+                continue;
+            }
+            LocalDateTime before = now.minusDays(ttl.getValue());
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                List<AnalysisJobRepository.ExpiredJob> expired =
+                        jobRepository.findExpired(ttl.getKey(), before, PageRequest.of(0, batchSize));
+                long deletedBefore = deleted;
+                for (AnalysisJobRepository.ExpiredJob job : expired) {
+                    try {
+                        // The row is claimed first; a job requeued since it was read keeps its files
+                        if (jobRepository.deleteByJobIdAndStatus(job.getJobId(), ttl.getKey()) != 1) {
+                            continue;
+                        }
+                        fileBytes += deleteFiles(job.getFilePaths());
+                        resultBytes += resultStore.delete(job.getJobId());
+                        audioBytes += ttsService.deleteAudioForJob(job.getJobId());
+                        artifactCache.invalidate(job.getJobId());
+                        jobMetrics.recordTransition(ttl.getKey(), "DELETED");
+                        deleted++;
+                    } catch (Exception e) {
+                        logger.warn("Failed to delete expired job: {}", job.getJobId(), e);
+                    }
+                }
+                // A batch that deleted nothing would only be read again
+                if (expired.size() < batchSize || deleted == deletedBefore) {
+                    break;
+                }
+            }
+        }
+
+        long compressedBytes = compressResultsAfterDays <= 0 ? 0
+                : resultStore.compressOldResults(now.minusDays(compressResultsAfterDays), batchSize * maxBatchesPerRun);
+        if (audioDays > 0) {
+            audioBytes += ttsService.deleteUnreferencedAudioOlderThan(
+                    System.currentTimeMillis() - Duration.ofDays(audioDays).toMillis());
+        }
+
+        run.put("jobsDeleted", deleted);
+        run.put("uploadBytes", fileBytes);
+        run.put("resultBytes", resultBytes);
+        run.put("compressedResultBytes", compressedBytes);
+        run.put("audioBytes", audioBytes);
+        run.putAll(checkpointDatabase(deleted > 0 || compressedBytes > 0));
+        run.put("durationMs", System.currentTimeMillis() - started);
+        run.put("finishedAt", LocalDateTime.now());
+
+        long reclaimed = fileBytes + resultBytes + compressedBytes + audioBytes;
+        jobsDeleted.addAndGet(deleted);
+        reclaimedBytes.addAndGet(reclaimed);
+        if (meterRegistry != null) {
+            Counter.builder("retention.reclaimed.bytes").register(meterRegistry).increment(reclaimed);
+            Counter.builder("retention.jobs.deleted").register(meterRegistry).increment(deleted);
+        }
+        lastRun = run;
+
+        if (deleted > 0 || reclaimed > 0) {
+            logger.info("Retention removed {} jobs and reclaimed {} bytes", deleted, reclaimed);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("jobsDeleted", jobsDeleted.get());
+        stats.put("reclaimedBytes", reclaimedBytes.get());
+        stats.put("lastRun", lastRun);
+        return stats;
+    }
+
+    private long deleteFiles(String jobDirectory) {
+        if (jobDirectory == null) {
+            return 0;
+        }
+        long size = directorySize(Paths.get(jobDirectory));
+        fileStorageService.deleteJobFiles(jobDirectory);
+        return size;
+    }
+
+    /**
+     * Writes pending changes so the MVStore can reuse the pages freed by deletions. H2 only
+     * shrinks the file itself when it is closed, where it compacts for MAX_COMPACT_TIME.
+     */
+    private Map<String, Object> checkpointDatabase(boolean changed) {
+        Map<String, Object> database = new LinkedHashMap<>();
+        try {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            if (!"H2".equals(product)) {
+                return database;
+            }
+            String path = jdbcTemplate.queryForObject("CALL DATABASE_PATH()", String.class);
+            Path file = path == null ? null : Paths.get(path + ".mv.db");
+            if (changed) {
+                jdbcTemplate.execute("CHECKPOINT SYNC");
+            }
+            if (file != null && Files.exists(file)) {
+                database.put("databaseBytes", Files.size(file));
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to checkpoint database", e);
+        }
+        return database;
+    }
+
+    private static long directorySize(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(Files::isRegularFile).mapToLong(path -> {
+                try {
+                    return Files.size(path);
+                } catch (IOException e) {
+                    return 0;
+                }
+            }).sum();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.dto.PDFSectionInfo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Columnar view of one job's sections: ids, pages, scores and document index as parallel
+ * primitive arrays. Rows are kept in score order as well, so filtered lookups come out ranked
+ * without a per-request sort. Text is matched in place rather than through lowercase copies,
+ * so the columns add little beyond the sections the cache already weighs.
+ * Queries return row numbers; sections are only projected back to objects for the response.
+ * Built once per cached analysis and never modified afterwards.
+ */
+public final class SectionColumns {
+
+    private final PDFSectionInfo[] rows;
+    private final int[] ids;
+    private final int[] pageNumbers;
+    private final double[] scores;
+    private final int[] documentIndex;
+    // Position in the job's highlighted sections, or -1 for sections that are not highlighted
+    private final int[] highlightRank;
+    private final int[] byScore;
+    private final int[] highlightedByScore;
+
+    private SectionColumns(List<PDFSectionInfo> sections, List<Integer> documents, List<Integer> ranks) {
+        int size = sections.size();
+        rows = sections.toArray(new PDFSectionInfo[0]);
+        ids = new int[size];
+        pageNumbers = new int[size];
+        scores = new double[size];
+        documentIndex = new int[size];
+        highlightRank = new int[size];
+
+        for (int row = 0; row < size; row++) {
+            PDFSectionInfo section = rows[row];
+            ids[row] = section.getId();
+            pageNumbers[row] = section.getPageNumber();
+            scores[row] = section.getRelevanceScore();
+            documentIndex[row] = documents.get(row);
+            highlightRank[row] = ranks.get(row);
+        }
+
+        // Stable, so equal scores keep document order as the stream-based search did
+        byScore = IntStream.range(0, size).boxed()
+                .sorted(Comparator.comparingDouble((Integer row) -> scores[row]).reversed())
+                .mapToInt(Integer::intValue)
+                .toArray();
+        // Highlighted sections with equal scores keep their order in the highlighted list
+        highlightedByScore = IntStream.range(0, size).boxed()
+                .filter(row -> highlightRank[row] >= 0)
+                .sorted(Comparator.comparingDouble((Integer row) -> scores[row]).reversed()
+                        .thenComparingInt(row -> highlightRank[row]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Builds the columns from the per-file sections of a document analysis. Highlighted
+     * sections are matched to their rows by content, since after a reload they are separate
+     * copies; any without a match are added as rows of their own.
+     */
+    public static SectionColumns of(Map<String, Object> documentAnalysis, List<PDFSectionInfo> highlighted) {
+        List<PDFSectionInfo> sections = new ArrayList<>();
+        List<Integer> documents = new ArrayList<>();
+        List<Integer> ranks = new ArrayList<>();
+
+        Object files = documentAnalysis == null ? null : documentAnalysis.get("files");
+        if (files instanceof List) {
+            List<?> fileList = (List<?>) files;
+            for (int document = 0; document < fileList.size(); document++) {
+                if (!(fileList.get(document) instanceof Map)) {
+                    continue;
+                }
+                Object fileSections = ((Map<?, ?>) fileList.get(document)).get("sections");
+                if (fileSections instanceof List) {
+                    for (Object section : (List<?>) fileSections) {
+                        if (section instanceof PDFSectionInfo) {
+                            sections.add((PDFSectionInfo) section);
+                            documents.add(document);
+                            ranks.add(-1);
+                        }
+                    }
+                }
+            }
+        }
+
+        if (highlighted != null) {
+            for (int rank = 0; rank < highlighted.size(); rank++) {
+                PDFSectionInfo section = highlighted.get(rank);
+                int row = findUnranked(sections, ranks, section);
+                if (row >= 0) {
+                    ranks.set(row, rank);
+                } else {
+                    sections.add(section);
+                    documents.add(-1);
+                    ranks.add(rank);
+                }
+            }
+        }
+        return new SectionColumns(sections, documents, ranks);
+    }
+
+    public int size() {
+        return rows.length;
+    }
+
+    public PDFSectionInfo section(int row) {
+        return rows[row];
+    }
+
+    public List<PDFSectionInfo> sections(int[] selected) {
+        PDFSectionInfo[] projected = new PDFSectionInfo[selected.length];
+        for (int i = 0; i < selected.length; i++) {
+            projected[i] = rows[selected[i]];
+        }
+        return Arrays.asList(projected);
+    }
+
+    /**
+     * Highlighted rows scoring above the threshold, best first.
+     */
+    public int[] highlightedAbove(double minScore) {
+        int count = 0;
+        while (count < highlightedByScore.length && scores[highlightedByScore[count]] > minScore) {
+            count++;
+        }
+        return Arrays.copyOf(highlightedByScore, count);
+    }
+
+    /**
+     * Row of the highlighted section with the given id, or -1. Ids restart in every document,
+     * so when several match, the one ranked first in the highlighted list wins.
+     */
+    public int findHighlighted(int sectionId) {
+        int found = -1;
+        for (int row = 0; row < rows.length; row++) {
+            if (ids[row] == sectionId && highlightRank[row] >= 0
+                    && (found < 0 || highlightRank[row] < highlightRank[found])) {
+                found = row;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Rows whose title, preview or keywords contain the query, ignoring case, best first.
+     */
+    public int[] search(String query, int maxResults) {
+        int[] selected = new int[Math.max(0, Math.min(maxResults, rows.length))];
+        int count = 0;
+        for (int i = 0; i < byScore.length && count < selected.length; i++) {
+            int row = byScore[i];
+            PDFSectionInfo section = rows[row];
+            if (containsIgnoreCase(section.getTitle(), query)
+                    || containsIgnoreCase(section.getContentPreview(), query)
+                    || anyContainsIgnoreCase(section.getKeywords(), query)) {
+                selected[count++] = row;
+            }
+        }
+        return Arrays.copyOf(selected, count);
+    }
+
+    /**
+     * Rows on one page of one document, in document order.
+     */
+    public int[] onPage(int document, int pageNumber) {
+        int[] selected = new int[rows.length];
+        int count = 0;
+        for (int row = 0; row < rows.length; row++) {
+            if (documentIndex[row] == document && pageNumbers[row] == pageNumber) {
+                selected[count++] = row;
+            }
+        }
+        return Arrays.copyOf(selected, count);
+    }
+
+    public double averageScore(int[] selected) {
+        if (selected.length == 0) {
+            return 0.0;
+        }
+        double total = 0;
+        for (int row : selected) {
+            total += scores[row];
+        }
+        return total / selected.length;
+    }
+
+    private static boolean containsIgnoreCase(String text, String query) {
+        if (text == null) {
+            return false;
+        }
+        for (int start = 0; start <= text.length() - query.length(); start++) {
+            if (text.regionMatches(true, start, query, 0, query.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean anyContainsIgnoreCase(List<String> values, String query) {
+        if (values != null) {
+            for (String value : values) {
+                if (containsIgnoreCase(value, query)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static int findUnranked(List<PDFSectionInfo> sections, List<Integer> ranks, PDFSectionInfo target) {
+        for (int row = 0; row < sections.size(); row++) {
+            PDFSectionInfo section = sections.get(row);
+            if (ranks.get(row) < 0 && (section == target
+                    || (section.getId() == target.getId()
+                    && section.getPageNumber() == target.getPageNumber()
+                    && section.getRelevanceScore() == target.getRelevanceScore()
+                    && Objects.equals(section.getTitle(), target.getTitle())))) {
+                return row;
+            }
+        }
+        return -1;
+    }
+}
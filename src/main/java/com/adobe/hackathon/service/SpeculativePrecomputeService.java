@@ -0,0 +1,66 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.dto.AdobeAnalysisRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+/**
+ * Generates insights and the podcast script in the background when a completed job asked
+ * for them, so the interactive endpoints can usually answer from the stored result.
+ */
+@Service
+public class SpeculativePrecomputeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpeculativePrecomputeService.class);
+
+    @Autowired
+    private InsightsBulbService insightsBulbService;
+
+    @Autowired
+    private PodcastGenerationService podcastService;
+
+    @Autowired
+    private LLMIntegrationService llmService;
+
+    @Value("${app.precompute.enabled:true}")
+    private boolean enabled;
+
+    // Matches the default duration of the podcast endpoints
+    @Value("${app.precompute.podcast-duration-seconds:120}")
+    private int podcastDurationSeconds = 120;
+
+    @Async("precomputeExecutor")
+    @EventListener
+    public void onAnalysisCompleted(AdobeAnalysisCompletedEvent event) {
+        AdobeAnalysisRequest request = event.getRequest();
+        if (!enabled || request == null || !(request.isGenerateInsights() || request.isEnablePodcastMode())) {
+            return;
+        }
+        // Fallback content is cheap to produce on demand and should not be stored as the answer
+        if (!llmService.isAvailable()) {
+            logger.debug("LLM unavailable, skipping precompute for job: {}", event.getJobId());
+            return;
+        }
+
+        String jobId = event.getJobId();
+        if (request.isGenerateInsights()) {
+            try {
+                insightsBulbService.precomputeInsights(jobId);
+            } catch (Exception e) {
+                logger.warn("Speculative insights generation failed for job: {}", jobId, e);
+            }
+        }
+        if (request.isEnablePodcastMode()) {
+            try {
+                podcastService.precomputePodcast(jobId, podcastDurationSeconds);
+            } catch (Exception e) {
+                logger.warn("Speculative podcast generation failed for job: {}", jobId, e);
+            }
+        }
+    }
+}
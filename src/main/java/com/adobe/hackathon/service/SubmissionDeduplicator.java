@@ -0,0 +1,214 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.entity.AnalysisJob;
+import com.adobe.hackathon.repository.AnalysisJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-flight deduplication of analysis submissions. Identical uploads (same file
+ * contents, persona, job text and analysis type with its options) arriving within the
+ * dedup window attach to the job that is already running or recently completed.
+ */
+@Service
+public class SubmissionDeduplicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubmissionDeduplicator.class);
+
+    private static final List<String> REUSABLE_STATUSES = Arrays.asList("PENDING", "PROCESSING", "COMPLETED");
+
+    @Autowired
+    private AnalysisJobRepository jobRepository;
+
+    @Value("${app.analysis.dedup-window-ms:300000}")
+    private long dedupWindowMs;
+
+    @Value("${app.analysis.dedup-attach-timeout-ms:10000}")
+    private long attachTimeoutMs = 10000;
+
+    private final Map<String, Reservation> reservations = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return dedupWindowMs > 0;
+    }
+
+    /**
+     * Returns null when deduplication is disabled, which the other methods treat as a no-op.
+     */
+    public String fingerprint(MultipartFile[] files, String persona, String jobToBeDone,
+                              String analysisType) throws IOException {
+        if (!isEnabled()) {
+            return null;
+        }
+
+        // File digests are sorted so the upload order does not change the fingerprint
+        List<String> fileDigests = new ArrayList<>();
+        for (MultipartFile file : files) {
+            MessageDigest digest = sha256();
+            try (InputStream in = file.getInputStream()) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+            fileDigests.add(HexFormat.of().formatHex(digest.digest()));
+        }
+        Collections.sort(fileDigests);
+
+        MessageDigest digest = sha256();
+        digest.update(String.valueOf(analysisType).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(String.valueOf(persona).trim().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(String.valueOf(jobToBeDone).trim().getBytes(StandardCharsets.UTF_8));
+        for (String fileDigest : fileDigests) {
+            digest.update((byte) 0);
+            digest.update(fileDigest.getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Claims a fingerprint for a new job. Returns empty when the caller owns the submission
+     * and must create the job, or the id of the existing job the caller should attach to.
+     */
+    public Optional<String> reserve(String fingerprint, String jobId) {
+        if (fingerprint == null) {
+            return Optional.empty();
+        }
+
+        while (true) {
+            Reservation existing = reservations.get(fingerprint);
+            if (existing != null && isReusable(existing)) {
+                logger.info("Duplicate submission attached to job: {}", existing.jobId);
+                return Optional.of(awaitCreated(existing));
+            }
+
+            Reservation reservation = new Reservation(jobId, System.currentTimeMillis());
+            boolean claimed = existing == null
+                    ? reservations.putIfAbsent(fingerprint, reservation) == null
+                    : reservations.replace(fingerprint, existing, reservation);
+            if (!claimed) {
+                continue;
+            }
+
+            // Nothing in memory; the database covers restarts and other nodes
+            Optional<AnalysisJob> recent = jobRepository
+                    .findFirstByFingerprintAndStatusInAndCreatedAtAfterOrderByCreatedAtDesc(
+                            fingerprint, REUSABLE_STATUSES, LocalDateTime.now().minusNanos(dedupWindowMs * 1_000_000));
+            if (recent.isPresent()) {
+                // The window runs from the stored job's creation, not from this duplicate
+                Reservation attached = new Reservation(recent.get().getJobId(),
+                        recent.get().getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+                attached.created.complete(attached.jobId);
+                reservations.replace(fingerprint, reservation, attached);
+                logger.info("Duplicate submission attached to stored job: {}", recent.get().getJobId());
+                return Optional.of(recent.get().getJobId());
+            }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Called once the owning job row is saved, releasing callers waiting to attach.
+     */
+    public void markCreated(String fingerprint, String jobId) {
+        if (fingerprint == null) {
+            return;
+        }
+        Reservation reservation = reservations.get(fingerprint);
+        if (reservation != null && reservation.jobId.equals(jobId)) {
+            reservation.created.complete(jobId);
+        }
+    }
+
+    /**
+     * Drops a reservation whose job could not be created so the next identical submission starts fresh.
+     */
+    public void release(String fingerprint, String jobId) {
+        if (fingerprint == null) {
+            return;
+        }
+        Reservation reservation = reservations.get(fingerprint);
+        if (reservation != null && reservation.jobId.equals(jobId)) {
+            reservations.remove(fingerprint, reservation);
+            reservation.created.completeExceptionally(new IllegalStateException("Submission failed"));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.analysis.dedup-evict-interval-ms:60000}")
+    public void evictExpired() {
+        reservations.entrySet().removeIf(entry -> entry.getValue().isExpired());
+    }
+
+    private boolean isReusable(Reservation reservation) {
+        if (reservation.isExpired() || reservation.created.isCompletedExceptionally()) {
+            return false;
+        }
+        if (!reservation.created.isDone()) {
+            return true;
+        }
+        // A failed or cancelled job is not worth attaching to
+        return jobRepository.findByJobId(reservation.jobId)
+                .map(job -> REUSABLE_STATUSES.contains(job.getStatus()))
+                .orElse(false);
+    }
+
+    private String awaitCreated(Reservation reservation) {
+        try {
+            return reservation.created.get(attachTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for job: " + reservation.jobId);
+        } catch (Exception e) {
+            throw new RuntimeException("Duplicate submission could not attach to job: " + reservation.jobId);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private final class Reservation {
+        private final String jobId;
+        private final long createdAtMillis;
+        private final CompletableFuture<String> created = new CompletableFuture<>();
+
+        private Reservation(String jobId, long createdAtMillis) {
+            this.jobId = jobId;
+            this.createdAtMillis = createdAtMillis;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() - createdAtMillis > dedupWindowMs;
+        }
+    }
+}
@@ -2,19 +2,53 @@ package com.adobe.hackathon.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.http.*;
+import org.springframework.web.util.HtmlUtils;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 @Service
 public class TextToSpeechService {
 
     private static final Logger logger = LoggerFactory.getLogger(TextToSpeechService.class);
 
+    private static final String AUDIO_URL_PREFIX = "/api/adobe/podcast/audio/";
+    private static final String VOICE = "en-US-JennyNeural";
+    private static final String OUTPUT_FORMAT = "audio-24khz-48kbitrate-mono-mp3";
+    private static final Pattern AUDIO_ID = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern JOB_ID = Pattern.compile("[A-Za-z0-9_-]+");
+
     @Value("${tts.provider:azure}")
     private String ttsProvider;
 
@@ -24,61 +58,410 @@ public class TextToSpeechService {
     @Value("${tts.endpoint:#{environment.AZURE_TTS_ENDPOINT}}")
     private String endpoint;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    @Qualifier("ioExecutor")
+    private ExecutorService ioExecutor;
 
-    public String generateAudio(String text, String jobId) throws Exception {
+    @Autowired
+    private OutboundCallLimiter callLimiter;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    // Audio files are named by a hash of the script, so identical scripts are synthesised once
+    @Value("${app.tts.audio-dir:./data/audio}")
+    private String audioDir = "./data/audio";
+
+    @Value("${app.tts.chunk-chars:1500}")
+    private int chunkChars = 1500;
+
+    private final Map<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    // Composed from the chunk futures without waiting on an ioExecutor thread, so nested
+    // synthesis cannot exhaust the pool and deadlock
+    public CompletableFuture<String> generateAudioAsync(String text, String jobId) {
+        return generateAudioAsync(text, jobId, false);
+    }
+
+    /**
+     * Background synthesis runs its chunks one at a time on the calling thread, with the
+     * "azure-tts-background" limiter budget, so it uses no ioExecutor threads or interactive permits.
+     */
+    public CompletableFuture<String> generateAudioAsync(String text, String jobId, boolean background) {
         if (apiKey == null || apiKey.isEmpty()) {
             logger.warn("No TTS API key configured, returning demo audio URL");
-            return "/api/adobe/podcast/demo-audio/" + jobId;
+            return CompletableFuture.completedFuture("/api/adobe/podcast/demo-audio/" + jobId);
         }
 
         switch (ttsProvider.toLowerCase()) {
             case "azure":
-                return generateAzureTTS(text, jobId);
+                return generateAzureTTS(text, jobId, background);
             case "google":
-                return generateGoogleTTS(text, jobId);
+                return CompletableFuture.completedFuture(generateGoogleTTS(text, jobId));
             default:
                 logger.warn("Unknown TTS provider: {}, returning demo URL", ttsProvider);
-                return "/api/adobe/podcast/demo-audio/" + jobId;
+                return CompletableFuture.completedFuture("/api/adobe/podcast/demo-audio/" + jobId);
         }
     }
 
-    private String generateAzureTTS(String text, String jobId) throws Exception {
-        String url = endpoint + "/cognitiveservices/v1";
+    public String generateAudio(String text, String jobId) throws Exception {
+        return generateAudio(text, jobId, false);
+    }
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.valueOf("application/ssml+xml"));
-        headers.set("Ocp-Apim-Subscription-Key", apiKey);
-        headers.set("X-Microsoft-OutputFormat", "audio-24khz-48kbitrate-mono-mp3");
-        headers.set("User-Agent", "Adobe-Hackathon-TTS");
+    public String generateAudio(String text, String jobId, boolean background) throws Exception {
+        return generateAudioAsync(text, jobId, background).join();
+    }
+
+    private CompletableFuture<String> generateAzureTTS(String text, String jobId, boolean background) {
+        String audioId = audioId(text);
+        String audioUrl = AUDIO_URL_PREFIX + audioId + ".mp3";
+        // Recorded first, so retention of another job cannot delete the file once it exists
+        addReference(jobId, audioId);
+        if (Files.exists(audioFile(audioId))) {
+            return CompletableFuture.completedFuture(audioUrl);
+        }
+
+        // Concurrent requests for the same script share one synthesis. A placeholder claims the
+        // id, and synthesis starts outside the map: background synthesis runs on this thread
+        // and would otherwise hold the map's bin lock for its whole duration
+        CompletableFuture<Path> placeholder = new CompletableFuture<>();
+        CompletableFuture<Path> running = inFlight.putIfAbsent(audioId, placeholder);
+        CompletableFuture<Path> synthesis = running != null ? running : placeholder;
+        if (running == null) {
+            placeholder.whenComplete((path, e) -> inFlight.remove(audioId, placeholder));
+            try {
+                synthesizeAzure(audioId, text, background).whenComplete((path, e) -> {
+                    if (e != null) {
+                        placeholder.completeExceptionally(e);
+                    } else {
+                        placeholder.complete(path);
+                    }
+                });
+            } catch (RuntimeException e) {
+                placeholder.completeExceptionally(e);
+            }
+        }
+
+        return synthesis.thenApply(path -> audioUrl).exceptionally(e -> {
+            logger.error("Error calling Azure TTS for job: {}", jobId, e);
+            return "/api/adobe/podcast/demo-audio/" + jobId;
+        });
+    }
+
+    /**
+     * Returns the stored audio file for an id produced by generateAudio, if it exists.
+     */
+    public Optional<Path> findAudio(String audioId) {
+        if (audioId == null || !AUDIO_ID.matcher(audioId).matches()) {
+            return Optional.empty();
+        }
+        Path file = audioFile(audioId);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    /**
+     * Concatenates stored audio, in order, into one file recorded against the job and returns
+     * its URL. Empty when any of the URLs is not stored audio, such as a demo URL left by a
+     * failed synthesis.
+     */
+    public Optional<String> joinAudio(List<String> audioUrls, String jobId) {
+        if (audioUrls.isEmpty()) {
+            return Optional.empty();
+        }
+        List<Path> files = new ArrayList<>();
+        for (String audioUrl : audioUrls) {
+            if (audioUrl == null || !audioUrl.startsWith(AUDIO_URL_PREFIX) || !audioUrl.endsWith(".mp3")) {
+                return Optional.empty();
+            }
+            String audioId = audioUrl.substring(AUDIO_URL_PREFIX.length(), audioUrl.length() - ".mp3".length());
+            Optional<Path> file = findAudio(audioId);
+            if (file.isEmpty()) {
+                return Optional.empty();
+            }
+            files.add(file.get());
+        }
+        if (files.size() == 1) {
+            return Optional.of(audioUrls.get(0));
+        }
+
+        String audioId = audioId("joined|" + String.join("|", audioUrls));
+        addReference(jobId, audioId);
+        Path target = audioFile(audioId);
+        if (!Files.exists(target)) {
+            try {
+                Path tempFile = Files.createTempFile(target.getParent(), audioId, ".mp3.tmp");
+                try (OutputStream out = Files.newOutputStream(tempFile)) {
+                    for (Path file : files) {
+                        Files.copy(file, out);
+                    }
+                }
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                logger.warn("Failed to join {} audio segments for job: {}", files.size(), jobId, e);
+                return Optional.empty();
+            }
+        }
+        return Optional.of(AUDIO_URL_PREFIX + audioId + ".mp3");
+    }
+
+    /**
+     * Drops the job's references to its audio and deletes each file no other job still uses.
+     * Returns the bytes reclaimed.
+     */
+    public long deleteAudioForJob(String jobId) {
+        if (jobId == null || !JOB_ID.matcher(jobId).matches()) {
+            return 0;
+        }
+        Path jobRefs = refsDir().resolve(jobId);
+        if (!Files.isDirectory(jobRefs)) {
+            return 0;
+        }
+
+        List<String> audioIds = new ArrayList<>();
+        try (Stream<Path> refs = Files.list(jobRefs)) {
+            for (Path ref : (Iterable<Path>) refs::iterator) {
+                audioIds.add(ref.getFileName().toString());
+                Files.deleteIfExists(ref);
+            }
+            Files.deleteIfExists(jobRefs);
+        } catch (IOException e) {
+            logger.warn("Failed to remove audio references for job: {}", jobId, e);
+            return 0;
+        }
+
+        Set<String> referenced = referencedAudioIds();
+        long reclaimed = 0;
+        for (String audioId : audioIds) {
+            if (!referenced.contains(audioId) && !inFlight.containsKey(audioId)) {
+                reclaimed += deleteAudioFile(audioFile(audioId));
+            }
+        }
+        return reclaimed;
+    }
+
+    /**
+     * Deletes audio no job references that was last written before the cutoff, such as files
+     * stored before references were kept. Returns the bytes reclaimed.
+     */
+    public long deleteUnreferencedAudioOlderThan(long cutoffMillis) {
+        Path root = Paths.get(audioDir);
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+
+        Set<String> referenced = referencedAudioIds();
+        long reclaimed = 0;
+        try (Stream<Path> files = Files.list(root)) {
+            for (Path file : (Iterable<Path>) files.filter(path -> path.toString().endsWith(".mp3"))::iterator) {
+                String audioId = file.getFileName().toString().replace(".mp3", "");
+                try {
+                    if (!referenced.contains(audioId) && Files.getLastModifiedTime(file).toMillis() < cutoffMillis) {
+                        reclaimed += deleteAudioFile(file);
+                    }
+                } catch (IOException e) {
+                    // Removed concurrently or unreadable; the next run retries
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to scan audio directory {}", root, e);
+        }
+        return reclaimed;
+    }
+
+    // Jobs using each audio file are recorded as refs/{jobId}/{audioId}, since identical scripts share one file
+    private void addReference(String jobId, String audioId) {
+        if (jobId == null || !JOB_ID.matcher(jobId).matches()) {
+            return;
+        }
+        try {
+            Path ref = Files.createDirectories(refsDir().resolve(jobId)).resolve(audioId);
+            if (!Files.exists(ref)) {
+                Files.createFile(ref);
+            }
+        } catch (FileAlreadyExistsException e) {
+            // Recorded concurrently
+        } catch (IOException e) {
+            logger.warn("Failed to record audio {} for job: {}", audioId, jobId, e);
+        }
+    }
+
+    private Set<String> referencedAudioIds() {
+        Set<String> referenced = new HashSet<>();
+        Path refs = refsDir();
+        if (!Files.isDirectory(refs)) {
+            return referenced;
+        }
+        try (Stream<Path> jobs = Files.list(refs)) {
+            for (Path job : (Iterable<Path>) jobs::iterator) {
+                try (Stream<Path> audio = Files.list(job)) {
+                    audio.forEach(ref -> referenced.add(ref.getFileName().toString()));
+                } catch (IOException e) {
+                    // Removed concurrently
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to read audio references in {}", refs, e);
+        }
+        return referenced;
+    }
+
+    private static long deleteAudioFile(Path file) {
+        try {
+            long size = Files.size(file);
+            return Files.deleteIfExists(file) ? size : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private Path refsDir() {
+        return Paths.get(audioDir, "refs");
+    }
+
+    // Chunks are synthesised in parallel and their MP3 frames concatenated in script order
+    private CompletableFuture<Path> synthesizeAzure(String audioId, String text, boolean background) {
+        List<String> chunks = splitIntoChunks(text, chunkChars);
+        Path target = audioFile(audioId);
+        Executor executor = background ? Runnable::run : ioExecutor;
+        String permitKey = background ? "azure-tts-background" : "azure-tts";
+
+        try {
+            Files.createDirectories(target.getParent());
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        List<CompletableFuture<Path>> parts = new ArrayList<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            String chunk = chunks.get(i);
+            Path partFile = partFile(target, audioId, i);
+            parts.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return callLimiter.call(permitKey, () -> synthesizeAzureChunk(chunk, partFile));
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, executor));
+        }
+
+        return CompletableFuture.allOf(parts.toArray(new CompletableFuture[0]))
+                .thenApplyAsync(done -> concatenateParts(audioId, parts, target), executor)
+                .whenComplete((path, e) -> deleteParts(target, audioId, chunks.size()));
+    }
+
+    // Only called once every part is complete, so the joins do not block
+    private Path concatenateParts(String audioId, List<CompletableFuture<Path>> parts, Path target) {
+        try {
+            Path tempFile = target.resolveSibling(audioId + ".mp3.tmp");
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                for (CompletableFuture<Path> part : parts) {
+                    Files.copy(part.join(), out);
+                }
+            }
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        logger.info("Synthesised audio {} from {} chunks", audioId, parts.size());
+        return target;
+    }
+
+    private void deleteParts(Path target, String audioId, int count) {
+        for (int i = 0; i < count; i++) {
+            try {
+                Files.deleteIfExists(partFile(target, audioId, i));
+            } catch (IOException e) {
+                logger.warn("Failed to delete audio part {} of {}", i, audioId, e);
+            }
+        }
+    }
+
+    private static Path partFile(Path target, String audioId, int index) {
+        return target.resolveSibling(audioId + ".part" + index);
+    }
+
+    // The response body is copied straight to disk rather than held in memory
+    private Path synthesizeAzureChunk(String chunk, Path partFile) {
+        String url = endpoint + "/cognitiveservices/v1";
 
         String ssml = String.format("""
             <speak version='1.0' xml:lang='en-US'>
-                <voice xml:lang='en-US' xml:gender='Female' name='en-US-JennyNeural'>
+                <voice xml:lang='en-US' xml:gender='Female' name='%s'>
                     %s
                 </voice>
             </speak>
-            """, text);
+            """, VOICE, HtmlUtils.htmlEscape(chunk));
 
-        HttpEntity<String> entity = new HttpEntity<>(ssml, headers);
+        return restTemplate.execute(url, HttpMethod.POST, request -> {
+            HttpHeaders headers = request.getHeaders();
+            headers.setContentType(MediaType.valueOf("application/ssml+xml"));
+            headers.set("Ocp-Apim-Subscription-Key", apiKey);
+            headers.set("X-Microsoft-OutputFormat", OUTPUT_FORMAT);
+            headers.set("User-Agent", "Adobe-Hackathon-TTS");
+            request.getBody().write(ssml.getBytes(StandardCharsets.UTF_8));
+        }, response -> {
+            if (response.getStatusCode() != HttpStatus.OK) {
+                throw new RuntimeException("Azure TTS failed with status: " + response.getStatusCode());
+            }
+            Files.copy(response.getBody(), partFile, StandardCopyOption.REPLACE_EXISTING);
+            return partFile;
+        });
+    }
 
-        try {
-            ResponseEntity<byte[]> response = restTemplate.exchange(url, HttpMethod.POST, entity, byte[].class);
+    /**
+     * Splits text at sentence boundaries into chunks of at most maxChars; a single
+     * sentence longer than that is split at word boundaries.
+     */
+    static List<String> splitIntoChunks(String text, int maxChars) {
+        List<String> chunks = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
 
-            if (response.getStatusCode() == HttpStatus.OK) {
-                // In a real implementation, you would save the audio file and return its URL
-                // For demo purposes, return a placeholder URL
-                return "/api/adobe/podcast/audio/" + jobId + ".mp3";
+        BreakIterator sentences = BreakIterator.getSentenceInstance(Locale.US);
+        sentences.setText(text);
+        int start = sentences.first();
+        for (int end = sentences.next(); end != BreakIterator.DONE; start = end, end = sentences.next()) {
+            String sentence = text.substring(start, end);
+            if (current.length() + sentence.length() > maxChars && current.length() > 0) {
+                chunks.add(current.toString().trim());
+                current.setLength(0);
+            }
+            if (sentence.length() > maxChars) {
+                for (String word : sentence.split("(?<=\\s)")) {
+                    if (current.length() + word.length() > maxChars && current.length() > 0) {
+                        chunks.add(current.toString().trim());
+                        current.setLength(0);
+                    }
+                    current.append(word);
+                }
             } else {
-                throw new RuntimeException("Azure TTS failed with status: " + response.getStatusCode());
+                current.append(sentence);
             }
-        } catch (Exception e) {
-            logger.error("Error calling Azure TTS", e);
-            return "/api/adobe/podcast/demo-audio/" + jobId;
         }
+        if (!current.toString().isBlank()) {
+            chunks.add(current.toString().trim());
+        }
+
+        chunks.removeIf(String::isBlank);
+        return chunks;
+    }
+
+    private String audioId(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((ttsProvider + "|" + VOICE + "|" + OUTPUT_FORMAT + "|").getBytes(StandardCharsets.UTF_8));
+            digest.update(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private Path audioFile(String audioId) {
+        return Paths.get(audioDir, audioId + ".mp3");
     }
 
-    private String generateGoogleTTS(String text, String jobId) throws Exception {
+    private String generateGoogleTTS(String text, String jobId) {
         // Similar implementation for Google TTS
         logger.warn("Google TTS not implemented, returning demo URL");
         return "/api/adobe/podcast/demo-audio/" + jobId;
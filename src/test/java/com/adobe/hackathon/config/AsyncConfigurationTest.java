@@ -0,0 +1,47 @@
+package com.adobe.hackathon.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncConfigurationTest {
+
+    private final AsyncConfiguration configuration = new AsyncConfiguration();
+
+    @Test
+    void ioExecutor_PlatformThreadsAreDaemonAndNamed() throws Exception {
+        // Given
+        ExecutorService executor = configuration.ioExecutor(false, 2);
+
+        try {
+            // When
+            Thread thread = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+            // Then
+            assertTrue(thread.isDaemon());
+            assertTrue(thread.getName().startsWith("io-"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void ioExecutor_FallsBackToPlatformThreadsWithoutVirtualThreads() throws Exception {
+        // Given
+        boolean virtualThreadsAvailable = Runtime.version().feature() >= 21;
+        ExecutorService executor = configuration.ioExecutor(true, 2);
+
+        try {
+            // When
+            Thread thread = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+            // Then
+            assertEquals(!virtualThreadsAvailable, thread.getName().startsWith("io-"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.adobe.hackathon.controller;
+
+import com.adobe.hackathon.model.dto.AdobeAnalysisResponse;
+import com.adobe.hackathon.service.AdobeAnalysisService;
+import com.adobe.hackathon.service.InsightsBulbService;
+import com.adobe.hackathon.service.PodcastGenerationService;
+import com.adobe.hackathon.service.TextToSpeechService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@ExtendWith(MockitoExtension.class)
+class AdobeChallengeControllerStreamTest {
+
+    @Mock
+    private AdobeAnalysisService adobeAnalysisService;
+
+    @Mock
+    private InsightsBulbService insightsBulbService;
+
+    @Mock
+    private PodcastGenerationService podcastService;
+
+    @Mock
+    private TextToSpeechService textToSpeechService;
+
+    @InjectMocks
+    private AdobeChallengeController controller;
+
+    private ExecutorService streamExecutor;
+    private ExecutorService ioExecutor;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        streamExecutor = Executors.newSingleThreadExecutor();
+        // A single io thread, so a stream driver holding it would starve the work it waits for
+        ioExecutor = Executors.newSingleThreadExecutor();
+        ReflectionTestUtils.setField(controller, "streamExecutor", streamExecutor);
+        ReflectionTestUtils.setField(controller, "streamTimeoutMs", 60_000L);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        streamExecutor.shutdownNow();
+        ioExecutor.shutdownNow();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamInsights_EmitsEachSectionThenCompletes() throws Exception {
+        // Given
+        AdobeAnalysisResponse.InsightsBulb insights = new AdobeAnalysisResponse.InsightsBulb();
+        insights.setKeyInsights(List.of("Beaches are best in June"));
+        when(insightsBulbService.streamInsights(eq("job-1"), any())).thenAnswer(invocation -> {
+            BiConsumer<String, List<String>> onSection = invocation.getArgument(1);
+            onSection.accept("keyInsights", List.of("Beaches are best in June"));
+            onSection.accept("connections", List.of("Food and nightlife share the old town"));
+            return insights;
+        });
+
+        // When
+        String body = awaitStream("/api/adobe/insights/job-1/stream");
+
+        // Then
+        assertTrue(body.indexOf("event:keyInsights") < body.indexOf("event:connections"));
+        assertTrue(body.indexOf("event:connections") < body.indexOf("event:complete"));
+        assertTrue(body.contains("Beaches are best in June"));
+        assertFalse(body.contains("event:error"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamPodcast_EmitsScriptAndAudioThenCompletes() throws Exception {
+        // Given
+        AdobeAnalysisResponse.PodcastContent podcast = new AdobeAnalysisResponse.PodcastContent();
+        when(podcastService.streamPodcast(eq("job-1"), eq(60), any(), any())).thenAnswer(invocation -> {
+            Consumer<String> onScript = invocation.getArgument(2);
+            Consumer<String> onAudio = invocation.getArgument(3);
+            onScript.accept("Welcome to the coast.");
+            onAudio.accept("/api/adobe/podcast/audio/abc.mp3");
+            return podcast;
+        });
+
+        // When
+        String body = awaitStream("/api/adobe/podcast/job-1/stream?duration=60");
+
+        // Then
+        assertTrue(body.contains("event:script\ndata:Welcome to the coast."));
+        assertTrue(body.contains("event:audio\ndata:/api/adobe/podcast/audio/abc.mp3"));
+        assertTrue(body.indexOf("event:audio") < body.indexOf("event:complete"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamPodcast_DriverDoesNotHoldAnIoThread() throws Exception {
+        // Given
+        Thread ioThread = ioExecutor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+        AtomicReference<Thread> driver = new AtomicReference<>();
+        when(podcastService.streamPodcast(eq("job-1"), eq(60), any(), any())).thenAnswer(invocation -> {
+            Consumer<String> onAudio = invocation.getArgument(3);
+            driver.set(Thread.currentThread());
+            // Segments are synthesised on the io pool while the driver waits for them
+            CompletableFuture<String> segment = CompletableFuture.supplyAsync(
+                    () -> "/api/adobe/podcast/audio/abc.mp3", ioExecutor);
+            onAudio.accept(segment.get(5, TimeUnit.SECONDS));
+            return new AdobeAnalysisResponse.PodcastContent();
+        });
+
+        // When
+        String body = awaitStream("/api/adobe/podcast/job-1/stream?duration=60");
+
+        // Then
+        assertTrue(body.contains("event:audio\ndata:/api/adobe/podcast/audio/abc.mp3"));
+        assertTrue(body.contains("event:complete"));
+        assertFalse(body.contains("event:error"));
+        assertNotSame(ioThread, driver.get());
+    }
+
+    @Test
+    void streamInsights_UnknownJobEmitsError() throws Exception {
+        // Given
+        when(insightsBulbService.streamInsights(eq("missing"), any()))
+                .thenThrow(new RuntimeException("Job not found: missing"));
+
+        // When
+        String body = awaitStream("/api/adobe/insights/missing/stream");
+
+        // Then
+        assertTrue(body.contains("event:error"));
+        assertTrue(body.contains("Failed to generate insights: Job not found: missing"));
+        assertFalse(body.contains("event:complete"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamInsights_TimeoutStopsGeneration() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        AtomicReference<RuntimeException> lateSend = new AtomicReference<>();
+        when(insightsBulbService.streamInsights(eq("job-1"), any())).thenAnswer(invocation -> {
+            BiConsumer<String, List<String>> onSection = invocation.getArgument(1);
+            started.countDown();
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+            try {
+                onSection.accept("keyInsights", List.of("Too late"));
+            } catch (RuntimeException e) {
+                lateSend.set(e);
+                throw e;
+            } finally {
+                stopped.countDown();
+            }
+            return new AdobeAnalysisResponse.InsightsBulb();
+        });
+        MvcResult result = mockMvc.perform(get("/api/adobe/insights/job-1/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // When
+        MockAsyncContext asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+
+        // Then
+        assertTrue(stopped.await(5, TimeUnit.SECONDS));
+        assertTrue(interrupted.get());
+        assertInstanceOf(UncheckedIOException.class, lateSend.get());
+        assertFalse(result.getResponse().getContentAsString().contains("Too late"));
+    }
+
+    private String awaitStream(String url) throws Exception {
+        MvcResult result = mockMvc.perform(get(url))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult(5000);
+        return result.getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,91 @@
+package com.adobe.hackathon.controller;
+
+import com.adobe.hackathon.model.dto.JobStatusResponse;
+import com.adobe.hackathon.service.DocumentAnalysisService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentAnalysisControllerJobsTest {
+
+    @Mock
+    private DocumentAnalysisService analysisService;
+
+    @InjectMocks
+    private DocumentAnalysisController controller;
+
+    @Test
+    void listJobs_NextCursorPointsAtTheLastJobOfThePage() {
+        // Given
+        JobStatusResponse newer = job("job-e", 1);
+        JobStatusResponse older = job("job-d", 0);
+        when(analysisService.listJobs(List.of("COMPLETED"), null, 2))
+                .thenReturn(new SliceImpl<>(List.of(newer, older), PageRequest.of(0, 2), true));
+
+        // When
+        ResponseEntity<Map<String, Object>> response = controller.listJobs(List.of(" completed "), null, 2);
+
+        // Then
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(true, response.getBody().get("hasMore"));
+        assertEquals(DocumentAnalysisService.encodeCursor(older), response.getBody().get("nextCursor"));
+    }
+
+    @Test
+    void listJobs_LastPageHasNoNextCursor() {
+        // Given
+        when(analysisService.listJobs(anyList(), eq("cursor"), eq(2)))
+                .thenReturn(new SliceImpl<>(List.of(job("job-a", 0)), PageRequest.of(0, 2), false));
+
+        // When
+        ResponseEntity<Map<String, Object>> response = controller.listJobs(null, "cursor", 2);
+
+        // Then
+        assertEquals(false, response.getBody().get("hasMore"));
+        assertNull(response.getBody().get("nextCursor"));
+    }
+
+    @Test
+    void listJobs_BadCursorIsABadRequest() {
+        // Given
+        when(analysisService.listJobs(anyList(), eq("garbage"), eq(20)))
+                .thenThrow(new IllegalArgumentException("Invalid cursor: garbage"));
+
+        // When
+        ResponseEntity<Map<String, Object>> response = controller.listJobs(null, "garbage", 20);
+
+        // Then
+        assertEquals(400, response.getStatusCode().value());
+        assertEquals("Invalid cursor: garbage", response.getBody().get("error"));
+    }
+
+    @Test
+    void listJobs_LimitOutsideTheAllowedRangeIsABadRequest() {
+        // When
+        ResponseEntity<Map<String, Object>> response = controller.listJobs(null, null, 101);
+
+        // Then
+        assertEquals(400, response.getStatusCode().value());
+        verifyNoInteractions(analysisService);
+    }
+
+    private static JobStatusResponse job(String jobId, int minute) {
+        JobStatusResponse job = new JobStatusResponse(jobId, "COMPLETED", 1.0);
+        job.setCreatedAt(LocalDateTime.of(2026, 3, 1, 12, minute));
+        return job;
+    }
+}
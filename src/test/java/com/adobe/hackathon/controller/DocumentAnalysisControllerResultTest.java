@@ -0,0 +1,127 @@
+package com.adobe.hackathon.controller;
+
+import com.adobe.hackathon.model.dto.JobStatusResponse;
+import com.adobe.hackathon.service.DocumentAnalysisService;
+import com.adobe.hackathon.service.JobResultStore;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentAnalysisControllerResultTest {
+
+    @Mock
+    private DocumentAnalysisService analysisService;
+
+    @Mock
+    private JobResultStore resultStore;
+
+    @InjectMocks
+    private DocumentAnalysisController controller;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(controller, "objectMapper", objectMapper);
+        when(analysisService.getJobStatus("job-1")).thenReturn(new JobStatusResponse("job-1", "COMPLETED", 1.0));
+    }
+
+    @Test
+    void getJobResults_SplicesStoredJsonIntoTheEnvelope() throws Exception {
+        // Given
+        when(resultStore.openResult("job-1")).thenReturn(Optional.of(body("{\"sections\":[{\"page\":3}]}")));
+
+        // When
+        ResponseEntity<Map<String, Object>> entity = controller.getJobResults("job-1", servletResponse);
+
+        // Then
+        assertNull(entity);
+        JsonNode written = objectMapper.readTree(servletResponse.getContentAsByteArray());
+        assertTrue(written.get("success").asBoolean());
+        assertEquals(3, written.at("/data/sections/0/page").asInt());
+        assertEquals(servletResponse.getContentAsByteArray().length, servletResponse.getContentLengthLong());
+    }
+
+    @Test
+    void getJobResults_WithoutStoredResultReturnsTheEnvelope() {
+        // Given
+        when(resultStore.openResult("job-1")).thenReturn(Optional.empty());
+
+        // When
+        ResponseEntity<Map<String, Object>> entity = controller.getJobResults("job-1", servletResponse);
+
+        // Then
+        assertEquals(200, entity.getStatusCode().value());
+        assertEquals(true, entity.getBody().get("success"));
+        assertEquals(0, servletResponse.getContentAsByteArray().length);
+    }
+
+    @Test
+    void getJobResults_CorruptResultFailsBeforeAnythingIsWritten() {
+        // Given
+        when(resultStore.openResult("job-1")).thenThrow(new RuntimeException("Stored result is corrupt for job: job-1"));
+
+        // When
+        ResponseEntity<Map<String, Object>> entity = controller.getJobResults("job-1", servletResponse);
+
+        // Then
+        assertEquals(500, entity.getStatusCode().value());
+        assertEquals("Stored result is corrupt for job: job-1", entity.getBody().get("error"));
+        assertEquals(0, servletResponse.getContentAsByteArray().length);
+    }
+
+    @Test
+    void getJobResults_FailureWhileWritingPropagatesWithoutAnErrorEnvelope() {
+        // Given
+        JobResultStore.ResultBody failing = new JobResultStore.ResultBody() {
+            @Override
+            public long getLength() { return 100; }
+
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                out.write("{\"sections\":[".getBytes(StandardCharsets.UTF_8));
+                throw new IOException("Connection reset by peer");
+            }
+        };
+        when(resultStore.openResult("job-1")).thenReturn(Optional.of(failing));
+
+        // When
+        DocumentAnalysisController.ResultStreamException error = assertThrows(
+                DocumentAnalysisController.ResultStreamException.class,
+                () -> controller.getJobResults("job-1", servletResponse));
+
+        // Then
+        assertInstanceOf(IOException.class, error.getCause());
+        assertFalse(new String(servletResponse.getContentAsByteArray(), StandardCharsets.UTF_8).contains("\"error\""));
+    }
+
+    private static JobResultStore.ResultBody body(String json) {
+        byte[] raw = json.getBytes(StandardCharsets.UTF_8);
+        return new JobResultStore.ResultBody() {
+            @Override
+            public long getLength() { return raw.length; }
+
+            @Override
+            public void writeTo(OutputStream out) throws IOException { out.write(raw); }
+        };
+    }
+}
@@ -0,0 +1,239 @@
+package com.adobe.hackathon.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Open-loop load generator for the insights and podcast endpoints. Requests are issued at
+ * a fixed rate whether or not earlier ones have returned, so queueing shows up in the
+ * latencies instead of silently lowering the offered load.
+ *
+ * <pre>
+ *   --base-url=http://localhost:8080 --job-id=&lt;completed job&gt; --rps=5 --duration-s=60
+ *   --endpoints=insights,podcast --warmup-s=5
+ * </pre>
+ * Instead of {@code --job-id}, {@code --pdf=path/to/file.pdf} uploads a document first.
+ * Pair with {@link StubProviderServer} to measure without provider keys.
+ */
+public class LoadHarness {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final Map<String, String> ENDPOINTS = Map.of(
+            "insights", "/api/adobe/insights/%s",
+            "podcast", "/api/adobe/podcast/%s");
+
+    // HTTP/1.1: the h2c upgrade attempt on plain http is rejected for multipart uploads
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newCachedThreadPool())
+            .build();
+
+    private final String baseUrl;
+    private final Duration requestTimeout;
+
+    public LoadHarness(String baseUrl, Duration requestTimeout) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.requestTimeout = requestTimeout;
+    }
+
+    /**
+     * Per-endpoint results of one run.
+     */
+    public static class Report {
+        private final String endpoint;
+        private final List<Long> latenciesMs;
+        private final long errors;
+        private final double durationSeconds;
+
+        Report(String endpoint, List<Long> latenciesMs, long errors, double durationSeconds) {
+            this.endpoint = endpoint;
+            this.latenciesMs = new ArrayList<>(latenciesMs);
+            Collections.sort(this.latenciesMs);
+            this.errors = errors;
+            this.durationSeconds = durationSeconds;
+        }
+
+        public String getEndpoint() { return endpoint; }
+        public long getRequests() { return latenciesMs.size(); }
+        public long getErrors() { return errors; }
+        public double getThroughput() { return latenciesMs.size() / durationSeconds; }
+
+        public long percentile(double p) {
+            if (latenciesMs.isEmpty()) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p / 100.0 * latenciesMs.size()) - 1;
+            return latenciesMs.get(Math.max(0, Math.min(index, latenciesMs.size() - 1)));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-10s requests=%-6d errors=%-5d rps=%-7.2f p50=%-6d p90=%-6d p99=%-6d max=%d",
+                    endpoint, getRequests(), errors, getThroughput(),
+                    percentile(50), percentile(90), percentile(99), percentile(100));
+        }
+    }
+
+    /**
+     * Drives the endpoints round-robin at the target rate. Requests sent during the warm-up
+     * are not recorded.
+     */
+    public List<Report> run(String jobId, List<String> endpoints, double rps,
+                            Duration duration, Duration warmup) throws InterruptedException {
+        Map<String, ConcurrentLinkedQueue<Long>> latencies = new ConcurrentHashMap<>();
+        Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+        for (String endpoint : endpoints) {
+            latencies.put(endpoint, new ConcurrentLinkedQueue<>());
+            errors.put(endpoint, new AtomicLong());
+        }
+
+        List<CompletableFuture<?>> inFlight = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger sequence = new AtomicInteger();
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rps);
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.scheduleAtFixedRate(() -> {
+            String endpoint = endpoints.get(sequence.getAndIncrement() % endpoints.size());
+            long start = System.nanoTime();
+            boolean recorded = start >= measureFrom;
+            inFlight.add(client.sendAsync(post(String.format(ENDPOINTS.get(endpoint), jobId)),
+                            HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        if (!recorded) {
+                            return;
+                        }
+                        latencies.get(endpoint).add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                        if (error != null || response.statusCode() >= 400) {
+                            errors.get(endpoint).incrementAndGet();
+                        }
+                    }));
+        }, 0, periodNanos, TimeUnit.NANOSECONDS);
+
+        scheduler.awaitTermination(warmup.plus(duration).toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.shutdownNow();
+
+        // Let requests already sent finish so the slow tail is not cut off
+        try {
+            CompletableFuture.allOf(inFlight.toArray(new CompletableFuture[0]))
+                    .get(requestTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            System.err.println("Some requests did not finish: " + e);
+        }
+
+        List<Report> reports = new ArrayList<>();
+        for (String endpoint : endpoints) {
+            reports.add(new Report(endpoint, new ArrayList<>(latencies.get(endpoint)),
+                    errors.get(endpoint).get(), duration.toMillis() / 1000.0));
+        }
+        return reports;
+    }
+
+    /**
+     * Uploads a PDF through the analyze endpoint, which returns once the job has completed.
+     */
+    public String analyze(Path pdf) throws Exception {
+        String boundary = "----harness" + UUID.randomUUID();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write(("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"files\"; filename=\"" + pdf.getFileName() + "\"\r\n"
+                + "Content-Type: application/pdf\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.write(Files.readAllBytes(pdf));
+        body.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/adobe/analyze"))
+                .timeout(Duration.ofMinutes(2))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        JsonNode json = objectMapper.readTree(response.body());
+        if (!json.path("success").asBoolean(false)) {
+            throw new IllegalStateException("Analysis failed: " + response.body());
+        }
+        return json.path("jobId").asText();
+    }
+
+    private HttpRequest post(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(requestTimeout)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            int equals = arg.indexOf('=');
+            if (equals < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, equals), arg.substring(equals + 1));
+            }
+        }
+        return options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        LoadHarness harness = new LoadHarness(options.getOrDefault("base-url", "http://localhost:8080"),
+                Duration.ofSeconds(Long.parseLong(options.getOrDefault("timeout-s", "120"))));
+
+        String jobId = options.get("job-id");
+        if (jobId == null && options.containsKey("pdf")) {
+            jobId = harness.analyze(Paths.get(options.get("pdf")));
+            System.out.println("Analysed " + options.get("pdf") + " as job " + jobId);
+        }
+        if (jobId == null) {
+            throw new IllegalArgumentException("Either --job-id or --pdf is required");
+        }
+
+        List<String> endpoints = Arrays.asList(options.getOrDefault("endpoints", "insights,podcast").split(","));
+        for (String endpoint : endpoints) {
+            if (!ENDPOINTS.containsKey(endpoint)) {
+                throw new IllegalArgumentException("Unknown endpoint: " + endpoint);
+            }
+        }
+        double rps = Double.parseDouble(options.getOrDefault("rps", "5"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration-s", "60")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup-s", "5")));
+
+        System.out.printf("Driving %s at %.1f rps for %ds (+%ds warm-up) against %s%n",
+                endpoints, rps, duration.getSeconds(), warmup.getSeconds(), harness.baseUrl);
+        for (Report report : harness.run(jobId, endpoints, rps, duration, warmup)) {
+            System.out.println(report);
+        }
+        System.exit(0);
+    }
+}
@@ -0,0 +1,280 @@
+package com.adobe.hackathon.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Local stand-in for the Gemini generateContent, OpenAI chat completions and Azure TTS
+ * endpoints, with configurable latency, error rate and streaming pace. Lets the insights and
+ * podcast paths be benchmarked without provider keys.
+ *
+ * <p>Point the application at it with any non-empty key and
+ * {@code llm.api.gemini-base-url}, {@code llm.api.openai-base-url} and {@code tts.endpoint}
+ * set to {@code http://localhost:<port>}. Run standalone with {@link #main(String[])}:
+ * <pre>
+ *   --port=8089 --latency=lognormal:800:0.5 --error-rate=0.02 --chunks=8 --chunk-delay-ms=30
+ * </pre>
+ * Latency is one of {@code fixed:<ms>}, {@code uniform:<min>:<max>} or
+ * {@code lognormal:<medianMs>:<sigma>}.
+ */
+public class StubProviderServer implements AutoCloseable {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final String RESPONSE_TEXT = """
+            - The documents describe a layered approach where each stage builds on the previous one.
+            - Several sections repeat the same recommendation with different supporting evidence.
+            - The appendix quantifies trade-offs that the introduction only mentions in passing.
+            - Terminology is consistent across documents, which makes cross-references reliable.
+
+            Welcome to this overview. Today we walk through the main findings and how they connect.
+
+            We close with the key takeaways and where to read further.""";
+
+    /**
+     * Samples one response delay in milliseconds.
+     */
+    @FunctionalInterface
+    public interface Latency {
+        long sampleMs();
+
+        static Latency fixed(long ms) {
+            return () -> ms;
+        }
+
+        static Latency uniform(long minMs, long maxMs) {
+            return () -> ThreadLocalRandom.current().nextLong(minMs, maxMs + 1);
+        }
+
+        // Long-tailed, like real provider latencies
+        static Latency logNormal(double medianMs, double sigma) {
+            return () -> Math.round(medianMs * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+        }
+
+        static Latency parse(String spec) {
+            String[] parts = spec.split(":");
+            switch (parts[0]) {
+                case "fixed":
+                    return fixed(Long.parseLong(parts[1]));
+                case "uniform":
+                    return uniform(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+                case "lognormal":
+                    return logNormal(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+                default:
+                    throw new IllegalArgumentException("Unknown latency distribution: " + spec);
+            }
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+
+    private volatile Latency latency = Latency.fixed(0);
+    private volatile double errorRate;
+    private volatile int streamChunks = 8;
+    private volatile long chunkDelayMs = 20;
+
+    private StubProviderServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        // Unbounded so injected latency never queues requests behind each other
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "stub-provider");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/v1beta/models/", this::handleGemini);
+        server.createContext("/v1/chat/completions", this::handleOpenAI);
+        server.createContext("/cognitiveservices/v1", this::handleAzureTts);
+    }
+
+    /**
+     * Starts a server on the given port, or on a free port if 0.
+     */
+    public static StubProviderServer start(int port) throws IOException {
+        StubProviderServer stub = new StubProviderServer(port);
+        stub.server.start();
+        return stub;
+    }
+
+    public StubProviderServer latency(Latency latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    public StubProviderServer errorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    public StubProviderServer streaming(int chunks, long chunkDelayMs) {
+        this.streamChunks = Math.max(1, chunks);
+        this.chunkDelayMs = chunkDelayMs;
+        return this;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + getPort();
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public long getInjectedErrorCount() {
+        return injectedErrors.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handleGemini(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            if (!beforeResponse(exchange)) {
+                return;
+            }
+
+            if (exchange.getRequestURI().getPath().endsWith(":streamGenerateContent")) {
+                streamEvents(exchange, chunk -> Map.of("candidates", List.of(
+                        Map.of("content", Map.of("parts", List.of(Map.of("text", chunk)))))), false);
+            } else {
+                sendJson(exchange, 200, Map.of("candidates", List.of(
+                        Map.of("content", Map.of("parts", List.of(Map.of("text", RESPONSE_TEXT)))))));
+            }
+        }
+    }
+
+    private void handleOpenAI(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+            if (!beforeResponse(exchange)) {
+                return;
+            }
+
+            if (request.path("stream").asBoolean(false)) {
+                streamEvents(exchange, chunk -> Map.of("choices", List.of(
+                        Map.of("delta", Map.of("content", chunk)))), true);
+            } else {
+                sendJson(exchange, 200, Map.of("choices", List.of(
+                        Map.of("message", Map.of("role", "assistant", "content", RESPONSE_TEXT)))));
+            }
+        }
+    }
+
+    // Answers with the SSML text as the "audio", so concatenation order can be checked
+    private void handleAzureTts(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] ssml = exchange.getRequestBody().readAllBytes();
+            if (!beforeResponse(exchange)) {
+                return;
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", "audio/mpeg");
+            exchange.sendResponseHeaders(200, ssml.length);
+            exchange.getResponseBody().write(ssml);
+        }
+    }
+
+    // Applies the injected latency, then either fails the request or lets it proceed
+    private boolean beforeResponse(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        sleep(latency.sampleMs());
+
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            injectedErrors.incrementAndGet();
+            sendJson(exchange, 503, Map.of("error", Map.of("code", 503, "message", "Injected failure")));
+            return false;
+        }
+        return true;
+    }
+
+    private void streamEvents(HttpExchange exchange, Function<String, Object> toEvent,
+                              boolean doneMarker) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+
+        OutputStream out = exchange.getResponseBody();
+        for (String chunk : split(RESPONSE_TEXT, streamChunks)) {
+            writeEvent(out, objectMapper.writeValueAsString(toEvent.apply(chunk)));
+            sleep(chunkDelayMs);
+        }
+        if (doneMarker) {
+            writeEvent(out, "[DONE]");
+        }
+    }
+
+    private static void writeEvent(OutputStream out, String data) throws IOException {
+        out.write(("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static List<String> split(String text, int parts) {
+        List<String> chunks = new ArrayList<>();
+        int size = (text.length() + parts - 1) / parts;
+        for (int start = 0; start < text.length(); start += size) {
+            chunks.add(text.substring(start, Math.min(text.length(), start + size)));
+        }
+        return chunks;
+    }
+
+    private static void sleep(long ms) {
+        if (ms <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = LoadHarness.parseOptions(args);
+        StubProviderServer stub = start(Integer.parseInt(options.getOrDefault("port", "8089")))
+                .latency(Latency.parse(options.getOrDefault("latency", "lognormal:800:0.5")))
+                .errorRate(Double.parseDouble(options.getOrDefault("error-rate", "0")))
+                .streaming(Integer.parseInt(options.getOrDefault("chunks", "8")),
+                        Long.parseLong(options.getOrDefault("chunk-delay-ms", "30")));
+
+        System.out.println("Stub provider listening on " + stub.getBaseUrl());
+        System.out.println("Start the application with:");
+        System.out.println("  --llm.api.key=stub --llm.api.gemini-base-url=" + stub.getBaseUrl()
+                + " --llm.api.openai-base-url=" + stub.getBaseUrl());
+        System.out.println("  --tts.api.key=stub --tts.endpoint=" + stub.getBaseUrl() + " --app.tts.enabled=true");
+        Runtime.getRuntime().addShutdownHook(new Thread(stub::close));
+        Thread.currentThread().join();
+    }
+}
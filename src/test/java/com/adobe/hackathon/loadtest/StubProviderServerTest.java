@@ -0,0 +1,96 @@
+package com.adobe.hackathon.loadtest;
+
+import com.adobe.hackathon.service.LLMIntegrationService;
+import com.adobe.hackathon.service.LlmResponseCache;
+import com.adobe.hackathon.service.OutboundCallLimiter;
+import com.adobe.hackathon.service.ProviderCircuitBreaker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StubProviderServerTest {
+
+    private StubProviderServer stub;
+    private ExecutorService ioExecutor;
+    private LLMIntegrationService llmService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = StubProviderServer.start(0).streaming(4, 0);
+        ioExecutor = Executors.newFixedThreadPool(2);
+
+        LlmResponseCache cache = new LlmResponseCache();
+        ReflectionTestUtils.setField(cache, "enabled", false);
+
+        llmService = new LLMIntegrationService();
+        ReflectionTestUtils.setField(llmService, "llmProvider", "gemini");
+        ReflectionTestUtils.setField(llmService, "apiKey", "stub");
+        ReflectionTestUtils.setField(llmService, "model", "gemini-2.5-flash");
+        ReflectionTestUtils.setField(llmService, "geminiBaseUrl", stub.getBaseUrl());
+        ReflectionTestUtils.setField(llmService, "openAIBaseUrl", stub.getBaseUrl());
+        ReflectionTestUtils.setField(llmService, "ioExecutor", ioExecutor);
+        ReflectionTestUtils.setField(llmService, "callLimiter", new OutboundCallLimiter());
+        ReflectionTestUtils.setField(llmService, "responseCache", cache);
+        ReflectionTestUtils.setField(llmService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(llmService, "circuitBreaker", new ProviderCircuitBreaker());
+        ReflectionTestUtils.setField(llmService, "restTemplate", new RestTemplate());
+        ReflectionTestUtils.setField(llmService, "initialBackoffMs", 1L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+        ioExecutor.shutdownNow();
+    }
+
+    @Test
+    void generateResponse_ParsesGeminiWireFormat() throws Exception {
+        // When
+        String response = llmService.generateResponse("Summarize the document");
+
+        // Then
+        assertTrue(response.startsWith("- The documents describe"));
+        assertEquals(1, stub.getRequestCount());
+    }
+
+    @Test
+    void streamResponse_DeliversOpenAIChunksInOrder() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(llmService, "llmProvider", "openai");
+        List<String> chunks = new ArrayList<>();
+
+        // When
+        String response = llmService.streamResponse("Write a podcast script", chunks::add);
+
+        // Then
+        assertEquals(4, chunks.size());
+        assertEquals(response, String.join("", chunks));
+        assertTrue(response.endsWith("where to read further."));
+    }
+
+    @Test
+    void generateResponse_RetriesInjectedServerErrors() {
+        // Given
+        stub.errorRate(1.0);
+
+        // When
+        RestClientResponseException error = assertThrows(RestClientResponseException.class,
+                () -> llmService.generateResponse("Summarize the document"));
+
+        // Then
+        assertEquals(503, error.getStatusCode().value());
+        assertEquals(3, stub.getRequestCount());
+        assertEquals(3, stub.getInjectedErrorCount());
+    }
+}
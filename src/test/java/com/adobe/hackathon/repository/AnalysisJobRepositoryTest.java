@@ -0,0 +1,86 @@
+package com.adobe.hackathon.repository;
+
+import com.adobe.hackathon.model.dto.JobStatusResponse;
+import com.adobe.hackathon.model.entity.AnalysisJob;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class AnalysisJobRepositoryTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    @Autowired
+    private AnalysisJobRepository jobRepository;
+
+    @BeforeEach
+    void setUp() {
+        // job-b, job-c and job-d share a timestamp, so the job id breaks the tie
+        save("job-a", NOON.minusMinutes(1), "COMPLETED");
+        save("job-b", NOON, "FAILED");
+        save("job-c", NOON, "COMPLETED");
+        save("job-d", NOON, "COMPLETED");
+        save("job-e", NOON.plusMinutes(1), "COMPLETED");
+    }
+
+    @Test
+    void statusPages_WalkEveryJobOnceAcrossEqualTimestamps() {
+        // When
+        List<String> seen = new ArrayList<>();
+        List<Boolean> hasMore = new ArrayList<>();
+        Slice<JobStatusResponse> page = jobRepository.findStatusPage(PageRequest.of(0, 2));
+        while (true) {
+            page.forEach(job -> seen.add(job.getJobId()));
+            hasMore.add(page.hasNext());
+            if (!page.hasNext()) {
+                break;
+            }
+            JobStatusResponse last = page.getContent().get(page.getNumberOfElements() - 1);
+            page = jobRepository.findStatusPageBefore(last.getCreatedAt(), last.getJobId(), PageRequest.of(0, 2));
+        }
+
+        // Then
+        assertEquals(List.of("job-e", "job-d", "job-c", "job-b", "job-a"), seen);
+        assertEquals(List.of(true, true, false), hasMore);
+    }
+
+    @Test
+    void statusPageBefore_CursorOnTheLastJobReturnsAnEmptyLastPage() {
+        // When
+        Slice<JobStatusResponse> page = jobRepository.findStatusPageBefore(
+                NOON.minusMinutes(1), "job-a", PageRequest.of(0, 2));
+
+        // Then
+        assertTrue(page.getContent().isEmpty());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    void statusPagesByStatus_SkipOtherStatusesWithinATie() {
+        // When
+        Slice<JobStatusResponse> page = jobRepository.findStatusPageByStatusInBefore(
+                Set.of("COMPLETED"), NOON, "job-d", PageRequest.of(0, 5));
+
+        // Then
+        assertEquals(List.of("job-c", "job-a"), page.getContent().stream().map(JobStatusResponse::getJobId).toList());
+        assertFalse(page.hasNext());
+    }
+
+    private void save(String jobId, LocalDateTime createdAt, String status) {
+        AnalysisJob job = new AnalysisJob(jobId, "Travel Planner", "Plan a trip");
+        job.setCreatedAt(createdAt);
+        job.setStatus(status);
+        jobRepository.save(job);
+    }
+}
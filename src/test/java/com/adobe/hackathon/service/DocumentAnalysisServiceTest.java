@@ -2,17 +2,27 @@
 package com.adobe.hackathon.service;
 
 import com.adobe.hackathon.model.dto.AnalysisRequest;
+import com.adobe.hackathon.model.dto.JobStatusResponse;
 import com.adobe.hackathon.model.entity.AnalysisJob;
 import com.adobe.hackathon.repository.AnalysisJobRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -34,6 +44,30 @@ class DocumentAnalysisServiceTest {
     @Mock
     private SemanticAnalysisService semanticAnalysisService;
 
+    @Mock
+    private JobProgressTracker progressTracker;
+
+    @Mock
+    private JobMetrics jobMetrics;
+
+    @Mock
+    private JobCheckpointStore checkpointStore;
+
+    @Mock
+    private JobResultStore resultStore;
+
+    @Mock
+    private PythonLogicSectionExtractionService pythonLogicSectionExtractionService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private JobCancellationRegistry cancellationRegistry = new JobCancellationRegistry();
+
+    @Spy
+    private SubmissionDeduplicator deduplicator = new SubmissionDeduplicator();
+
     @InjectMocks
     private DocumentAnalysisService documentAnalysisService;
 
@@ -68,11 +102,11 @@ class DocumentAnalysisServiceTest {
     void getJobStatus_JobExists() {
         // Given
         String jobId = "test-job-id";
-        AnalysisJob job = new AnalysisJob(jobId, "Data Scientist", "Extract ML techniques");
-        job.setStatus("COMPLETED");
-        job.setProgress(1.0);
+        JobStatusResponse job = new JobStatusResponse(jobId, "COMPLETED", 1.0);
+        job.setPersona("Data Scientist");
+        job.setJobToBeDone("Extract ML techniques");
 
-        when(jobRepository.findByJobId(jobId)).thenReturn(Optional.of(job));
+        when(jobRepository.findStatusByJobId(jobId)).thenReturn(Optional.of(job));
 
         // When
         var status = documentAnalysisService.getJobStatus(jobId);
@@ -87,11 +121,163 @@ class DocumentAnalysisServiceTest {
     void getJobStatus_JobNotFound() {
         // Given
         String jobId = "non-existent-job";
-        when(jobRepository.findByJobId(jobId)).thenReturn(Optional.empty());
+        when(jobRepository.findStatusByJobId(jobId)).thenReturn(Optional.empty());
 
         // When & Then
         assertThrows(RuntimeException.class, () -> {
             documentAnalysisService.getJobStatus(jobId);
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void cancelJob_RunningJobSignalsWorkerAndLeavesCleanupToIt() {
+        // Given
+        String jobId = "running-job-id";
+        AnalysisJob job = new AnalysisJob(jobId, "Data Scientist", "Extract ML techniques");
+        job.setStatus("PROCESSING");
+        job.setFilePaths("/path/to/files");
+        when(jobRepository.findByJobId(jobId)).thenReturn(Optional.of(job));
+        when(progressTracker.cancel(jobId)).thenReturn(true);
+        CancellationToken token = cancellationRegistry.begin(jobId);
+
+        // When
+        documentAnalysisService.cancelJob(jobId);
+
+        // Then
+        verify(progressTracker).cancel(jobId);
+        assertTrue(token.isCancelled());
+        assertThrows(JobCancelledException.class, token::throwIfCancelled);
+        verify(fileStorageService, never()).deleteJobFiles(anyString());
+    }
+
+    @Test
+    void cancelJob_PendingJobDeletesFiles() {
+        // Given
+        String jobId = "pending-job-id";
+        AnalysisJob job = new AnalysisJob(jobId, "Data Scientist", "Extract ML techniques");
+        job.setStatus("PENDING");
+        job.setFilePaths("/path/to/files");
+        when(jobRepository.findByJobId(jobId)).thenReturn(Optional.of(job));
+        when(progressTracker.cancel(jobId)).thenReturn(true);
+
+        // When
+        documentAnalysisService.cancelJob(jobId);
+
+        // Then
+        verify(progressTracker).cancel(jobId);
+        verify(fileStorageService).deleteJobFiles("/path/to/files");
+    }
+
+    @Test
+    void cancelJob_JobCompletedMeanwhileIsRejected() {
+        // Given
+        String jobId = "finishing-job-id";
+        AnalysisJob job = new AnalysisJob(jobId, "Data Scientist", "Extract ML techniques");
+        job.setStatus("PROCESSING");
+        job.setFilePaths("/path/to/files");
+        when(jobRepository.findByJobId(jobId)).thenReturn(Optional.of(job));
+        when(progressTracker.cancel(jobId)).thenReturn(false);
+        when(progressTracker.getPersistedStatus(jobId)).thenReturn(Optional.of("COMPLETED"));
+
+        // When
+        RuntimeException error = assertThrows(RuntimeException.class, () -> documentAnalysisService.cancelJob(jobId));
+
+        // Then
+        assertEquals("Cannot cancel job in status: COMPLETED", error.getMessage());
+        verify(fileStorageService, never()).deleteJobFiles(anyString());
+    }
+
+    @Test
+    void processAnalysisAsync_CompletedJobDropsCheckpoints() throws Exception {
+        // Given
+        String jobId = "completing-job-id";
+        AnalysisJob job = new AnalysisJob(jobId, "Data Scientist", "Extract ML techniques");
+        job.setStatus("PENDING");
+        job.setFilePaths("/path/to/files");
+        when(jobRepository.findByJobId(jobId)).thenReturn(Optional.of(job));
+        runStagesThroughCheckpointStore();
+        when(pdfAnalysisService.analyzePdfs(eq("/path/to/files"), any()))
+                .thenReturn(Map.of("success", true, "files", List.of()));
+        when(progressTracker.complete(jobId)).thenReturn(true);
+
+        // When
+        documentAnalysisService.processAnalysisAsync(jobId);
+
+        // Then
+        verify(resultStore).save(eq(jobId), anyString());
+        verify(checkpointStore).deleteAll("/path/to/files");
+    }
+
+    @Test
+    void processAnalysisAsync_FailedJobKeepsCheckpointsForRetry() throws Exception {
+        // Given
+        String jobId = "failing-job-id";
+        AnalysisJob job = new AnalysisJob(jobId, "Data Scientist", "Extract ML techniques");
+        job.setStatus("PENDING");
+        job.setFilePaths("/path/to/files");
+        when(jobRepository.findByJobId(jobId)).thenReturn(Optional.of(job));
+        runStagesThroughCheckpointStore();
+        when(pdfAnalysisService.analyzePdfs(eq("/path/to/files"), any()))
+                .thenReturn(Map.of("success", true, "files", List.of()));
+        when(semanticAnalysisService.performSemanticAnalysis(any(), anyString(), anyString()))
+                .thenThrow(new IllegalStateException("model unavailable"));
+
+        // When
+        documentAnalysisService.processAnalysisAsync(jobId);
+
+        // Then
+        verify(progressTracker).fail(jobId, "model unavailable");
+        verify(checkpointStore, never()).deleteAll(anyString());
+        verify(resultStore, never()).save(anyString(), anyString());
+    }
+
+    @Test
+    void listJobs_CursorResumesAfterTheLastJobOfThePreviousPage() {
+        // Given
+        JobStatusResponse last = new JobStatusResponse("job-c", "COMPLETED", 1.0);
+        last.setCreatedAt(LocalDateTime.of(2026, 3, 1, 12, 0, 0, 123_000_000));
+        when(jobRepository.findStatusPageByStatusInBefore(any(), any(), any(), any()))
+                .thenReturn(new SliceImpl<>(List.of()));
+
+        // When
+        documentAnalysisService.listJobs(List.of("COMPLETED"), DocumentAnalysisService.encodeCursor(last), 2);
+
+        // Then
+        verify(jobRepository).findStatusPageByStatusInBefore(List.of("COMPLETED"), last.getCreatedAt(), "job-c",
+                PageRequest.of(0, 2));
+    }
+
+    @Test
+    void listJobs_FirstPageHasNoKeysetCondition() {
+        // Given
+        when(jobRepository.findStatusPage(any())).thenReturn(new SliceImpl<>(List.of()));
+
+        // When
+        documentAnalysisService.listJobs(List.of(), null, 20);
+
+        // Then
+        verify(jobRepository).findStatusPage(PageRequest.of(0, 20));
+        verify(jobRepository, never()).findStatusPageBefore(any(), any(), any());
+    }
+
+    @Test
+    void listJobs_MalformedCursorIsRejected() {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        for (String cursor : List.of("not a cursor!",
+                encoder.encodeToString("no-separator".getBytes(StandardCharsets.UTF_8)),
+                encoder.encodeToString("yesterday|job-1".getBytes(StandardCharsets.UTF_8)))) {
+            // When
+            IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                    () -> documentAnalysisService.listJobs(List.of(), cursor, 20));
+
+            // Then
+            assertEquals("Invalid cursor: " + cursor, error.getMessage());
+        }
+        verifyNoInteractions(jobRepository);
+    }
+
+    private void runStagesThroughCheckpointStore() throws Exception {
+        when(checkpointStore.loadOrCompute(anyString(), anyString(), any(), any()))
+                .thenAnswer(invocation -> invocation.<JobCheckpointStore.StageComputation<?>>getArgument(3).compute());
+    }
+}
@@ -0,0 +1,85 @@
+package com.adobe.hackathon.service;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnhancedPdfAnalysisServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final EnhancedPdfAnalysisService analysisService = new EnhancedPdfAnalysisService();
+
+    @Test
+    void analyzePdfsForAdobe_ExpandsJobDirectoryToItsPdfs() throws Exception {
+        // Given
+        Path jobDir = tempDir.resolve("job-1");
+        Path pdfDir = Files.createDirectories(jobDir.resolve("PDFs"));
+        writePdf(pdfDir.resolve("b-cuisine.pdf"), "Coastal Cuisine");
+        writePdf(pdfDir.resolve("a-cities.pdf"), "Major Cities");
+        Files.writeString(pdfDir.resolve("notes.txt"), "not a pdf");
+
+        // When
+        Map<String, Object> analysis = analysisService.analyzePdfsForAdobe(jobDir.toString());
+
+        // Then
+        assertEquals(2, analysis.get("totalFiles"));
+        assertEquals(List.of("a-cities.pdf", "b-cuisine.pdf"), filenames(analysis));
+    }
+
+    @Test
+    void analyzePdfsForAdobe_StillAcceptsPdfPaths() throws Exception {
+        // Given
+        Path pdf = tempDir.resolve("guide.pdf");
+        writePdf(pdf, "Travel Tips");
+
+        // When
+        Map<String, Object> analysis = analysisService.analyzePdfsForAdobe(pdf + "," + tempDir.resolve("missing.pdf"));
+
+        // Then
+        assertEquals(List.of("guide.pdf"), filenames(analysis));
+    }
+
+    @Test
+    void analyzePdfsForAdobe_JobDirectoryWithoutPdfsYieldsNoFiles() throws Exception {
+        // When
+        Map<String, Object> analysis = analysisService.analyzePdfsForAdobe(tempDir.toString());
+
+        // Then
+        assertEquals(0, analysis.get("totalFiles"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> filenames(Map<String, Object> analysis) {
+        return ((List<Map<String, Object>>) analysis.get("files")).stream()
+                .map(file -> (String) file.get("filename"))
+                .collect(Collectors.toList());
+    }
+
+    private static void writePdf(Path file, String text) throws Exception {
+        try (PDDocument document = new PDDocument()) {
+            PDPage page = new PDPage();
+            document.addPage(page);
+            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                content.beginText();
+                content.setFont(PDType1Font.HELVETICA, 12);
+                content.newLineAtOffset(72, 720);
+                content.showText(text);
+                content.endText();
+            }
+            document.save(file.toFile());
+        }
+    }
+}
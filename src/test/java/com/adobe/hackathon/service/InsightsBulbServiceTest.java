@@ -0,0 +1,165 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.dto.AdobeAnalysisResponse;
+import com.adobe.hackathon.model.dto.JobStatusResponse;
+import com.adobe.hackathon.repository.AnalysisJobRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InsightsBulbServiceTest {
+
+    @Mock
+    private LLMIntegrationService llmService;
+
+    @Mock
+    private AdobeAnalysisService adobeAnalysisService;
+
+    @Mock
+    private PromptContextBuilder contextBuilder;
+
+    @Mock
+    private AnalysisJobRepository jobRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private InsightsBulbService insightsService;
+
+    @BeforeEach
+    void setUp() {
+        when(adobeAnalysisService.getJobStatus("job-1")).thenReturn(new JobStatusResponse("job-1", "COMPLETED", 1.0));
+        lenient().when(contextBuilder.build(any(), anyInt())).thenReturn("Coastal Adventures: beaches and sailing");
+    }
+
+    @Test
+    void generateInsights_CombinedPromptIsSplitIntoSections() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(insightsService, "combinedPrompt", true);
+        when(llmService.generateResponseAsync(anyString())).thenReturn(CompletableFuture.completedFuture("""
+                **KEY INSIGHTS:**
+                - The coast is best explored by boat in early summer
+                - Most beaches are reachable by public transport
+                ## Did You Know
+                1. The old harbour dates back to the twelfth century
+                CONTRADICTIONS
+                None
+                """));
+
+        // When
+        AdobeAnalysisResponse.InsightsBulb insights = insightsService.generateInsights("job-1");
+
+        // Then
+        assertEquals(List.of("The coast is best explored by boat in early summer",
+                "Most beaches are reachable by public transport"), insights.getKeyInsights());
+        assertEquals(List.of("The old harbour dates back to the twelfth century"), insights.getDidYouKnowFacts());
+        assertEquals(List.of("No significant contradictions found in the analyzed content"), insights.getContradictions());
+        // Missing from the response, so the defaults are used
+        assertEquals(3, insights.getConnections().size());
+        verify(llmService, times(1)).generateResponseAsync(anyString());
+    }
+
+    @Test
+    void generateInsights_TimedOutCallsAreCancelled() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(insightsService, "callTimeoutMs", 50L);
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+        when(llmService.generateResponseAsync(anyString())).thenAnswer(invocation -> {
+            CompletableFuture<String> call = new CompletableFuture<>();
+            calls.add(call);
+            return call;
+        });
+
+        // When
+        AdobeAnalysisResponse.InsightsBulb insights = insightsService.generateInsights("job-1");
+
+        // Then
+        assertEquals(4, calls.size());
+        assertTrue(calls.stream().allMatch(CompletableFuture::isCancelled));
+        assertEquals(3, insights.getKeyInsights().size());
+    }
+
+    @Test
+    void generateInsights_ServesPrecomputedColumnWithoutLoadingTheJob() throws Exception {
+        // Given
+        when(jobRepository.findPrecomputedInsights("job-1")).thenReturn(Optional.of(
+                "{\"keyInsights\":[\"Stored insight\"],\"didYouKnowFacts\":[],\"contradictions\":[],\"connections\":[]}"));
+
+        // When
+        AdobeAnalysisResponse.InsightsBulb insights = insightsService.generateInsights("job-1");
+
+        // Then
+        assertEquals(List.of("Stored insight"), insights.getKeyInsights());
+        verify(jobRepository, never()).findByJobId(anyString());
+        verifyNoInteractions(llmService);
+    }
+
+    @Test
+    void precomputeInsights_CallsTheLlmInBackgroundAndStoresTheResult() throws Exception {
+        // Given
+        when(llmService.generateResponse(anyString(), eq(true)))
+                .thenReturn("- The coast is best explored by boat in early summer");
+
+        // When
+        insightsService.precomputeInsights("job-1");
+
+        // Then
+        verify(llmService, times(4)).generateResponse(anyString(), eq(true));
+        verify(llmService, never()).generateResponseAsync(anyString());
+        verify(jobRepository).updatePrecomputedInsights(eq("job-1"),
+                contains("The coast is best explored by boat in early summer"));
+    }
+
+    @Test
+    void streamInsights_SharesAGenerationAlreadyRunning() throws Exception {
+        // Given
+        List<CompletableFuture<String>> calls = new CopyOnWriteArrayList<>();
+        when(llmService.generateResponseAsync(anyString())).thenAnswer(invocation -> {
+            CompletableFuture<String> call = new CompletableFuture<>();
+            calls.add(call);
+            return call;
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<AdobeAnalysisResponse.InsightsBulb> first = executor.submit(() -> insightsService.generateInsights("job-1"));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (calls.size() < 4 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS).execute(() ->
+                    calls.forEach(call -> call.complete("- The old harbour dates back to the twelfth century")));
+
+            // When
+            AdobeAnalysisResponse.InsightsBulb second = insightsService.generateInsights("job-1");
+
+            // Then
+            assertEquals(first.get(5, TimeUnit.SECONDS).getKeyInsights(), second.getKeyInsights());
+            assertEquals(List.of("The old harbour dates back to the twelfth century"), second.getKeyInsights());
+            assertEquals(4, calls.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.dto.AdobeAnalysisResponse;
+import com.adobe.hackathon.model.dto.PDFSectionInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobArtifactCacheTest {
+
+    private JobArtifactCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new JobArtifactCache();
+        ReflectionTestUtils.setField(cache, "maxBytes", 1000L);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_RehydratesMissOnceThenServesFromMemory() {
+        // When
+        Optional<JobArtifactCache.Artifacts> first = cache.get("job-1", this::load);
+        Optional<JobArtifactCache.Artifacts> second = cache.get("job-1", this::load);
+
+        // Then
+        assertTrue(first.isPresent());
+        assertSame(first.get(), second.get());
+        assertEquals(1, loads.get());
+        Map<String, Object> stats = cache.getStats();
+        assertEquals(1L, stats.get("hits"));
+        assertEquals(1L, stats.get("misses"));
+        assertEquals(400L, stats.get("weightBytes"));
+    }
+
+    @Test
+    void put_EvictsLeastRecentlyUsedUntilUnderWeight() {
+        // Given
+        cache.put("job-1", artifacts(400));
+        cache.put("job-2", artifacts(400));
+        cache.get("job-1", this::load);
+
+        // When
+        cache.put("job-3", artifacts(400));
+
+        // Then
+        Map<String, Object> stats = cache.getStats();
+        assertEquals(1L, stats.get("evictions"));
+        assertEquals(800L, stats.get("weightBytes"));
+        cache.get("job-2", this::load);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void put_DoesNotKeepEntriesHeavierThanTheCache() {
+        // Given
+        cache.put("job-1", artifacts(400));
+
+        // When
+        cache.put("job-2", artifacts(5000));
+
+        // Then
+        Map<String, Object> stats = cache.getStats();
+        assertEquals(1, stats.get("entries"));
+        assertEquals(400L, stats.get("weightBytes"));
+        assertEquals(0L, stats.get("evictions"));
+    }
+
+    @Test
+    void artifacts_WeighTheParsedGraphRatherThanItsJson() throws Exception {
+        // Given
+        List<PDFSectionInfo> sections = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            PDFSectionInfo section = new PDFSectionInfo("Coastal Adventures " + i, 1 + i / 10);
+            section.setId(i);
+            section.setKeywords(List.of("beach", "sailing"));
+            section.setContentPreview("Beaches are best explored by boat in early summer");
+            sections.add(section);
+        }
+        Map<String, Object> file = Map.of("fileName", "south-of-france.pdf", "sections", sections);
+        AdobeAnalysisResponse stored = new AdobeAnalysisResponse();
+        stored.setDocumentAnalysis(Map.of("files", List.of(file)));
+        stored.setHighlightedSections(sections.subList(0, 5));
+        ObjectMapper objectMapper = new ObjectMapper();
+        String resultJson = objectMapper.writeValueAsString(stored);
+        AdobeAnalysisResponse analysis = objectMapper.readValue(resultJson, AdobeAnalysisResponse.class);
+
+        // When
+        JobArtifactCache.Artifacts artifacts = new JobArtifactCache.Artifacts(analysis, analysis.getDocumentAnalysis());
+
+        // Then
+        assertTrue(artifacts.getWeight() > resultJson.length(),
+                "weight " + artifacts.getWeight() + " not above JSON length " + resultJson.length());
+        // The document analysis is shared with the response, so it is counted once
+        assertEquals(HeapWeigher.weigh(analysis), artifacts.getWeight());
+    }
+
+    private Optional<JobArtifactCache.Artifacts> load(String jobId) {
+        loads.incrementAndGet();
+        return Optional.of(artifacts(400));
+    }
+
+    private static JobArtifactCache.Artifacts artifacts(long weight) {
+        return new JobArtifactCache.Artifacts(new AdobeAnalysisResponse(), Map.of("files", List.of()), weight);
+    }
+}
@@ -0,0 +1,135 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.dto.PDFSectionInfo;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobCheckpointStoreTest {
+
+    private static final TypeReference<List<PDFSectionInfo>> SECTIONS = new TypeReference<>() {};
+    private static final TypeReference<Map<String, Object>> MAP = new TypeReference<>() {};
+
+    @TempDir
+    Path jobDir;
+
+    private JobCheckpointStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new JobCheckpointStore();
+        ReflectionTestUtils.setField(store, "objectMapper", new ObjectMapper());
+        store.init();
+    }
+
+    @Test
+    void save_WritesSmileThatLoadsBackUnchanged() {
+        // Given
+        PDFSectionInfo section = new PDFSectionInfo("Coastal Adventures", 3);
+        section.setKeywords(List.of("beach", "sailing"));
+
+        // When
+        store.save(jobDir.toString(), "highlighted-sections", List.of(section));
+        Optional<List<PDFSectionInfo>> loaded = store.load(jobDir.toString(), "highlighted-sections", SECTIONS);
+
+        // Then
+        assertTrue(Files.exists(jobDir.resolve("checkpoints/highlighted-sections.smile")));
+        assertTrue(loaded.isPresent());
+        assertEquals("Coastal Adventures", loaded.get().get(0).getTitle());
+        assertEquals(3, loaded.get().get(0).getPageNumber());
+        assertEquals(List.of("beach", "sailing"), loaded.get().get(0).getKeywords());
+    }
+
+    @Test
+    void load_ReadsJsonCheckpointsFromEarlierVersions() throws Exception {
+        // Given
+        Path legacy = jobDir.resolve("checkpoints/request.json");
+        Files.createDirectories(legacy.getParent());
+        Files.writeString(legacy, "{\"persona\":\"Travel Planner\"}");
+
+        // When
+        Optional<Map<String, Object>> loaded = store.load(jobDir.toString(), "request", new TypeReference<>() {});
+        store.save(jobDir.toString(), "request", loaded.get());
+
+        // Then
+        assertEquals("Travel Planner", loaded.get().get("persona"));
+        assertFalse(Files.exists(legacy));
+        assertTrue(store.exists(jobDir.toString(), "request"));
+    }
+
+    @Test
+    void loadOrCompute_ReusesCheckpointOnRetry() throws Exception {
+        // Given
+        AtomicInteger runs = new AtomicInteger();
+        JobCheckpointStore.StageComputation<Map<String, Object>> stage = () -> {
+            runs.incrementAndGet();
+            return Map.of("success", true, "totalFiles", 2);
+        };
+
+        // When
+        store.loadOrCompute(jobDir.toString(), "pdf-analysis", MAP, stage);
+        Map<String, Object> resumed = store.loadOrCompute(jobDir.toString(), "pdf-analysis", MAP, stage);
+
+        // Then
+        assertEquals(1, runs.get());
+        assertEquals(2, resumed.get("totalFiles"));
+    }
+
+    @Test
+    void loadOrCompute_DoesNotKeepFailedStageOutput() throws Exception {
+        // Given
+        AtomicInteger runs = new AtomicInteger();
+        JobCheckpointStore.StageComputation<Map<String, Object>> stage = () -> runs.incrementAndGet() == 1
+                ? Map.of("success", false, "error", "Failed to analyze PDFs: disk full")
+                : Map.of("success", true, "totalFiles", 1);
+
+        // When
+        Map<String, Object> failed = store.loadOrCompute(jobDir.toString(), "pdf-analysis", MAP, stage);
+        Map<String, Object> retried = store.loadOrCompute(jobDir.toString(), "pdf-analysis", MAP, stage);
+
+        // Then
+        assertEquals(false, failed.get("success"));
+        assertEquals(true, retried.get("success"));
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void loadOrCompute_RunsStageAgainOverFailureCheckpointedByEarlierVersions() throws Exception {
+        // Given
+        store.save(jobDir.toString(), "pdf-analysis", Map.of("error", "PDFs directory not found"));
+
+        // When
+        Map<String, Object> result = store.loadOrCompute(jobDir.toString(), "pdf-analysis", MAP,
+                () -> Map.of("success", true));
+
+        // Then
+        assertEquals(true, result.get("success"));
+        assertEquals(true, store.load(jobDir.toString(), "pdf-analysis", MAP).get().get("success"));
+    }
+
+    @Test
+    void deleteAll_RemovesCheckpointDirectory() {
+        // Given
+        store.save(jobDir.toString(), "pdf-analysis", Map.of("success", true));
+        store.save(jobDir.toString(), "request", Map.of("persona", "Travel Planner"));
+
+        // When
+        store.deleteAll(jobDir.toString());
+
+        // Then
+        assertFalse(Files.exists(jobDir.resolve(JobCheckpointStore.CHECKPOINT_DIR)));
+        assertFalse(store.exists(jobDir.toString(), "request"));
+    }
+}
@@ -0,0 +1,132 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.entity.AnalysisJob;
+import com.adobe.hackathon.repository.AnalysisJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JobLeaseServiceTest {
+
+    @Mock
+    private AnalysisJobRepository jobRepository;
+
+    @Mock
+    private JobRecoveryService recoveryService;
+
+    @Spy
+    private JobCancellationRegistry cancellationRegistry = new JobCancellationRegistry();
+
+    private JdbcTemplate jdbcTemplate;
+    private JobLeaseService nodeA;
+    private JobLeaseService nodeB;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:leases-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE analysis_jobs (job_id VARCHAR(64) PRIMARY KEY, status VARCHAR(32), " +
+                "lease_owner VARCHAR(255), lease_expires_at TIMESTAMP, created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO analysis_jobs (job_id, status) VALUES ('job-1', 'PENDING')");
+
+        AnalysisJob job = new AnalysisJob("job-1", "Travel Planner", "Plan a trip");
+        lenient().when(jobRepository.findByJobId("job-1")).thenReturn(Optional.of(job));
+        // Workers stay running for the whole test, so their leases are not released
+        lenient().when(recoveryService.dispatch(any())).thenAnswer(invocation -> new CompletableFuture<Void>());
+
+        nodeA = node("node-a");
+        nodeB = node("node-b");
+    }
+
+    @Test
+    void pollForJobs_OnlyOneNodeWinsTheClaim() {
+        // When
+        nodeA.pollForJobs();
+        nodeB.pollForJobs();
+
+        // Then
+        assertEquals("node-a", leaseOwner());
+        assertEquals(1, nodeA.getActiveJobCount());
+        assertEquals(0, nodeB.getActiveJobCount());
+        verify(recoveryService, times(1)).dispatch(any());
+    }
+
+    @Test
+    void pollForJobs_ExpiredLeaseIsTakenOver() {
+        // Given
+        nodeA.pollForJobs();
+        expireLease();
+
+        // When
+        nodeB.pollForJobs();
+
+        // Then
+        assertEquals("node-b", leaseOwner());
+        assertEquals(1, nodeB.getActiveJobCount());
+        verify(recoveryService, times(2)).dispatch(any());
+    }
+
+    @Test
+    void heartbeat_AfterTakeoverDoesNotRenewTheLease() {
+        // Given
+        nodeA.pollForJobs();
+        expireLease();
+        nodeB.pollForJobs();
+
+        // When
+        nodeA.heartbeat();
+
+        // Then
+        assertEquals("node-b", leaseOwner());
+        verify(cancellationRegistry, never()).cancel(anyString());
+    }
+
+    @Test
+    void heartbeat_StopsLocalWorkerOfJobCancelledElsewhere() {
+        // Given
+        nodeA.pollForJobs();
+        CancellationToken token = cancellationRegistry.begin("job-1");
+        jdbcTemplate.update("UPDATE analysis_jobs SET status = 'CANCELLED' WHERE job_id = 'job-1'");
+
+        // When
+        nodeA.heartbeat();
+
+        // Then
+        assertTrue(token.isCancelled());
+    }
+
+    private JobLeaseService node(String nodeId) {
+        JobLeaseService node = new JobLeaseService();
+        ReflectionTestUtils.setField(node, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(node, "jobRepository", jobRepository);
+        ReflectionTestUtils.setField(node, "recoveryService", recoveryService);
+        ReflectionTestUtils.setField(node, "cancellationRegistry", cancellationRegistry);
+        ReflectionTestUtils.setField(node, "workerEnabled", true);
+        ReflectionTestUtils.setField(node, "nodeId", nodeId);
+        return node;
+    }
+
+    private void expireLease() {
+        jdbcTemplate.update("UPDATE analysis_jobs SET lease_expires_at = DATEADD('SECOND', -1, CURRENT_TIMESTAMP) " +
+                "WHERE job_id = 'job-1'");
+    }
+
+    private String leaseOwner() {
+        return jdbcTemplate.queryForObject("SELECT lease_owner FROM analysis_jobs WHERE job_id = 'job-1'", String.class);
+    }
+}
@@ -0,0 +1,137 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.dto.JobStatusResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JobProgressTrackerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private JobMetrics jobMetrics;
+
+    @Spy
+    private JobCancellationRegistry cancellationRegistry = new JobCancellationRegistry();
+
+    @InjectMocks
+    private JobProgressTracker progressTracker;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_CoalescesUpdatesIntoSingleRow() {
+        // Given
+        progressTracker.update("job-1", "PROCESSING", 0.1);
+        progressTracker.update("job-1", "PROCESSING", 0.5);
+        progressTracker.update("job-2", "PROCESSING", 0.3);
+
+        // When
+        progressTracker.flush();
+        progressTracker.flush();
+
+        // Then
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), batch.capture());
+        assertEquals(2, batch.getValue().size());
+        Object[] job1 = batch.getValue().stream()
+                .filter(row -> "job-1".equals(row[3]))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(0.5, job1[1]);
+    }
+
+    @Test
+    void markTerminal_DropsLateUpdates() {
+        // Given
+        progressTracker.update("job-1", "PROCESSING", 0.4);
+        progressTracker.markTerminal("job-1", "CANCELLED");
+
+        // When
+        progressTracker.update("job-1", "PROCESSING", 0.7);
+        progressTracker.flush();
+
+        // Then
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        assertEquals("CANCELLED", progressTracker.getSnapshot("job-1").orElseThrow().getStatus());
+    }
+
+    @Test
+    void markTerminal_RecordsEachTransitionOnce() {
+        // Given
+        progressTracker.update("job-1", "PROCESSING", 0.1);
+        progressTracker.update("job-1", "PROCESSING", 0.6);
+
+        // When
+        progressTracker.markTerminal("job-1", "COMPLETED");
+        progressTracker.markTerminal("job-1", "COMPLETED");
+        progressTracker.markTerminal("job-2", "CANCELLED");
+
+        // Then
+        verify(jobMetrics, times(1)).recordStarted();
+        verify(jobMetrics, times(1)).recordFinished(eq("PROCESSING"), eq("COMPLETED"), notNull());
+        verify(jobMetrics).recordFinished("PENDING", "CANCELLED", null);
+    }
+
+    @Test
+    void flush_StopsWorkerOfJobCancelledElsewhere() {
+        // Given
+        CancellationToken token = cancellationRegistry.begin("job-1");
+        progressTracker.update("job-1", "PROCESSING", 0.4);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{0});
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("job-1"))).thenReturn(List.of("CANCELLED"));
+
+        // When
+        progressTracker.flush();
+
+        // Then
+        assertTrue(token.isCancelled());
+        assertEquals("CANCELLED", progressTracker.getSnapshot("job-1").orElseThrow().getStatus());
+    }
+
+    @Test
+    void complete_LeavesJobAlreadyCancelledUntouched() {
+        // Given
+        progressTracker.update("job-1", "PROCESSING", 0.9);
+        when(jdbcTemplate.update(anyString(), any(), eq("job-1"))).thenReturn(0);
+
+        // When
+        boolean completed = progressTracker.complete("job-1");
+
+        // Then
+        assertFalse(completed);
+        assertEquals("PROCESSING", progressTracker.getSnapshot("job-1").orElseThrow().getStatus());
+        verify(jobMetrics, never()).recordFinished(anyString(), anyString(), any());
+    }
+
+    @Test
+    void applyTo_OverlaysOnlyNonTerminalStatus() {
+        // Given
+        progressTracker.update("job-1", "PROCESSING", 0.8);
+        JobStatusResponse pending = new JobStatusResponse("job-1", "PENDING", 0.0);
+        JobStatusResponse completed = new JobStatusResponse("job-1", "COMPLETED", 1.0);
+
+        // When
+        progressTracker.applyTo(pending);
+        progressTracker.applyTo(completed);
+
+        // Then
+        assertEquals("PROCESSING", pending.getStatus());
+        assertEquals(0.8, pending.getProgress());
+        assertEquals("COMPLETED", completed.getStatus());
+        assertEquals(1.0, completed.getProgress());
+    }
+}
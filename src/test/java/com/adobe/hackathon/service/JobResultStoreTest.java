@@ -0,0 +1,193 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.entity.AnalysisJobResult;
+import com.adobe.hackathon.repository.AnalysisJobResultRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JobResultStoreTest {
+
+    private static final String RESULT_JSON =
+            "{\"sections\":[" + "{\"title\":\"Coastal Cuisine\",\"page\":1},".repeat(40) + "{\"title\":\"End\"}]}";
+
+    @TempDir
+    Path spillDir;
+
+    @Mock
+    private AnalysisJobResultRepository resultRepository;
+
+    @InjectMocks
+    private JobResultStore resultStore;
+
+    private JdbcTemplate jdbcTemplate;
+    private final Map<String, AnalysisJobResult> stored = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:results-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        ReflectionTestUtils.setField(resultStore, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(resultStore, "spillDir", spillDir.toString());
+
+        // Repository backed by a map
+        lenient().when(resultRepository.findByJobId(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(stored.get(invocation.<String>getArgument(0))));
+        lenient().when(resultRepository.save(any(AnalysisJobResult.class))).thenAnswer(invocation -> {
+            AnalysisJobResult result = invocation.getArgument(0);
+            stored.put(result.getJobId(), result);
+            return result;
+        });
+        lenient().when(resultRepository.findMetadataByJobId(anyString())).thenAnswer(invocation ->
+                Optional.ofNullable(stored.get(invocation.<String>getArgument(0))).map(result ->
+                        new AnalysisJobResultRepository.ResultMetadata() {
+                            @Override
+                            public long getOriginalSize() { return result.getOriginalSize(); }
+
+                            @Override
+                            public String getChecksum() { return result.getChecksum(); }
+                        }));
+    }
+
+    @Test
+    void save_ThenLoadRoundTripsThroughTheCodec() {
+        // When
+        resultStore.save("job-1", RESULT_JSON);
+
+        // Then
+        AnalysisJobResult result = stored.get("job-1");
+        assertEquals("DEFLATE", result.getCodec());
+        assertEquals(RESULT_JSON.length(), result.getOriginalSize());
+        assertTrue(result.getStoredSize() < result.getOriginalSize());
+        assertEquals(Optional.of(RESULT_JSON), resultStore.load("job-1"));
+    }
+
+    @Test
+    void getStats_TracksWritesWithoutScanningTheTable() {
+        // Given
+        when(resultRepository.deleteByJobId("job-1")).thenAnswer(invocation -> stored.remove("job-1") == null ? 0 : 1);
+        resultStore.save("job-1", "{\"title\":\"First attempt\"}");
+        resultStore.save("job-1", RESULT_JSON);
+        resultStore.save("job-2", RESULT_JSON);
+        long storedSize = stored.get("job-2").getStoredSize();
+
+        // When
+        Map<String, Object> afterSaves = resultStore.getStats();
+        resultStore.delete("job-1");
+        Map<String, Object> afterDelete = resultStore.getStats();
+
+        // Then
+        assertEquals(2L, afterSaves.get("results"));
+        assertEquals(2L * RESULT_JSON.length(), afterSaves.get("originalBytes"));
+        assertEquals(2L * storedSize, afterSaves.get("storedBytes"));
+        assertEquals(1L, afterDelete.get("results"));
+        assertEquals((long) RESULT_JSON.length(), afterDelete.get("originalBytes"));
+        assertEquals(storedSize, afterDelete.get("storedBytes"));
+        verify(resultRepository, never()).count();
+        verify(resultRepository, never()).sumOriginalSize();
+        verify(resultRepository, never()).sumStoredSize();
+    }
+
+    @Test
+    void load_CorruptChecksumIsRejected() {
+        // Given
+        resultStore.save("job-1", RESULT_JSON);
+        stored.get("job-1").setChecksum("0".repeat(64));
+
+        // When
+        RuntimeException error = assertThrows(RuntimeException.class, () -> resultStore.load("job-1"));
+
+        // Then
+        assertEquals("Stored result is corrupt for job: job-1", error.getMessage());
+    }
+
+    @Test
+    void openResult_LargeResultIsServedFromItsSpillFile() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(resultStore, "spillThresholdBytes", 100L);
+        resultStore.save("job-1", RESULT_JSON);
+
+        // When
+        JobResultStore.ResultBody body = resultStore.openResult("job-1").orElseThrow();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+
+        // Then
+        assertEquals(RESULT_JSON.length(), body.getLength());
+        assertEquals(RESULT_JSON, out.toString(StandardCharsets.UTF_8));
+        try (Stream<Path> files = Files.list(spillDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void migrateInlineResults_MovesResultAndClearsTheLegacyColumn() {
+        // Given
+        createLegacyTable();
+        jdbcTemplate.update("INSERT INTO analysis_jobs (job_id, result) VALUES ('job-1', ?)", RESULT_JSON);
+        jdbcTemplate.update("INSERT INTO analysis_jobs (job_id, result) VALUES ('job-2', NULL)");
+
+        // When
+        resultStore.migrateInlineResults();
+
+        // Then
+        assertEquals(Optional.of(RESULT_JSON), resultStore.load("job-1"));
+        assertFalse(stored.containsKey("job-2"));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM analysis_jobs WHERE result IS NOT NULL", Integer.class));
+    }
+
+    @Test
+    void migrateInlineResults_KeepsResultAlreadyInTheTable() {
+        // Given
+        createLegacyTable();
+        resultStore.save("job-1", "{\"sections\":[]}");
+        jdbcTemplate.update("INSERT INTO analysis_jobs (job_id, result) VALUES ('job-1', ?)", RESULT_JSON);
+
+        // When
+        resultStore.migrateInlineResults();
+
+        // Then
+        assertEquals(Optional.of("{\"sections\":[]}"), resultStore.load("job-1"));
+        assertNull(jdbcTemplate.queryForObject(
+                "SELECT result FROM analysis_jobs WHERE job_id = 'job-1'", String.class));
+    }
+
+    @Test
+    void migrateInlineResults_SchemaWithoutResultColumnIsSkipped() {
+        // Given
+        jdbcTemplate.execute("CREATE TABLE analysis_jobs (job_id VARCHAR(64) PRIMARY KEY)");
+
+        // When
+        resultStore.migrateInlineResults();
+
+        // Then
+        verify(resultRepository, never()).save(any());
+    }
+
+    private void createLegacyTable() {
+        jdbcTemplate.execute("CREATE TABLE analysis_jobs (job_id VARCHAR(64) PRIMARY KEY, result CLOB)");
+    }
+}
@@ -0,0 +1,218 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.config.HttpClientConfiguration;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LLMIntegrationServiceTest {
+
+    private static final String GEMINI_OK =
+            "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"Beaches are best in June\"}]}}]}";
+
+    private HttpServer stubServer;
+    private ExecutorService stubExecutor;
+    private ExecutorService ioExecutor;
+    private OutboundCallLimiter callLimiter;
+    private ProviderCircuitBreaker circuitBreaker;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private LLMIntegrationService llmService;
+    private final CountDownLatch requestReceived = new CountDownLatch(1);
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int status = 503;
+    private volatile long responseDelayMs;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Stub provider answering 503 unless a test says otherwise, so calls go into backoff
+        stubServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stubExecutor = Executors.newCachedThreadPool();
+        stubServer.setExecutor(stubExecutor);
+        stubServer.createContext("/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            requests.incrementAndGet();
+            requestReceived.countDown();
+            try {
+                Thread.sleep(responseDelayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (status == 200) {
+                byte[] body = GEMINI_OK.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            } else {
+                exchange.sendResponseHeaders(status, -1);
+            }
+            exchange.close();
+        });
+        stubServer.start();
+
+        ioExecutor = Executors.newFixedThreadPool(2);
+        callLimiter = new OutboundCallLimiter();
+        ReflectionTestUtils.setField(callLimiter, "defaultLimit", 1);
+        circuitBreaker = new ProviderCircuitBreaker();
+
+        HttpClientConfiguration httpConfiguration = new HttpClientConfiguration();
+        connectionManager = httpConfiguration.outboundConnectionManager(10, 10, 5000, 30_000);
+        httpClient = httpConfiguration.outboundHttpClient(connectionManager, 5000, 30_000);
+
+        llmService = new LLMIntegrationService();
+        ReflectionTestUtils.setField(llmService, "llmProvider", "gemini");
+        ReflectionTestUtils.setField(llmService, "apiKey", "test-key");
+        ReflectionTestUtils.setField(llmService, "model", "test-model");
+        ReflectionTestUtils.setField(llmService, "timeout", 30_000);
+        ReflectionTestUtils.setField(llmService, "geminiBaseUrl", "http://localhost:" + stubServer.getAddress().getPort());
+        ReflectionTestUtils.setField(llmService, "ioExecutor", ioExecutor);
+        ReflectionTestUtils.setField(llmService, "callLimiter", callLimiter);
+        LlmResponseCache responseCache = new LlmResponseCache();
+        ReflectionTestUtils.setField(responseCache, "enabled", false);
+        ReflectionTestUtils.setField(llmService, "responseCache", responseCache);
+        ReflectionTestUtils.setField(llmService, "circuitBreaker", circuitBreaker);
+        ReflectionTestUtils.setField(llmService, "restTemplate", httpConfiguration.outboundRestTemplate(httpClient, 5000));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        stubServer.stop(0);
+        stubExecutor.shutdownNow();
+        ioExecutor.shutdownNow();
+        httpClient.close();
+        connectionManager.close();
+    }
+
+    @Test
+    void generateResponseAsync_CancelStopsTheCallAndFreesItsPermit() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(llmService, "initialBackoffMs", 10_000L);
+        ReflectionTestUtils.setField(llmService, "maxBackoffMs", 10_000L);
+        CompletableFuture<String> call = llmService.generateResponseAsync("Summarise the document");
+        assertTrue(requestReceived.await(5, TimeUnit.SECONDS));
+
+        // When
+        call.cancel(true);
+
+        // Then
+        long deadline = System.currentTimeMillis() + 5000;
+        while (callLimiter.getAvailablePermits("gemini") == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, callLimiter.getAvailablePermits("gemini"));
+    }
+
+    @Test
+    void generateResponse_GivesUpAfterMaxAttempts() {
+        // Given
+        ReflectionTestUtils.setField(llmService, "initialBackoffMs", 10L);
+        ReflectionTestUtils.setField(llmService, "maxBackoffMs", 10L);
+
+        // When
+        HttpServerErrorException error = assertThrows(HttpServerErrorException.class,
+                () -> llmService.generateResponse("Summarise the document"));
+
+        // Then
+        assertEquals(503, error.getStatusCode().value());
+        assertEquals(3, requests.get());
+        assertEquals(1, callLimiter.getAvailablePermits("gemini"));
+    }
+
+    @Test
+    void generateResponse_PermitIsFreeWhileBackingOff() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(llmService, "initialBackoffMs", 2000L);
+        ReflectionTestUtils.setField(llmService, "maxBackoffMs", 2000L);
+        CompletableFuture<String> call = llmService.generateResponseAsync("Summarise the document");
+        assertTrue(requestReceived.await(5, TimeUnit.SECONDS));
+
+        // When
+        long deadline = System.currentTimeMillis() + 1000;
+        while (callLimiter.getAvailablePermits("gemini") == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // Then
+        assertEquals(1, requests.get());
+        assertEquals(1, callLimiter.getAvailablePermits("gemini"));
+        call.cancel(true);
+    }
+
+    @Test
+    void generateResponse_AttemptIsCutShortAtTheDeadline() {
+        // Given
+        responseDelayMs = 5000;
+        ReflectionTestUtils.setField(llmService, "totalTimeoutMs", 300L);
+
+        // When
+        long start = System.currentTimeMillis();
+        assertThrows(ResourceAccessException.class, () -> llmService.generateResponse("Summarise the document"));
+        long elapsed = System.currentTimeMillis() - start;
+
+        // Then
+        assertTrue(elapsed < 2000, "call took " + elapsed + "ms");
+        assertEquals(1, requests.get());
+        assertEquals(1, callLimiter.getAvailablePermits("gemini"));
+    }
+
+    @Test
+    void generateResponse_OpenCircuitServesFallbackWithoutCallingProvider() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(llmService, "maxAttempts", 1);
+        ReflectionTestUtils.setField(circuitBreaker, "failureThreshold", 2);
+        assertThrows(HttpServerErrorException.class, () -> llmService.generateResponse("Summarise the document"));
+        assertThrows(HttpServerErrorException.class, () -> llmService.generateResponse("Summarise the document"));
+
+        // When
+        String response = llmService.generateResponse("Summarise the document");
+
+        // Then
+        assertEquals(ProviderCircuitBreaker.State.OPEN, circuitBreaker.getState("gemini"));
+        assertNotNull(response);
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void generateResponse_HalfOpenTrialClosesOrReopensTheCircuit() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(llmService, "maxAttempts", 1);
+        ReflectionTestUtils.setField(circuitBreaker, "failureThreshold", 1);
+        ReflectionTestUtils.setField(circuitBreaker, "openMs", 50L);
+        assertThrows(HttpServerErrorException.class, () -> llmService.generateResponse("Summarise the document"));
+        assertEquals(ProviderCircuitBreaker.State.OPEN, circuitBreaker.getState("gemini"));
+
+        // When the trial request fails
+        Thread.sleep(100);
+        assertThrows(HttpServerErrorException.class, () -> llmService.generateResponse("Summarise the document"));
+
+        // Then
+        assertEquals(ProviderCircuitBreaker.State.OPEN, circuitBreaker.getState("gemini"));
+
+        // When the next trial succeeds
+        Thread.sleep(100);
+        status = 200;
+        String response = llmService.generateResponse("Summarise the document");
+
+        // Then
+        assertEquals("Beaches are best in June", response);
+        assertEquals(ProviderCircuitBreaker.State.CLOSED, circuitBreaker.getState("gemini"));
+        assertEquals(3, requests.get());
+    }
+}
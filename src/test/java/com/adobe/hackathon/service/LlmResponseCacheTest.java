@@ -0,0 +1,95 @@
+package com.adobe.hackathon.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LlmResponseCacheTest {
+
+    @TempDir
+    Path cacheDir;
+
+    private LlmResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = newCache();
+    }
+
+    @Test
+    void get_ReturnsStoredResponseForIdenticalPrompt() {
+        // Given
+        cache.put("gemini", "gemini-2.5-flash", "Summarize the document", "A summary");
+
+        // When
+        Optional<String> hit = cache.get("gemini", "gemini-2.5-flash", "Summarize the document");
+        Optional<String> otherModel = cache.get("gemini", "gemini-pro", "Summarize the document");
+
+        // Then
+        assertEquals(Optional.of("A summary"), hit);
+        assertTrue(otherModel.isEmpty());
+        Map<String, Object> stats = cache.getStats();
+        assertEquals(1L, stats.get("memoryHits"));
+        assertEquals(1L, stats.get("misses"));
+        assertEquals(0.5, (double) stats.get("hitRate"), 0.0001);
+    }
+
+    @Test
+    void get_ServesFromDiskAfterRestart() {
+        // Given
+        cache.put("openai", "gpt-4o", "prompt", "persisted response");
+
+        // When
+        LlmResponseCache restarted = newCache();
+        Optional<String> hit = restarted.get("openai", "gpt-4o", "prompt");
+
+        // Then
+        assertEquals(Optional.of("persisted response"), hit);
+        assertEquals(1L, restarted.getStats().get("diskHits"));
+    }
+
+    @Test
+    void get_IgnoresExpiredEntries() {
+        // Given
+        ReflectionTestUtils.setField(cache, "ttlMs", -1L);
+        cache.put("gemini", "gemini-2.5-flash", "prompt", "stale");
+
+        // When
+        Optional<String> hit = cache.get("gemini", "gemini-2.5-flash", "prompt");
+
+        // Then
+        assertTrue(hit.isEmpty());
+    }
+
+    @Test
+    void put_EvictsLeastRecentlyUsedFromMemory() {
+        // Given
+        ReflectionTestUtils.setField(cache, "maxMemoryEntries", 2);
+        cache.put("gemini", "m", "first", "1");
+        cache.put("gemini", "m", "second", "2");
+        cache.get("gemini", "m", "first");
+
+        // When
+        cache.put("gemini", "m", "third", "3");
+
+        // Then
+        assertEquals(2, cache.getStats().get("memoryEntries"));
+        cache.get("gemini", "m", "second");
+        assertEquals(1L, cache.getStats().get("diskHits"));
+    }
+
+    private LlmResponseCache newCache() {
+        LlmResponseCache newCache = new LlmResponseCache();
+        ReflectionTestUtils.setField(newCache, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(newCache, "cacheDir", cacheDir.toString());
+        return newCache;
+    }
+}
@@ -0,0 +1,82 @@
+package com.adobe.hackathon.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboundCallLimiterTest {
+
+    private OutboundCallLimiter limiter;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new OutboundCallLimiter();
+        ReflectionTestUtils.setField(limiter, "environment",
+                new MockEnvironment().withProperty("app.io.max-concurrent.tts", "1"));
+        ReflectionTestUtils.setField(limiter, "defaultLimit", 4);
+        ReflectionTestUtils.setField(limiter, "acquireTimeoutMs", 100L);
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void call_HoldsPermitOnlyWhileRunning() throws Exception {
+        // When
+        int during = limiter.call("gemini", () -> limiter.getAvailablePermits("gemini"));
+
+        // Then
+        assertEquals(3, during);
+        assertEquals(4, limiter.getAvailablePermits("gemini"));
+        assertEquals(1, limiter.getAvailablePermits("tts"));
+    }
+
+    @Test
+    void call_ReleasesPermitWhenCallThrows() {
+        // When
+        assertThrows(IOException.class, () -> limiter.call("tts", () -> {
+            throw new IOException("connection reset");
+        }));
+
+        // Then
+        assertEquals(1, limiter.getAvailablePermits("tts"));
+    }
+
+    @Test
+    void call_TimesOutWhenProviderIsSaturated() throws Exception {
+        // Given
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        Future<Object> inFlight = executor.submit(() -> limiter.call("tts", () -> {
+            holding.countDown();
+            return finish.await(5, TimeUnit.SECONDS);
+        }));
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+        // When
+        RuntimeException error = assertThrows(RuntimeException.class, () -> limiter.call("tts", () -> "second"));
+        int otherProvider = limiter.call("gemini", () -> 1);
+        finish.countDown();
+        inFlight.get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals("Too many concurrent calls to provider: tts", error.getMessage());
+        assertEquals(1, otherProvider);
+        assertEquals(1, limiter.getAvailablePermits("tts"));
+    }
+}
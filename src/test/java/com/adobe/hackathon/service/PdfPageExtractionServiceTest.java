@@ -0,0 +1,130 @@
+package com.adobe.hackathon.service;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PdfPageExtractionServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ForkJoinPool forkJoinPool;
+    private PdfPageExtractionService extractionService;
+
+    @BeforeEach
+    void setUp() {
+        forkJoinPool = new ForkJoinPool(4);
+        extractionService = new PdfPageExtractionService();
+        ReflectionTestUtils.setField(extractionService, "forkJoinPool", forkJoinPool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        forkJoinPool.shutdownNow();
+    }
+
+    @Test
+    void extractPages_ChunkedResultMatchesSequentialOrder() throws IOException {
+        // Given
+        List<File> files = Arrays.asList(
+                createPdf("large.pdf", 23),
+                createPdf("small.pdf", 2),
+                createPdf("medium.pdf", 7));
+
+        ReflectionTestUtils.setField(extractionService, "pagesPerChunk", 1000);
+        List<PdfPageExtractionService.DocumentPages> sequential =
+                extractionService.extractPages(files, CancellationToken.NONE);
+
+        // When
+        ReflectionTestUtils.setField(extractionService, "pagesPerChunk", 2);
+        List<PdfPageExtractionService.DocumentPages> chunked =
+                extractionService.extractPages(files, CancellationToken.NONE);
+
+        // Then
+        assertEquals(3, chunked.size());
+        for (int i = 0; i < files.size(); i++) {
+            assertEquals(files.get(i), chunked.get(i).getFile());
+            assertEquals(sequential.get(i).getPages(), chunked.get(i).getPages());
+        }
+        assertEquals(23, chunked.get(0).getPageCount());
+        assertTrue(chunked.get(0).getPages().get(22).contains("large.pdf page 23"));
+    }
+
+    @Test
+    void extractPages_UnreadableDocumentReportsError() throws IOException {
+        // Given
+        File broken = tempDir.resolve("broken.pdf").toFile();
+        Files.writeString(broken.toPath(), "not a pdf");
+
+        // When
+        List<PdfPageExtractionService.DocumentPages> result = extractionService.extractPages(
+                Arrays.asList(createPdf("ok.pdf", 1), broken), CancellationToken.NONE);
+
+        // Then
+        assertTrue(result.get(0).isSuccess());
+        assertFalse(result.get(1).isSuccess());
+        assertNotNull(result.get(1).getError());
+    }
+
+    @Test
+    void score_WritesEachScoreToItsCandidateSlot() {
+        // Given
+        ReflectionTestUtils.setField(extractionService, "candidatesPerBlock", 3);
+        List<Integer> candidates = Arrays.asList(5, 1, 9, 4, 7, 2, 8, 3, 6, 0);
+
+        // When
+        double[] scores = extractionService.score(candidates, value -> value * 10.0, CancellationToken.NONE);
+
+        // Then
+        for (int i = 0; i < candidates.size(); i++) {
+            assertEquals(candidates.get(i) * 10.0, scores[i]);
+        }
+    }
+
+    @Test
+    void extractPages_CancelledTokenStopsExtraction() throws IOException {
+        // Given
+        CancellationToken token = new CancellationToken("job-1");
+        token.cancel();
+
+        // When & Then
+        assertThrows(JobCancelledException.class, () ->
+                extractionService.extractPages(Arrays.asList(createPdf("doc.pdf", 3)), token));
+    }
+
+    private File createPdf(String name, int pages) throws IOException {
+        File file = tempDir.resolve(name).toFile();
+        try (PDDocument document = new PDDocument()) {
+            for (int page = 1; page <= pages; page++) {
+                PDPage pdPage = new PDPage();
+                document.addPage(pdPage);
+                try (PDPageContentStream content = new PDPageContentStream(document, pdPage)) {
+                    content.beginText();
+                    content.setFont(PDType1Font.HELVETICA, 12);
+                    content.newLineAtOffset(72, 700);
+                    content.showText(name + " page " + page);
+                    content.endText();
+                }
+            }
+            document.save(file);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,80 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.dto.PDFSectionInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PromptContextBuilderTest {
+
+    private final PromptContextBuilder contextBuilder = new PromptContextBuilder();
+
+    @Test
+    void build_OrdersSectionsByRelevance() {
+        // Given
+        PDFSectionInfo low = section("Appendix", 9, 0.2, "Reference tables and glossary of terms.");
+        PDFSectionInfo high = section("Results", 4, 0.9, "The model improves accuracy on every benchmark.");
+
+        // When
+        String context = contextBuilder.build(Arrays.asList(low, high), 1000);
+
+        // Then
+        assertTrue(context.indexOf("Results (page 4)") < context.indexOf("Appendix (page 9)"));
+    }
+
+    @Test
+    void build_SkipsNearDuplicateSections() {
+        // Given
+        String text = "Gradient boosting combines many weak learners into a strong ensemble model for tabular data.";
+        PDFSectionInfo original = section("Methods", 2, 0.8, text);
+        PDFSectionInfo duplicate = section("Methods", 2, 0.7, text + " ");
+        PDFSectionInfo other = section("Evaluation", 5, 0.6, "Cross validation with five folds was used throughout.");
+
+        // When
+        String context = contextBuilder.build(Arrays.asList(original, duplicate, other), 1000);
+
+        // Then
+        assertEquals(context.indexOf("Gradient boosting"), context.lastIndexOf("Gradient boosting"));
+        assertTrue(context.contains("Cross validation"));
+    }
+
+    @Test
+    void build_StaysWithinTokenBudget() {
+        // Given
+        String longText = String.join(" ", Collections.nCopies(400, "token"));
+        PDFSectionInfo first = section("Introduction", 1, 0.9, "A short overview of the document.");
+        PDFSectionInfo second = section("Details", 3, 0.5, longText);
+
+        // When
+        String context = contextBuilder.build(Arrays.asList(first, second), 50);
+
+        // Then
+        assertTrue(contextBuilder.estimateTokens(context) <= 50);
+        assertTrue(context.contains("Introduction"));
+        assertFalse(context.contains("Details"));
+    }
+
+    @Test
+    void build_TruncatesSingleOversizedSection() {
+        // Given
+        String longText = String.join(" ", Collections.nCopies(400, "token"));
+        PDFSectionInfo only = section("Details", 3, 0.5, longText);
+
+        // When
+        String context = contextBuilder.build(Collections.singletonList(only), 40);
+
+        // Then
+        assertFalse(context.isEmpty());
+        assertTrue(contextBuilder.estimateTokens(context) <= 40);
+    }
+
+    private PDFSectionInfo section(String title, int page, double score, String content) {
+        PDFSectionInfo section = new PDFSectionInfo(title, page);
+        section.setRelevanceScore(score);
+        section.setContentPreview(content);
+        return section;
+    }
+}
@@ -0,0 +1,35 @@
+package com.adobe.hackathon.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultCodecTest {
+
+    private static final byte[] RESULT = "{\"sections\":[{\"title\":\"Coastal Cuisine\",\"page\":1},{\"title\":\"Coastal Cities\",\"page\":2}]}"
+            .repeat(50).getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void deflate_RoundTripsAndShrinksRepetitiveJson() {
+        // When
+        byte[] encoded = ResultCodec.DEFLATE.encode(RESULT);
+
+        // Then
+        assertTrue(encoded.length < RESULT.length / 5);
+        assertArrayEquals(RESULT, ResultCodec.DEFLATE.decode(encoded));
+    }
+
+    @Test
+    void identity_StoresBytesUnchanged() {
+        assertArrayEquals(RESULT, ResultCodec.IDENTITY.decode(ResultCodec.IDENTITY.encode(RESULT)));
+    }
+
+    @Test
+    void forName_IgnoresCaseAndRejectsUnknownCodecs() {
+        assertEquals(ResultCodec.DEFLATE, ResultCodec.forName(" Deflate "));
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> ResultCodec.forName("zstd"));
+        assertEquals("Unknown result codec: zstd", error.getMessage());
+    }
+}
@@ -0,0 +1,103 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.repository.AnalysisJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RetentionServiceTest {
+
+    @Mock
+    private AnalysisJobRepository jobRepository;
+
+    @Mock
+    private JobResultStore resultStore;
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @Mock
+    private TextToSpeechService ttsService;
+
+    @Mock
+    private JobMetrics jobMetrics;
+
+    @Mock
+    private JobArtifactCache artifactCache;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private RetentionService retentionService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(retentionService, "failedDays", 0);
+        ReflectionTestUtils.setField(retentionService, "cancelledDays", 0);
+        ReflectionTestUtils.setField(retentionService, "compressResultsAfterDays", 0);
+        ReflectionTestUtils.setField(retentionService, "audioDays", 0);
+    }
+
+    @Test
+    void runRetention_ClaimedJobLosesFilesResultAndAudio() {
+        // Given
+        when(jobRepository.findExpired(eq("COMPLETED"), any(), any())).thenReturn(List.of(expiredJob("job-1")));
+        when(jobRepository.deleteByJobIdAndStatus("job-1", "COMPLETED")).thenReturn(1);
+        when(resultStore.delete("job-1")).thenReturn(100L);
+        when(ttsService.deleteAudioForJob("job-1")).thenReturn(50L);
+
+        // When
+        retentionService.runRetention();
+
+        // Then
+        verify(fileStorageService).deleteJobFiles("uploads/job-1");
+        verify(artifactCache).invalidate("job-1");
+        verify(jobMetrics).recordTransition("COMPLETED", "DELETED");
+        Map<String, Object> stats = retentionService.getStats();
+        assertEquals(1L, stats.get("jobsDeleted"));
+        assertEquals(150L, stats.get("reclaimedBytes"));
+    }
+
+    @Test
+    void runRetention_RequeuedJobIsLeftAlone() {
+        // Given
+        when(jobRepository.findExpired(eq("COMPLETED"), any(), any())).thenReturn(List.of(expiredJob("job-1")));
+        when(jobRepository.deleteByJobIdAndStatus("job-1", "COMPLETED")).thenReturn(0);
+
+        // When
+        retentionService.runRetention();
+
+        // Then
+        verifyNoInteractions(fileStorageService, resultStore, ttsService, artifactCache, jobMetrics);
+        verify(jobRepository, never()).deleteByJobId(anyString());
+        assertEquals(0L, retentionService.getStats().get("jobsDeleted"));
+    }
+
+    private static AnalysisJobRepository.ExpiredJob expiredJob(String jobId) {
+        return new AnalysisJobRepository.ExpiredJob() {
+            @Override
+            public String getJobId() {
+                return jobId;
+            }
+
+            @Override
+            public String getFilePaths() {
+                return "uploads/" + jobId;
+            }
+        };
+    }
+}
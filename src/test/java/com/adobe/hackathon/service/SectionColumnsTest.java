@@ -0,0 +1,128 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.dto.PDFSectionInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SectionColumnsTest {
+
+    private SectionColumns columns;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, Object> documentAnalysis = Map.of("files", List.of(
+                Map.of("sections", List.of(
+                        section(1, "Coastal Adventures", 1, 0.95, "beach", "sailing"),
+                        section(2, "Packing Tips", 2, 0.60, "luggage"),
+                        section(3, "Nightlife", 2, 0.85, "bars"))),
+                Map.of("sections", List.of(
+                        section(1, "Local Cuisine", 2, 0.90, "food", "wine"),
+                        section(2, "Beach Clubs", 5, 0.40, "music")))));
+
+        // Highlighted sections read back from a stored result are copies, not the same objects
+        List<PDFSectionInfo> highlighted = List.of(
+                section(1, "Coastal Adventures", 1, 0.95, "beach", "sailing"),
+                section(1, "Local Cuisine", 2, 0.90, "food", "wine"),
+                section(2, "Packing Tips", 2, 0.60, "luggage"));
+
+        columns = SectionColumns.of(documentAnalysis, highlighted);
+    }
+
+    @Test
+    void highlightedAbove_ReturnsOnlyHighlightedRowsBestFirst() {
+        // When
+        int[] rows = columns.highlightedAbove(0.8);
+
+        // Then
+        assertEquals(List.of("Coastal Adventures", "Local Cuisine"), titles(rows));
+        assertEquals(0.925, columns.averageScore(rows), 0.0001);
+        assertEquals(5, columns.size());
+    }
+
+    @Test
+    void search_MatchesTitlePreviewAndKeywordsIgnoringCase() {
+        // When
+        List<String> beach = titles(columns.search("BEACH", 10));
+        List<String> limited = titles(columns.search("i", 2));
+
+        // Then
+        assertEquals(List.of("Coastal Adventures", "Beach Clubs"), beach);
+        assertEquals(List.of("Coastal Adventures", "Local Cuisine"), limited);
+        assertEquals(0, columns.search("castle", 10).length);
+    }
+
+    @Test
+    void onPage_SelectsRowsOfOneDocument() {
+        // When
+        List<String> firstDocument = titles(columns.onPage(0, 2));
+        List<String> secondDocument = titles(columns.onPage(1, 2));
+
+        // Then
+        assertEquals(List.of("Packing Tips", "Nightlife"), firstDocument);
+        assertEquals(List.of("Local Cuisine"), secondDocument);
+    }
+
+    @Test
+    void findHighlighted_IgnoresSectionsThatAreNotHighlighted() {
+        // When
+        int highlighted = columns.findHighlighted(2);
+        int missing = columns.findHighlighted(3);
+
+        // Then
+        assertEquals("Packing Tips", columns.section(highlighted).getTitle());
+        assertEquals(-1, missing);
+    }
+
+    @Test
+    void findHighlighted_SharedIdReturnsTheFirstHighlightedSection() {
+        // Given
+        Map<String, Object> documentAnalysis = Map.of("files", List.of(
+                Map.of("sections", List.of(section(1, "Coastal Adventures", 1, 0.70, "beach"))),
+                Map.of("sections", List.of(section(1, "Local Cuisine", 1, 0.90, "food")))));
+        columns = SectionColumns.of(documentAnalysis, List.of(
+                section(1, "Local Cuisine", 1, 0.90, "food"),
+                section(1, "Coastal Adventures", 1, 0.70, "beach")));
+
+        // When
+        int row = columns.findHighlighted(1);
+
+        // Then
+        assertEquals("Local Cuisine", columns.section(row).getTitle());
+    }
+
+    @Test
+    void highlightedAbove_EqualScoresKeepHighlightedOrder() {
+        // Given
+        Map<String, Object> documentAnalysis = Map.of("files", List.of(Map.of("sections", List.of(
+                section(1, "Coastal Adventures", 1, 0.80, "beach"),
+                section(2, "Local Cuisine", 2, 0.80, "food")))));
+        columns = SectionColumns.of(documentAnalysis, List.of(
+                section(2, "Local Cuisine", 2, 0.80, "food"),
+                section(1, "Coastal Adventures", 1, 0.80, "beach")));
+
+        // When
+        List<String> ranked = titles(columns.highlightedAbove(0.5));
+
+        // Then
+        assertEquals(List.of("Local Cuisine", "Coastal Adventures"), ranked);
+    }
+
+    private List<String> titles(int[] rows) {
+        return columns.sections(rows).stream().map(PDFSectionInfo::getTitle).collect(Collectors.toList());
+    }
+
+    private static PDFSectionInfo section(int id, String title, int page, double score, String... keywords) {
+        PDFSectionInfo section = new PDFSectionInfo(title, page);
+        section.setId(id);
+        section.setRelevanceScore(score);
+        section.setContentPreview("About " + title.toLowerCase());
+        section.setKeywords(List.of(keywords));
+        return section;
+    }
+}
@@ -0,0 +1,91 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.dto.AdobeAnalysisRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SpeculativePrecomputeServiceTest {
+
+    @Mock
+    private InsightsBulbService insightsBulbService;
+
+    @Mock
+    private PodcastGenerationService podcastService;
+
+    @Mock
+    private LLMIntegrationService llmService;
+
+    @InjectMocks
+    private SpeculativePrecomputeService precomputeService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(precomputeService, "enabled", true);
+    }
+
+    @Test
+    void onAnalysisCompleted_PrecomputesWhatTheRequestAskedFor() throws Exception {
+        // Given
+        when(llmService.isAvailable()).thenReturn(true);
+
+        // When
+        precomputeService.onAnalysisCompleted(new AdobeAnalysisCompletedEvent("job-1", request(true, true)));
+
+        // Then
+        verify(insightsBulbService).precomputeInsights("job-1");
+        verify(podcastService).precomputePodcast("job-1", 120);
+    }
+
+    @Test
+    void onAnalysisCompleted_SkipsWorkThatWasNotRequested() throws Exception {
+        // Given
+        when(llmService.isAvailable()).thenReturn(true);
+
+        // When
+        precomputeService.onAnalysisCompleted(new AdobeAnalysisCompletedEvent("job-1", request(true, false)));
+
+        // Then
+        verify(insightsBulbService).precomputeInsights("job-1");
+        verifyNoInteractions(podcastService);
+    }
+
+    @Test
+    void onAnalysisCompleted_SkipsEverythingWhenLlmIsUnavailable() {
+        // Given
+        when(llmService.isAvailable()).thenReturn(false);
+
+        // When
+        precomputeService.onAnalysisCompleted(new AdobeAnalysisCompletedEvent("job-1", request(true, true)));
+
+        // Then
+        verifyNoInteractions(insightsBulbService, podcastService);
+    }
+
+    @Test
+    void onAnalysisCompleted_InsightsFailureStillPrecomputesPodcast() throws Exception {
+        // Given
+        when(llmService.isAvailable()).thenReturn(true);
+        doThrow(new RuntimeException("Job not found: job-1")).when(insightsBulbService).precomputeInsights("job-1");
+
+        // When
+        precomputeService.onAnalysisCompleted(new AdobeAnalysisCompletedEvent("job-1", request(true, true)));
+
+        // Then
+        verify(podcastService).precomputePodcast("job-1", 120);
+    }
+
+    private static AdobeAnalysisRequest request(boolean insights, boolean podcast) {
+        AdobeAnalysisRequest request = new AdobeAnalysisRequest();
+        request.setGenerateInsights(insights);
+        request.setEnablePodcastMode(podcast);
+        return request;
+    }
+}
@@ -0,0 +1,144 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.dto.AdobeAnalysisRequest;
+import com.adobe.hackathon.model.entity.AnalysisJob;
+import com.adobe.hackathon.repository.AnalysisJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SubmissionDeduplicatorTest {
+
+    @Mock
+    private AnalysisJobRepository jobRepository;
+
+    @InjectMocks
+    private SubmissionDeduplicator deduplicator;
+
+    private final MultipartFile[] files = {
+            new MockMultipartFile("files", "a.pdf", "application/pdf", "first".getBytes()),
+            new MockMultipartFile("files", "b.pdf", "application/pdf", "second".getBytes())
+    };
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(deduplicator, "dedupWindowMs", 1000L);
+        ReflectionTestUtils.setField(deduplicator, "attachTimeoutMs", 1000L);
+    }
+
+    @Test
+    void fingerprint_IgnoresUploadOrderButNotAdobeOptions() throws Exception {
+        // Given
+        MultipartFile[] reordered = {files[1], files[0]};
+        AdobeAnalysisRequest plain = new AdobeAnalysisRequest("Travel Planner", "Plan a trip");
+        AdobeAnalysisRequest withInsights = new AdobeAnalysisRequest("Travel Planner", "Plan a trip");
+        withInsights.setGenerateInsights(true);
+        AdobeAnalysisRequest withPodcast = new AdobeAnalysisRequest("Travel Planner", "Plan a trip");
+        withPodcast.setEnablePodcastMode(true);
+
+        // When
+        String original = deduplicator.fingerprint(files, "Travel Planner", "Plan a trip",
+                AdobeAnalysisService.dedupType(plain));
+        String sameFiles = deduplicator.fingerprint(reordered, "Travel Planner", "Plan a trip",
+                AdobeAnalysisService.dedupType(plain));
+        String insights = deduplicator.fingerprint(files, "Travel Planner", "Plan a trip",
+                AdobeAnalysisService.dedupType(withInsights));
+        String podcast = deduplicator.fingerprint(files, "Travel Planner", "Plan a trip",
+                AdobeAnalysisService.dedupType(withPodcast));
+
+        // Then
+        assertEquals(original, sameFiles);
+        assertNotEquals(original, insights);
+        assertNotEquals(original, podcast);
+        assertNotEquals(insights, podcast);
+    }
+
+    @Test
+    void reserve_DuplicateAttachesToJobCreatedByFirstSubmission() throws Exception {
+        // Given
+        String fingerprint = deduplicator.fingerprint(files, "Travel Planner", "Plan a trip", "standard");
+        when(jobRepository.findFirstByFingerprintAndStatusInAndCreatedAtAfterOrderByCreatedAtDesc(
+                eq(fingerprint), anyList(), any())).thenReturn(Optional.empty());
+
+        // When
+        Optional<String> first = deduplicator.reserve(fingerprint, "job-1");
+        deduplicator.markCreated(fingerprint, "job-1");
+        AnalysisJob job = new AnalysisJob("job-1", "Travel Planner", "Plan a trip");
+        job.setStatus("PROCESSING");
+        when(jobRepository.findByJobId("job-1")).thenReturn(Optional.of(job));
+        Optional<String> duplicate = deduplicator.reserve(fingerprint, "job-2");
+
+        // Then
+        assertTrue(first.isEmpty());
+        assertEquals(Optional.of("job-1"), duplicate);
+    }
+
+    @Test
+    void reserve_SubmissionAfterReleaseCreatesItsOwnJob() throws Exception {
+        // Given
+        String fingerprint = deduplicator.fingerprint(files, "Travel Planner", "Plan a trip", "standard");
+        when(jobRepository.findFirstByFingerprintAndStatusInAndCreatedAtAfterOrderByCreatedAtDesc(
+                eq(fingerprint), anyList(), any())).thenReturn(Optional.empty());
+        deduplicator.reserve(fingerprint, "job-1");
+
+        // When
+        deduplicator.release(fingerprint, "job-1");
+        Optional<String> next = deduplicator.reserve(fingerprint, "job-2");
+
+        // Then
+        assertTrue(next.isEmpty());
+    }
+
+    @Test
+    void reserve_AttachingDoesNotExtendTheStoredJobsWindow() throws Exception {
+        // Given
+        String fingerprint = deduplicator.fingerprint(files, "Travel Planner", "Plan a trip", "standard");
+        AnalysisJob stored = new AnalysisJob("stored-job", "Travel Planner", "Plan a trip");
+        stored.setStatus("COMPLETED");
+        stored.setCreatedAt(LocalDateTime.now().minusNanos(900_000_000L));
+        when(jobRepository.findFirstByFingerprintAndStatusInAndCreatedAtAfterOrderByCreatedAtDesc(
+                eq(fingerprint), anyList(), any())).thenReturn(Optional.of(stored)).thenReturn(Optional.empty());
+
+        // When
+        Optional<String> attached = deduplicator.reserve(fingerprint, "job-1");
+        Thread.sleep(200);
+        Optional<String> afterWindow = deduplicator.reserve(fingerprint, "job-2");
+
+        // Then
+        assertEquals(Optional.of("stored-job"), attached);
+        assertTrue(afterWindow.isEmpty());
+    }
+
+    @Test
+    void reserve_FailedJobIsNotReused() throws Exception {
+        // Given
+        String fingerprint = deduplicator.fingerprint(files, "Travel Planner", "Plan a trip", "standard");
+        when(jobRepository.findFirstByFingerprintAndStatusInAndCreatedAtAfterOrderByCreatedAtDesc(
+                eq(fingerprint), anyList(), any())).thenReturn(Optional.empty());
+        deduplicator.reserve(fingerprint, "job-1");
+        deduplicator.markCreated(fingerprint, "job-1");
+        AnalysisJob failed = new AnalysisJob("job-1", "Travel Planner", "Plan a trip");
+        failed.setStatus("FAILED");
+        when(jobRepository.findByJobId("job-1")).thenReturn(Optional.of(failed));
+
+        // When
+        Optional<String> next = deduplicator.reserve(fingerprint, "job-2");
+
+        // Then
+        assertTrue(next.isEmpty());
+    }
+}
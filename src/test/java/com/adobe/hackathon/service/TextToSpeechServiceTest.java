@@ -0,0 +1,223 @@
+package com.adobe.hackathon.service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextToSpeechServiceTest {
+
+    @TempDir
+    Path audioDir;
+
+    private HttpServer stubServer;
+    private ExecutorService ioExecutor;
+    private TextToSpeechService ttsService;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile CountDownLatch responseGate;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Stub TTS endpoint: answers each SSML request with the sentence it contained as "audio"
+        stubServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stubServer.createContext("/cognitiveservices/v1", exchange -> {
+            requests.incrementAndGet();
+            CountDownLatch gate = responseGate;
+            if (gate != null) {
+                try {
+                    gate.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            String ssml = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            String text = ssml.replaceAll("(?s).*<voice[^>]*>\\s*(.*?)\\s*</voice>.*", "$1");
+            byte[] body = ("[" + text + "]").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stubServer.start();
+
+        ioExecutor = Executors.newFixedThreadPool(4);
+        ttsService = new TextToSpeechService();
+        ReflectionTestUtils.setField(ttsService, "ttsProvider", "azure");
+        ReflectionTestUtils.setField(ttsService, "apiKey", "test-key");
+        ReflectionTestUtils.setField(ttsService, "endpoint", "http://localhost:" + stubServer.getAddress().getPort());
+        ReflectionTestUtils.setField(ttsService, "ioExecutor", ioExecutor);
+        ReflectionTestUtils.setField(ttsService, "callLimiter", new OutboundCallLimiter());
+        ReflectionTestUtils.setField(ttsService, "restTemplate", new RestTemplate());
+        ReflectionTestUtils.setField(ttsService, "audioDir", audioDir.toString());
+        ReflectionTestUtils.setField(ttsService, "chunkChars", 20);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stubServer.stop(0);
+        ioExecutor.shutdownNow();
+    }
+
+    @Test
+    void splitIntoChunks_BreaksAtSentenceBoundaries() {
+        // When
+        List<String> chunks = TextToSpeechService.splitIntoChunks("First one. Second one. Third sentence here.", 25);
+
+        // Then
+        assertEquals(List.of("First one. Second one.", "Third sentence here."), chunks);
+    }
+
+    @Test
+    void generateAudio_ConcatenatesChunksInScriptOrder() throws Exception {
+        // When
+        String audioUrl = ttsService.generateAudio("Alpha one. Bravo two. Charlie three.", "job-1");
+
+        // Then
+        String audioId = audioUrl.substring(audioUrl.lastIndexOf('/') + 1, audioUrl.length() - ".mp3".length());
+        Path audio = ttsService.findAudio(audioId).orElseThrow();
+        assertEquals("[Alpha one.][Bravo two.][Charlie three.]", Files.readString(audio));
+        assertEquals(3, requests.get());
+        try (Stream<Path> files = Files.list(audioDir)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void generateAudio_ReusesStoredAudioForSameScript() throws Exception {
+        // Given
+        String first = ttsService.generateAudio("Alpha one. Bravo two.", "job-1");
+        int requestsAfterFirst = requests.get();
+
+        // When
+        String second = ttsService.generateAudio("Alpha one. Bravo two.", "job-2");
+
+        // Then
+        assertEquals(first, second);
+        assertEquals(requestsAfterFirst, requests.get());
+    }
+
+    @Test
+    void generateAudioAsync_CompletesOnASingleThreadPool() throws Exception {
+        // Given
+        ioExecutor.shutdownNow();
+        ioExecutor = Executors.newSingleThreadExecutor();
+        ReflectionTestUtils.setField(ttsService, "ioExecutor", ioExecutor);
+
+        // When
+        String audioUrl = ttsService.generateAudioAsync("Alpha one. Bravo two. Charlie three.", "job-1")
+                .get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertTrue(audioUrl.startsWith("/api/adobe/podcast/audio/"));
+        assertEquals(3, requests.get());
+    }
+
+    @Test
+    void deleteAudioForJob_KeepsAudioAnotherJobStillUses() throws Exception {
+        // Given
+        String audioUrl = ttsService.generateAudio("Alpha one. Bravo two.", "job-1");
+        ttsService.generateAudio("Alpha one. Bravo two.", "job-2");
+        String audioId = audioUrl.substring(audioUrl.lastIndexOf('/') + 1, audioUrl.length() - ".mp3".length());
+        long size = Files.size(ttsService.findAudio(audioId).orElseThrow());
+
+        // When
+        long firstReclaimed = ttsService.deleteAudioForJob("job-1");
+
+        // Then
+        assertEquals(0, firstReclaimed);
+        assertTrue(ttsService.findAudio(audioId).isPresent());
+
+        // When the last job using it goes
+        long lastReclaimed = ttsService.deleteAudioForJob("job-2");
+
+        // Then
+        assertEquals(size, lastReclaimed);
+        assertTrue(ttsService.findAudio(audioId).isEmpty());
+    }
+
+    @Test
+    void deleteUnreferencedAudioOlderThan_SkipsAudioAJobReferences() throws Exception {
+        // Given
+        String audioUrl = ttsService.generateAudio("Alpha one. Bravo two.", "job-1");
+        String audioId = audioUrl.substring(audioUrl.lastIndexOf('/') + 1, audioUrl.length() - ".mp3".length());
+        Path orphan = audioDir.resolve("a".repeat(64) + ".mp3");
+        Files.writeString(orphan, "[Stored before references were kept]");
+
+        // When
+        ttsService.deleteUnreferencedAudioOlderThan(System.currentTimeMillis() + 60_000);
+
+        // Then
+        assertTrue(ttsService.findAudio(audioId).isPresent());
+        assertFalse(Files.exists(orphan));
+    }
+
+    @Test
+    void joinAudio_ConcatenatesSegmentsInOrder() throws Exception {
+        // Given
+        String first = ttsService.generateAudio("Alpha one.", "job-1");
+        String second = ttsService.generateAudio("Bravo two.", "job-1");
+
+        // When
+        String joined = ttsService.joinAudio(List.of(first, second), "job-1").orElseThrow();
+
+        // Then
+        String audioId = joined.substring(joined.lastIndexOf('/') + 1, joined.length() - ".mp3".length());
+        assertEquals("[Alpha one.][Bravo two.]", Files.readString(ttsService.findAudio(audioId).orElseThrow()));
+        assertTrue(ttsService.joinAudio(List.of(first, "/api/adobe/podcast/demo-audio/job-1"), "job-1").isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void generateAudio_BackgroundSynthesisRunsOutsideTheInFlightMap() throws Exception {
+        // Given
+        responseGate = new CountDownLatch(1);
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> background = caller.submit(() -> ttsService.generateAudio("Alpha one.", "job-1", true));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (requests.get() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            // When
+            Map<String, CompletableFuture<Path>> inFlight =
+                    (Map<String, CompletableFuture<Path>>) ReflectionTestUtils.getField(ttsService, "inFlight");
+            int claimed = inFlight.size();
+            CompletableFuture<String> shared = ttsService.generateAudioAsync("Alpha one.", "job-2");
+            responseGate.countDown();
+
+            // Then
+            assertEquals(1, claimed);
+            assertEquals(background.get(5, TimeUnit.SECONDS), shared.get(5, TimeUnit.SECONDS));
+            assertEquals(1, requests.get());
+        } finally {
+            caller.shutdownNow();
+        }
+    }
+
+    @Test
+    void findAudio_RejectsIdsThatAreNotHashes() {
+        assertTrue(ttsService.findAudio("../../etc/passwd").isEmpty());
+    }
+}